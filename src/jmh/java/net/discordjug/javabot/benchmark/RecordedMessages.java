@@ -0,0 +1,234 @@
+package net.discordjug.javabot.benchmark;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.util.GsonUtils;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Mentions;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.utils.TimeUtil;
+
+/**
+ * Messages recorded in the help forum and chat channels of the server, used as input of benchmarks so they don't need a connection to Discord.
+ * <p>
+ * The messages are loaded from {@code recorded-messages.json}. They are turned into JDA entities backed by proxies that only answer the getters
+ * used on the message hot paths and throw an {@link UnsupportedOperationException} for everything else.
+ * Unlike mocks, these proxies are cheap enough to be called inside of benchmarks without dominating the results.
+ * Every user is represented by a single instance, so users can be compared and hashed like the entities cached by JDA.
+ */
+public final class RecordedMessages {
+	private static final String RESOURCE = "/recorded-messages.json";
+	/**
+	 * The creation time of the first recorded message in epoch milliseconds.
+	 */
+	private static final long FIRST_TIMESTAMP = 1_760_000_000_000L;
+
+	private final Fixture fixture;
+	private final Guild guild;
+	private final Map<Long, User> users = new HashMap<>();
+	private final Map<Long, Member> members = new HashMap<>();
+	private final Map<Long, MessageChannelUnion> channels = new HashMap<>();
+
+	private RecordedMessages(Fixture fixture) {
+		this.fixture = fixture;
+		this.guild = proxy(Guild.class, Map.of(
+				"getIdLong", fixture.guildId(),
+				"getId", Long.toString(fixture.guildId()),
+				"getName", "Java Discord"
+		));
+	}
+
+	/**
+	 * Loads the recorded messages.
+	 *
+	 * @return The loaded {@link RecordedMessages}.
+	 */
+	public static RecordedMessages load() {
+		try (Reader reader = new InputStreamReader(Objects.requireNonNull(RecordedMessages.class.getResourceAsStream(RESOURCE), RESOURCE), StandardCharsets.UTF_8)) {
+			return new RecordedMessages(GsonUtils.fromJson(reader, Fixture.class));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Creates a configuration of the bot with default values in a new temporary directory.
+	 *
+	 * @return The created {@link BotConfig}.
+	 */
+	public static BotConfig createBotConfig() {
+		try {
+			return new BotConfig(Files.createTempDirectory("javabot-benchmark"));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Gets the guild all messages have been sent in.
+	 *
+	 * @return The {@link Guild}.
+	 */
+	public Guild getGuild() {
+		return guild;
+	}
+
+	/**
+	 * Gets the domains the recorded scam messages link to.
+	 *
+	 * @return The domains, which are not part of any list of scam domains used by the bot.
+	 */
+	public List<String> getScamDomains() {
+		return fixture.scamDomains();
+	}
+
+	/**
+	 * Gets the help forum posts the recorded messages have been sent in.
+	 *
+	 * @return The help posts.
+	 */
+	public List<HelpPost> getHelpPosts() {
+		return fixture.helpPosts();
+	}
+
+	/**
+	 * Gets the amount of recorded messages.
+	 *
+	 * @return The amount of messages.
+	 */
+	public int size() {
+		return fixture.messages().size();
+	}
+
+	/**
+	 * Creates all recorded messages, one second apart from each other, in the order they have been sent.
+	 *
+	 * @return The messages.
+	 */
+	public List<Message> createMessages() {
+		return createMessages(size());
+	}
+
+	/**
+	 * Creates a given amount of messages, one second apart from each other, repeating the recorded messages as often as needed.
+	 *
+	 * @param count The amount of messages to create.
+	 * @return The messages in the order they have been sent.
+	 */
+	public List<Message> createMessages(int count) {
+		List<Message> messages = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			messages.add(createMessage(fixture.messages().get(i % size()), TimeUtil.getDiscordTimestamp(FIRST_TIMESTAMP + i * 1000L)));
+		}
+		return messages;
+	}
+
+	/**
+	 * Creates the recorded messages sent in a channel.
+	 *
+	 * @param channelId The id of the channel.
+	 * @return The messages in the order they have been sent.
+	 */
+	public List<Message> createMessages(long channelId) {
+		return createMessages().stream()
+				.filter(message -> message.getChannelIdLong() == channelId)
+				.toList();
+	}
+
+	private Message createMessage(RecordedMessage recorded, long messageId) {
+		List<User> mentionedUsers = recorded.mentionedUserIds().stream().map(this::getUser).toList();
+		Map<String, Object> answers = new HashMap<>();
+		answers.put("getIdLong", messageId);
+		answers.put("getId", Long.toString(messageId));
+		answers.put("getTimeCreated", TimeUtil.getTimeCreated(messageId));
+		answers.put("getContentRaw", recorded.content());
+		answers.put("getContentDisplay", recorded.content());
+		answers.put("getMessageReference", null);
+		answers.put("getMessageSnapshots", List.of());
+		answers.put("getAuthor", getUser(recorded.authorId()));
+		answers.put("getMember", getMember(recorded.authorId()));
+		answers.put("isFromGuild", true);
+		answers.put("getGuild", guild);
+		answers.put("getGuildIdLong", guild.getIdLong());
+		answers.put("getChannel", getChannel(recorded.channelId()));
+		answers.put("getChannelIdLong", recorded.channelId());
+		answers.put("getMentions", proxy(Mentions.class, Map.of("getUsers", mentionedUsers)));
+		answers.put("getAttachments", List.of());
+		answers.put("getEmbeds", List.of());
+		return proxy(Message.class, answers);
+	}
+
+	private User getUser(long userId) {
+		return users.computeIfAbsent(userId, id -> proxy(User.class, Map.of(
+				"getIdLong", id,
+				"getId", Long.toString(id),
+				"getAsMention", "<@" + id + ">",
+				"isBot", false,
+				"isSystem", false
+		)));
+	}
+
+	private Member getMember(long userId) {
+		return members.computeIfAbsent(userId, id -> proxy(Member.class, Map.of(
+				"getIdLong", id,
+				"getId", Long.toString(id),
+				"getUser", getUser(id),
+				"getEffectiveName", "user" + id
+		)));
+	}
+
+	private MessageChannelUnion getChannel(long channelId) {
+		return channels.computeIfAbsent(channelId, id -> proxy(MessageChannelUnion.class, Map.of(
+				"getIdLong", id,
+				"getId", Long.toString(id)
+		)));
+	}
+
+	/**
+	 * Creates an instance of an interface answering calls of getters with fixed values.
+	 * Instances are only equal to themselves.
+	 */
+	private static <T> T proxy(Class<T> type, Map<String, Object> answers) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> switch (method.getName()) {
+			case "equals" -> self == args[0];
+			case "hashCode" -> System.identityHashCode(self);
+			case "toString" -> type.getSimpleName() + answers.getOrDefault("getId", "");
+			default -> {
+				if (!answers.containsKey(method.getName())) {
+					throw new UnsupportedOperationException(type.getSimpleName() + "#" + method.getName() + " has not been recorded");
+				}
+				yield answers.get(method.getName());
+			}
+		}));
+	}
+
+	/**
+	 * A recorded help forum post.
+	 *
+	 * @param channelId The id of the post.
+	 * @param ownerId The id of the user who created the post.
+	 */
+	public record HelpPost(long channelId, long ownerId) {
+	}
+
+	private record RecordedMessage(long channelId, long authorId, String content, List<Long> mentionedUserIds) {
+	}
+
+	private record Fixture(long guildId, List<String> scamDomains, List<HelpPost> helpPosts, List<RecordedMessage> messages) {
+	}
+}
@@ -0,0 +1,94 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import static org.mockito.Mockito.mock;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.discordjug.javabot.benchmark.RecordedMessages;
+import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.data.config.guild.MessageCacheConfig;
+import net.discordjug.javabot.data.h2db.message_cache.dao.MessageCacheRepository;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.utils.TimeUtil;
+
+/**
+ * Gets the most recent messages of a guild from a {@link MessageCache} filled with the {@link RecordedMessages}, one per second,
+ * like the spam checks of AutoMod do for every received message.
+ * The database is replaced by a mock and never written to, as synchronization is disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCacheBenchmark {
+	/**
+	 * The amount of cached messages of the guild.
+	 */
+	@Param({"1000", "10000"})
+	private int cachedMessages;
+
+	/**
+	 * How many seconds before the newest message the requested messages start, i.e. the amount of returned messages.
+	 */
+	@Param({"10", "600"})
+	private int windowSeconds;
+
+	/**
+	 * Whether messages are stored in compact form and need to be decoded when they are copied.
+	 */
+	@Param({"false", "true"})
+	private boolean compact;
+
+	private ExecutorService asyncPool;
+	private MessageCache messageCache;
+	private long guildId;
+	private OffsetDateTime after;
+
+	@Setup
+	public void setUp() {
+		RecordedMessages recorded = RecordedMessages.load();
+		BotConfig botConfig = RecordedMessages.createBotConfig();
+		botConfig.getSystems().setCompactMessageCache(compact);
+		MessageCacheConfig config = botConfig.get(recorded.getGuild()).getMessageCacheConfig();
+		config.setMaxCachedMessages(cachedMessages);
+		config.setMessageSynchronizationInterval(Integer.MAX_VALUE);
+		asyncPool = Executors.newSingleThreadExecutor();
+		messageCache = new MessageCache(botConfig, mock(MessageCacheRepository.class), asyncPool, mock(AttachmentPrefetcher.class));
+
+		List<Message> messages = recorded.createMessages(cachedMessages);
+		for (Message message : messages) {
+			messageCache.cache(message);
+		}
+		guildId = recorded.getGuild().getIdLong();
+		after = TimeUtil.getTimeCreated(messages.getLast().getIdLong()).minusSeconds(windowSeconds);
+	}
+
+	@TearDown
+	public void tearDown() {
+		asyncPool.shutdownNow();
+	}
+
+	@Benchmark
+	public int getMessagesAfter() {
+		return messageCache.getMessagesAfter(guildId, after).size();
+	}
+}
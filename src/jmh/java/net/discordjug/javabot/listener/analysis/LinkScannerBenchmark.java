@@ -0,0 +1,112 @@
+package net.discordjug.javabot.listener.analysis;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scans adversarial messages of increasing length with the {@link LinkScanner} and the regular expressions it replaced.
+ * <p>
+ * The time per operation of the scanner grows linearly with {@code length}, i.e. the time per character stays the same for every kind of input.
+ * The URL regex needs a stack frame per repetition of its nested group, so it throws a {@link StackOverflowError}
+ * for {@code slashes} of a few thousand characters, which is reported as {@code -1} here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkScannerBenchmark {
+	private static final Pattern INVITE_URL = Pattern.compile("discord(?:(\\.(?:me|io|gg)|sites\\.com)/.{0,4}|(?:app)?\\.com.{1,4}(?:invite|oauth2).{0,5}/)\\w+");
+	private static final Pattern URL_PATTERN = Pattern.compile(
+			"(?:^|[\\W])((ht|f)tp(s?)://|www\\.)"
+					+ "(([\\w\\-]+\\.)+?([\\w\\-.~]+/?)*"
+					+ "[\\p{Alnum}.,%_=?&#\\-+()\\[\\]*$~@!:/{};']*)",
+			Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
+
+	/**
+	 * The kind of adversarial input.
+	 * <ul>
+	 *     <li>{@code labels}: a single URL consisting of many labels</li>
+	 *     <li>{@code slashes}: a single URL with many path segments</li>
+	 *     <li>{@code dashes}: many almost-URLs without a valid label</li>
+	 *     <li>{@code invites}: many almost-invites with paths that only match after backtracking</li>
+	 * </ul>
+	 */
+	@Param({"labels", "slashes", "dashes", "invites"})
+	private String kind;
+
+	/**
+	 * The length of the message, 4000 being the limit of Discord.
+	 */
+	@Param({"1000", "4000", "16000"})
+	private int length;
+
+	private String text;
+
+	@Setup
+	public void setUp() {
+		String unit = switch (kind) {
+			case "labels" -> "a.";
+			case "slashes" -> "a/";
+			case "dashes" -> " www.-";
+			case "invites" -> "discord.com/invite~~~~~/";
+			default -> throw new IllegalArgumentException(kind);
+		};
+		String prefix = switch (kind) {
+			case "labels" -> "http://";
+			case "slashes" -> "www.a.";
+			default -> "";
+		};
+		text = prefix + unit.repeat(Math.max(1, (length - prefix.length()) / unit.length()));
+	}
+
+	@Benchmark
+	public int scannerUrls() {
+		return LinkScanner.findUrls(text).size();
+	}
+
+	@Benchmark
+	public int scannerInvites() {
+		return LinkScanner.findInviteUrls(text).size();
+	}
+
+	@Benchmark
+	public int regexUrls() {
+		try {
+			Matcher matcher = URL_PATTERN.matcher(text);
+			int count = 0;
+			while (matcher.find()) {
+				count++;
+			}
+			return count;
+		} catch (StackOverflowError e) {
+			return -1;
+		}
+	}
+
+	@Benchmark
+	public int regexInvites() {
+		Matcher matcher = INVITE_URL.matcher(text);
+		int count = 0;
+		int start = 0;
+		while (matcher.find(start)) {
+			count++;
+			start = matcher.start() + 1;
+		}
+		return count;
+	}
+}
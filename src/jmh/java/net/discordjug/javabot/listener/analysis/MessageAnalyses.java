@@ -0,0 +1,24 @@
+package net.discordjug.javabot.listener.analysis;
+
+import net.discordjug.javabot.data.config.BotConfig;
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Creates {@link MessageAnalysis} instances for benchmarks of other packages.
+ * Unlike {@link MessageAnalyzer#analyze(Message)}, every call creates a new analysis, so nothing computed by a previous operation is reused.
+ */
+public final class MessageAnalyses {
+	private MessageAnalyses() {
+	}
+
+	/**
+	 * Analyzes a message without remembering the analysis.
+	 *
+	 * @param message The message to analyze.
+	 * @param botConfig The main configuration of the bot.
+	 * @return The new {@link MessageAnalysis}.
+	 */
+	public static MessageAnalysis analyze(Message message, BotConfig botConfig) {
+		return new MessageAnalysis(message, botConfig);
+	}
+}
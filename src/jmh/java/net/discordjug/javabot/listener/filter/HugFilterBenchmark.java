@@ -0,0 +1,63 @@
+package net.discordjug.javabot.listener.filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.discordjug.javabot.benchmark.RecordedMessages;
+import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.listener.analysis.MessageAnalyses;
+import net.discordjug.javabot.listener.analysis.MessageAnalysis;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+/**
+ * Passes the {@link RecordedMessages} through the {@link HugFilter}, which is applied to every received message.
+ * Each operation processes all recorded messages, copying their content into a new buffer like the filter chain does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HugFilterBenchmark {
+	private final HugFilter hugFilter = new HugFilter();
+	private List<MessageReceivedEvent> events;
+	private List<MessageAnalysis> analyses;
+
+	@Setup
+	public void setUp() {
+		BotConfig botConfig = RecordedMessages.createBotConfig();
+		List<Message> messages = RecordedMessages.load().createMessages();
+		events = messages.stream()
+				.map(message -> new MessageReceivedEvent(null, 0, message))
+				.toList();
+		analyses = messages.stream()
+				.map(message -> MessageAnalyses.analyze(message, botConfig))
+				.toList();
+	}
+
+	@Benchmark
+	public int processMessage() {
+		int modified = 0;
+		for (int i = 0; i < events.size(); i++) {
+			MessageReceivedEvent event = events.get(i);
+			MessageContent content = new MessageContent(event, new StringBuilder(event.getMessage().getContentRaw()), List.of(), List.of(), analyses.get(i));
+			if (hugFilter.processMessage(content) == MessageModificationStatus.MODIFIED) {
+				modified++;
+			}
+		}
+		return modified;
+	}
+}
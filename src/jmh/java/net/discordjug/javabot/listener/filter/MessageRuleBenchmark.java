@@ -0,0 +1,86 @@
+package net.discordjug.javabot.listener.filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.discordjug.javabot.benchmark.RecordedMessages;
+import net.discordjug.javabot.data.config.guild.MessageRule;
+import net.discordjug.javabot.data.config.guild.MessageRule.MessageAction;
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Checks the {@link RecordedMessages} against typical {@link MessageRule}s, which the {@link MessageRuleFilter} does for every received message.
+ * <ul>
+ *     <li>{@code compiledRules}: the {@link CompiledMessageRules} used by the filter</li>
+ *     <li>{@code individualRules}: running the regex of each rule on its own, like the filter did before the rules were compiled</li>
+ * </ul>
+ * One of the rules uses a backreference, which is only supported by {@link Pattern}, so it is always checked on its own.
+ * Each operation processes all recorded messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageRuleBenchmark {
+	private List<MessageRule> rules;
+	private CompiledMessageRules compiledRules;
+	private List<String> contents;
+
+	@Setup
+	public void setUp() {
+		rules = List.of(
+				rule(Pattern.compile(".*free.{0,20}nitro.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL), MessageAction.BLOCK),
+				rule(Pattern.compile(".*steam.*(gift|trade).*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL), MessageAction.BLOCK),
+				rule(Pattern.compile(".*@everyone.*https?://.*", Pattern.DOTALL), MessageAction.LOG),
+				rule(Pattern.compile(".*(?:verify|claim) (?:your|it).*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL), MessageAction.LOG),
+				rule(Pattern.compile(".*\\b(\\w{4,}) \\1 \\1\\b.*", Pattern.DOTALL), MessageAction.LOG)
+		);
+		compiledRules = CompiledMessageRules.compile(rules);
+		contents = RecordedMessages.load().createMessages().stream()
+				.map(Message::getContentRaw)
+				.toList();
+	}
+
+	@Benchmark
+	public int compiledRules() {
+		int count = 0;
+		for (String content : contents) {
+			count += compiledRules.findMatchingRules(content, List.of(), _ -> "").size();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int individualRules() {
+		int count = 0;
+		for (String content : contents) {
+			for (MessageRule rule : rules) {
+				if (rule.getMessageRegex().matcher(content).matches()) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static MessageRule rule(Pattern messageRegex, MessageAction action) {
+		MessageRule rule = new MessageRule();
+		rule.setMessageRegex(messageRegex);
+		rule.setAction(action);
+		return rule;
+	}
+}
@@ -0,0 +1,73 @@
+package net.discordjug.javabot.systems.help;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.discordjug.javabot.benchmark.RecordedMessages;
+import net.discordjug.javabot.data.config.guild.HelpConfig;
+import net.discordjug.javabot.systems.help.dao.HelpPostActivityRepository;
+import net.discordjug.javabot.systems.help.model.HelperActivity;
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Calculates the experience of the helpers of the recorded help posts from the running totals remembered by {@link HelpPostActivity},
+ * which is done whenever a post is closed.
+ * Each operation processes all recorded posts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpExperienceBenchmark {
+	/**
+	 * How often the recorded conversation of each post is repeated, simulating longer posts with the same participants.
+	 */
+	@Param({"1", "10"})
+	private int repetitions;
+
+	private HelpConfig helpConfig;
+	private List<RecordedMessages.HelpPost> posts;
+	private List<Collection<HelperActivity>> postActivity;
+
+	@Setup
+	public void setUp() {
+		RecordedMessages recorded = RecordedMessages.load();
+		helpConfig = new HelpConfig();
+		posts = recorded.getHelpPosts();
+		HelpPostActivity activity = new HelpPostActivity(mock(HelpPostActivityRepository.class));
+		for (Message message : recorded.createMessages(recorded.size() * repetitions)) {
+			activity.recordMessage(message.getChannelIdLong(), message, helpConfig.getMinimumMessageLength());
+		}
+		postActivity = new ArrayList<>(posts.size());
+		for (RecordedMessages.HelpPost post : posts) {
+			postActivity.add(activity.getActivity(post.channelId()));
+		}
+	}
+
+	@Benchmark
+	public int calculateExperience() {
+		int helpers = 0;
+		for (int i = 0; i < posts.size(); i++) {
+			helpers += HelpManager.calculateExperience(postActivity.get(i), posts.get(i).ownerId(), helpConfig).size();
+		}
+		return helpers;
+	}
+}
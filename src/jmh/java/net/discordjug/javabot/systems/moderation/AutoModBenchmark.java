@@ -0,0 +1,88 @@
+package net.discordjug.javabot.systems.moderation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.discordjug.javabot.benchmark.RecordedMessages;
+import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.listener.analysis.MessageAnalyses;
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Checks the {@link RecordedMessages} for scam and advertising links like {@link AutoMod} does for every received message.
+ * <p>
+ * Every operation analyzes all recorded messages from scratch, so the time includes finding the URLs, hosts and invites in the messages,
+ * which is shared with other listeners in production.
+ * The scam domain list is loaded from a local file containing the recorded scam domains and synthetic domains, roughly as many as the real list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoModBenchmark {
+	private static final int SCAM_DOMAIN_COUNT = 30000;
+
+	private BotConfig botConfig;
+	private AutoMod autoMod;
+	private List<Message> messages;
+
+	@Setup
+	public void setUp() throws IOException {
+		RecordedMessages recorded = RecordedMessages.load();
+		botConfig = RecordedMessages.createBotConfig();
+		botConfig.get(recorded.getGuild()).getModerationConfig().setAutomodInviteExcludes(List.of("discord.gg/java"));
+
+		List<String> scamDomains = new ArrayList<>(recorded.getScamDomains());
+		Random random = new Random(42);
+		while (scamDomains.size() < SCAM_DOMAIN_COUNT) {
+			scamDomains.add("d" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36) + "-nitro.gift");
+		}
+		Path scamDomainFile = Files.createTempFile("scam-links", ".txt");
+		Files.write(scamDomainFile, scamDomains, StandardCharsets.UTF_8);
+		botConfig.getSystems().setScamLinkListCacheFile(scamDomainFile.toString());
+
+		autoMod = new AutoMod(null, botConfig, null, null, new ScamDomainList(null, botConfig.getSystems()), null);
+		messages = recorded.createMessages();
+	}
+
+	@Benchmark
+	public int hasSuspiciousLink() {
+		int count = 0;
+		for (Message message : messages) {
+			if (autoMod.hasSuspiciousLink(MessageAnalyses.analyze(message, botConfig))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int hasAdvertisingLink() {
+		int count = 0;
+		for (Message message : messages) {
+			if (autoMod.hasAdvertisingLink(MessageAnalyses.analyze(message, botConfig))) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
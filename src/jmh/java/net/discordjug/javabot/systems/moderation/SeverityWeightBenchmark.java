@@ -0,0 +1,65 @@
+package net.discordjug.javabot.systems.moderation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.discordjug.javabot.data.config.guild.ModerationConfig;
+import net.discordjug.javabot.systems.moderation.warn.model.Warn;
+import net.discordjug.javabot.systems.moderation.warn.model.WarnSeverity;
+
+/**
+ * Calculates the severity weight of the active warns of a user, which AutoMod and the warn commands do before deciding on a timeout.
+ * The warns are spread over the validity period and ordered from newest to oldest, like they are loaded from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeverityWeightBenchmark {
+	/**
+	 * The amount of active warns of the user.
+	 */
+	@Param({"3", "30", "300"})
+	private int warnCount;
+
+	private ModerationConfig moderationConfig;
+	private List<Warn> activeWarns;
+
+	@Setup
+	public void setUp() {
+		moderationConfig = new ModerationConfig();
+		moderationConfig.setWarnDecayDays(7);
+		moderationConfig.setWarnDecayAmount(20);
+		Random random = new Random(42);
+		WarnSeverity[] severities = WarnSeverity.values();
+		LocalDateTime now = LocalDateTime.now();
+		activeWarns = new ArrayList<>(warnCount);
+		for (int i = 0; i < warnCount; i++) {
+			Warn warn = new Warn(472396131420045322L, 209013488726310912L, severities[random.nextInt(severities.length)], "Automod: Suspicious Link");
+			warn.setCreatedAt(now.minusMinutes((long) i * moderationConfig.getMaxWarnValidityDays() * 24 * 60 / warnCount));
+			activeWarns.add(warn);
+		}
+	}
+
+	@Benchmark
+	public long calculateSeverityWeight() {
+		return ModerationService.calculateSeverityWeight(moderationConfig, activeWarns).totalSeverity();
+	}
+}
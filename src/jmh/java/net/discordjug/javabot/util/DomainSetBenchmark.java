@@ -0,0 +1,77 @@
+package net.discordjug.javabot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares looking up hosts in a {@link DomainSet} with the former {@link List#contains(Object)} lookup used by AutoMod.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainSetBenchmark {
+	/**
+	 * The amount of listed domains, roughly the size of the scam link list.
+	 */
+	@Param({"1000", "30000"})
+	private int domainCount;
+
+	private List<String> domainList;
+	private DomainSet domainSet;
+	private String listedHost;
+	private String unlistedHost;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		domainList = new ArrayList<>(domainCount);
+		for (int i = 0; i < domainCount; i++) {
+			domainList.add("d" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36) + "-nitro.gift");
+		}
+		domainSet = DomainSet.of(domainList);
+		listedHost = domainList.get(domainCount / 2);
+		unlistedHost = "docs.oracle.com";
+	}
+
+	@Benchmark
+	public boolean listContainsListed() {
+		return domainList.contains(listedHost);
+	}
+
+	@Benchmark
+	public boolean listContainsUnlisted() {
+		return domainList.contains(unlistedHost);
+	}
+
+	@Benchmark
+	public boolean domainSetMatchesListed() {
+		return domainSet.matches(listedHost);
+	}
+
+	@Benchmark
+	public boolean domainSetMatchesUnlisted() {
+		return domainSet.matches(unlistedHost);
+	}
+
+	@Benchmark
+	public boolean domainSetMatchesSubdomain() {
+		return domainSet.matches("cdn." + listedHost);
+	}
+}
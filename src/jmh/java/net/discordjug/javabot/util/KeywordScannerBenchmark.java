@@ -0,0 +1,162 @@
+package net.discordjug.javabot.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the text heuristics ported to the {@link KeywordScanner} with their former implementations
+ * on a corpus of typical messages of the help forum.
+ * <ul>
+ *     <li>{@code closeSuggestion*}: the close suggestion detectors of the help listener</li>
+ *     <li>{@code hug*}: finding words to replace by the hug filter</li>
+ *     <li>{@code clean*}: removing control characters and spaces before searching for invites</li>
+ * </ul>
+ * Each operation processes the whole corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordScannerBenchmark {
+	private static final String[][] CLOSE_SUGGESTION_DETECTORS = {
+			{"close", "post"},
+			{"close", "thread"},
+			{"close", "question"},
+			{"problem", "solv"},
+			{"issue", "solv"},
+			{"thank"}
+	};
+	private static final KeywordScanner CLOSE_SUGGESTION_SCANNER = new KeywordScanner(Arrays.stream(CLOSE_SUGGESTION_DETECTORS)
+			.flatMap(Arrays::stream)
+			.distinct()
+			.toList());
+	private static final KeywordScanner HUG_SCANNER = KeywordScanner.of("fuck");
+	private static final Pattern HUG_PATTERN = Pattern.compile("(fuck)(ing|er|ed|k+)?", Pattern.CASE_INSENSITIVE);
+
+	private static final List<String> CORPUS = List.of(
+			"Hey, I'm getting a NullPointerException when calling getUser() on my repository, can anyone help?",
+			"Here is my code:\n```java\npublic class Main {\n    public static void main(String[] args) {\n        List<String> names = null;\n        System.out.println(names.size());\n    }\n}\n```",
+			"Did you initialize the list before using it? `names` is null there.",
+			"Oh wow that was it, thank you so much!",
+			"The problem is solved, how do I close this post?",
+			"Use /help-close or the button at the top of the thread.",
+			"Why does my Spring Boot app fail with `Failed to configure a DataSource: 'url' attribute is not specified`?",
+			"You need to add spring.datasource.url to your application.properties or exclude DataSourceAutoConfiguration.",
+			"I tried that but now I get a different error: Caused by: org.hibernate.HikariPool$PoolInitializationException",
+			"Can you share your full stack trace? Please use a paste service like https://paste.discordjug.net for long logs.",
+			"fucking gradle keeps failing with 'Could not resolve all files for configuration :compileClasspath'",
+			"Try running ./gradlew build --refresh-dependencies and check whether your repository url is correct.",
+			"What's the difference between an abstract class and an interface since Java 8 added default methods?",
+			"An abstract class can have state (fields) and constructors, an interface can't. A class can implement many interfaces though.",
+			"Is it a good idea to use streams everywhere instead of for loops? My colleague says they are slower.",
+			"For most code the difference doesn't matter, write what is more readable and measure with JMH if you are unsure.",
+			"My issue is still not solved, the JavaFX window just stays white when I start it from IntelliJ.",
+			"Are you running it on the JavaFX application thread? Long running work on that thread freezes the UI.",
+			"ahh that makes sense, I was loading the file in start(). Thanks!",
+			"How can I read a file line by line and count how many times each word appears?",
+			"Files.lines(path).flatMap(line -> Arrays.stream(line.split(\"\\\\s+\"))).collect(Collectors.groupingBy(w -> w, Collectors.counting()))",
+			"I don't understand recursion, can someone explain it with a simple example? My professor's slides don't help at all",
+			"Think of factorial: n! = n * (n-1)!, and 0! = 1 is the base case where the recursion stops.",
+			"Should I learn Spring or Jakarta EE first for getting a job as a junior developer?",
+			"this question can be closed, I figured it out myself by reading the docs of ConcurrentHashMap\u200b"
+	);
+
+	@Benchmark
+	public int closeSuggestionIndexOf() {
+		int count = 0;
+		for (String message : CORPUS) {
+			String content = message.toLowerCase();
+			for (String[] detector : CLOSE_SUGGESTION_DETECTORS) {
+				boolean matches = true;
+				for (String keyword : detector) {
+					if (content.indexOf(keyword) == -1) {
+						matches = false;
+						break;
+					}
+				}
+				if (matches) {
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int closeSuggestionScanner() {
+		int count = 0;
+		for (String message : CORPUS) {
+			BitSet keywords = CLOSE_SUGGESTION_SCANNER.findKeywords(message);
+			for (String[] detector : CLOSE_SUGGESTION_DETECTORS) {
+				boolean matches = true;
+				for (String keyword : detector) {
+					if (!keywords.get(CLOSE_SUGGESTION_SCANNER.getKeywords().indexOf(keyword))) {
+						matches = false;
+						break;
+					}
+				}
+				if (matches) {
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int hugPattern() {
+		int count = 0;
+		for (String message : CORPUS) {
+			Matcher matcher = HUG_PATTERN.matcher(message);
+			while (matcher.find()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int hugScanner() {
+		int count = 0;
+		for (String message : CORPUS) {
+			count += HUG_SCANNER.findAll(message).size();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int cleanPattern() {
+		int length = 0;
+		for (String message : CORPUS) {
+			length += message.replaceAll("\\p{C}", "").replace(" ", "").length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int cleanSinglePass() {
+		int length = 0;
+		for (String message : CORPUS) {
+			length += StringUtils.removeControlCharactersAndSpaces(message).length();
+		}
+		return length;
+	}
+}
@@ -1,6 +1,8 @@
 package net.discordjug.javabot;
 
+import java.net.http.HttpClient;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -47,6 +49,14 @@ public class SpringConfig {
 		return botConfig.getSystems();
 	}
 
+	@Bean
+	HttpClient httpClient() {
+		return HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(10))
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.build();
+	}
+
 	/**
 	 * Initializes the {@link JDA} instances.
 	 * @param botConfig the main configuration of the bot
@@ -0,0 +1,40 @@
+package net.discordjug.javabot.api.routes.metrics;
+
+import lombok.RequiredArgsConstructor;
+import net.discordjug.javabot.api.exception.InvalidEntityIdException;
+import net.discordjug.javabot.data.h2db.message_cache.MessageCache;
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStatistics;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Handles all GET-Requests on the guilds/{guild_id}/metrics/message-cache route.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MessageCacheMetricsController {
+	private final JDA jda;
+	private final MessageCache messageCache;
+
+	/**
+	 * Serves statistics about the message cache of the specified guild.
+	 * These are not cached as they are cheap to collect.
+	 *
+	 * @param guildId The guilds' id.
+	 * @return The {@link ResponseEntity}.
+	 */
+	@GetMapping("guilds/{guild_id}/metrics/message-cache")
+	public ResponseEntity<MessageCacheStatistics> getMessageCacheMetrics(@PathVariable("guild_id") long guildId) {
+		Guild guild = jda.getGuildById(guildId);
+		if (guild == null) {
+			throw new InvalidEntityIdException(Guild.class, "You've provided an invalid guild id!");
+		}
+		return new ResponseEntity<>(messageCache.getStatistics(guild.getIdLong()), HttpStatus.OK);
+	}
+}
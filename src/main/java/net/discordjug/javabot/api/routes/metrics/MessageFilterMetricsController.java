@@ -0,0 +1,32 @@
+package net.discordjug.javabot.api.routes.metrics;
+
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import net.discordjug.javabot.listener.filter.MessageFilterHandler;
+import net.discordjug.javabot.util.LatencyHistogram;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Handles all GET-Requests on the metrics/message-filters route.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MessageFilterMetricsController {
+	private final MessageFilterHandler messageFilterHandler;
+
+	/**
+	 * Serves the latencies of all message filters.
+	 * These are shared by all guilds as the filters are.
+	 *
+	 * @return The {@link ResponseEntity}.
+	 */
+	@GetMapping("metrics/message-filters")
+	public ResponseEntity<Map<String, LatencyHistogram.Snapshot>> getMessageFilterMetrics() {
+		return new ResponseEntity<>(messageFilterHandler.getFilterLatencies(), HttpStatus.OK);
+	}
+}
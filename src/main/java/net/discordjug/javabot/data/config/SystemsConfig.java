@@ -36,6 +36,79 @@ public class SystemsConfig {
 	 */
 	private int asyncPoolSize = 4;
 
+	/**
+	 * Whether the message cache should store message contents and attachment
+	 * URLs as compact UTF-8 byte arrays which are only decoded when needed.
+	 */
+	private boolean compactMessageCache = false;
+
+	/**
+	 * Whether the message cache should be loaded from the database in the
+	 * background, allowing the bot to start before all messages are loaded.
+	 */
+	private boolean loadMessageCacheInBackground = false;
+
+	/**
+	 * The maximum amount of attachments of cached messages that are requested
+	 * from Discord's CDN at the same time.
+	 */
+	private int attachmentPrefetchConcurrency = 4;
+
+	/**
+	 * The maximum amount of attachments waiting to be requested from Discord's
+	 * CDN. Further attachments are dropped.
+	 */
+	private int attachmentPrefetchQueueSize = 500;
+
+	/**
+	 * The maximum amount of attachment hashes remembered for checking
+	 * attachments against message rules.
+	 */
+	private int attachmentHashCacheSize = 10_000;
+
+	/**
+	 * The maximum size of an attachment in bytes that is downloaded for
+	 * checking it against message rules. Larger attachments aren't hashed.
+	 */
+	private long attachmentHashMaxSize = 25 * 1024 * 1024;
+
+	/**
+	 * The time in milliseconds a single message filter may take for
+	 * processing a message. If a filter exceeds it, the message is left as is.
+	 * Attachments are only downloaded for half of this time, so message rules
+	 * can still be checked without them.
+	 */
+	private long messageFilterTimeoutMillis = 10_000;
+
+	/**
+	 * The directory of an append-only journal the message cache is persisted
+	 * to instead of the database. If empty, the database is used.
+	 */
+	private String messageCacheJournalPath = "";
+
+	/**
+	 * The size of a single message cache journal segment file in bytes.
+	 */
+	private int messageCacheJournalSegmentSize = 16 * 1024 * 1024;
+
+	/**
+	 * The amount of message cache journal segments after which the journal
+	 * is compacted.
+	 */
+	private int messageCacheJournalMaxSegments = 4;
+
+	/**
+	 * The URL of the list of scam domains AutoMod checks links against, with
+	 * one domain per line.
+	 */
+	private String scamLinkListUrl = "https://raw.githubusercontent.com/DevSpen/scam-links/master/src/links.txt";
+
+	/**
+	 * The file the last downloaded scam link list is stored in, so it is
+	 * available right away when the bot starts.
+	 */
+	private String scamLinkListCacheFile = "scam-links.txt";
+
 	/**
 	 * Configuration for the Hikari connection pool that's used for the bot's
 	 * SQL data source.
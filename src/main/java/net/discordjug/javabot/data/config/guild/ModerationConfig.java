@@ -40,6 +40,42 @@ public class ModerationConfig extends GuildConfigItem {
 	 * {@link #crossChannelSpamWindowSeconds} seconds before the cross-channel spam automod acts.
 	 */
 	private int crossChannelSpamMinChannels = 3;
+
+	/**
+	 * The time window, in seconds, that the near-duplicate automod looks back over when
+	 * searching for messages with almost the same content. If this is {@code 0}, the near-duplicate
+	 * automod is disabled.
+	 */
+	private int nearDuplicateWindowSeconds = 0;
+
+	/**
+	 * The maximum amount of bits (out of 64) the content fingerprints of two messages may differ in
+	 * for the messages to be considered near-identical.
+	 */
+	private int nearDuplicateMaxDistance = 10;
+
+	/**
+	 * The minimum length of a message for it to be checked by the near-duplicate automod.
+	 */
+	private int nearDuplicateMinLength = 20;
+
+	/**
+	 * The number of near-identical messages a single user must send within
+	 * {@link #nearDuplicateWindowSeconds} seconds before the near-duplicate automod acts.
+	 */
+	private int nearDuplicateMinMessages = 4;
+
+	/**
+	 * The number of distinct fresh accounts that must send near-identical messages within
+	 * {@link #nearDuplicateWindowSeconds} seconds before the near-duplicate automod acts.
+	 * If this is {@code 0}, only messages of single users are checked.
+	 */
+	private int nearDuplicateMinFreshAccounts = 3;
+
+	/**
+	 * The age of an account, in days, up to which it is considered fresh by the near-duplicate automod.
+	 */
+	private int nearDuplicateFreshAccountDays = 7;
 	/**
 	 * ID of the share-knowledge channel.
 	 */
@@ -5,6 +5,7 @@ import net.discordjug.javabot.data.config.BotConfig;
 import net.discordjug.javabot.data.config.GuildConfig;
 import net.discordjug.javabot.data.h2db.DbActions;
 import net.discordjug.javabot.data.h2db.message_cache.MessageCache;
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStatistics;
 import net.discordjug.javabot.util.Responses;
 import net.discordjug.javabot.util.UserUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -39,20 +40,34 @@ public class MessageCacheInfoSubcommand extends SlashCommand.Subcommand {
 
 	@Override
 	public void execute(SlashCommandInteractionEvent event) {
-		event.replyEmbeds(buildInfoEmbed(botConfig.get(event.getGuild()), event.getUser())).queue();
+		event.replyEmbeds(buildInfoEmbed(event.getGuild().getIdLong(), botConfig.get(event.getGuild()), event.getUser())).queue();
 	}
 
-	private MessageEmbed buildInfoEmbed(GuildConfig config, User author) {
-		long messages = dbActions.count("SELECT count(*) FROM message_cache");
+	private MessageEmbed buildInfoEmbed(long guildId, GuildConfig config, User author) {
+		long messages = dbActions.count("SELECT count(*) FROM message_cache WHERE guild_id = ?", stmt -> stmt.setLong(1, guildId));
 		int maxMessages = config.getMessageCacheConfig().getMaxCachedMessages();
+		MessageCacheStatistics stats = messageCache.getStatistics(guildId);
 		return new EmbedBuilder()
 				.setAuthor(UserUtils.getUserTag(author), null, author.getEffectiveAvatarUrl())
 				.setTitle("Message Cache Info")
 				.setColor(Responses.Type.DEFAULT.getColor())
 				.addField("Table Size", dbActions.getLogicalSize("message_cache") + " bytes", false)
-				.addField("Message Count", String.valueOf(messageCache.getMessageCount()), true)
-				.addField("Cached (Memory)", String.format("%s/%s (%.2f%%)", messageCache.cache.size(), maxMessages, ((float) messageCache.cache.size() / maxMessages) * 100), true)
+				.addField("Message Count", String.valueOf(stats.pendingMessages()), true)
+				.addField("Cached (Memory)", String.format("%s/%s (%.2f%%)%s", stats.cachedMessages(), maxMessages, ((float) stats.cachedMessages() / maxMessages) * 100, stats.loading() ? " (loading)" : ""), true)
 				.addField("Cached (Database)", String.format("%s/%s (%.2f%%)", messages, maxMessages, ((float) messages / maxMessages) * 100), true)
+				.addField("Retained (Estimated)", String.format("%.2f MiB", stats.retainedBytes() / (1024.0 * 1024.0)), true)
+				.addField("Evictions", String.valueOf(stats.evictions()), true)
+				.addField("Edit Lookups", formatHitRate(stats.editHits(), stats.editMisses()), true)
+				.addField("Delete Lookups", formatHitRate(stats.deleteHits(), stats.deleteMisses()), true)
+				.addField("Last Synchronization", String.format("%s saved, %s removed in %sms (%s synchronizations, %s saved in total)",
+						stats.lastSynchronizationWritten(), stats.lastSynchronizationDeleted(), stats.lastSynchronizationMillis(), stats.synchronizations(), stats.totalWritten()), false)
+				.addField("Attachment Warm-up", String.format("%s requested (avg. %sms, max. %sms), %s queued, %s failed, %s dropped",
+						stats.attachmentsPrefetched(), stats.averageAttachmentLatencyMillis(), stats.maxAttachmentLatencyMillis(), stats.attachmentsQueued(), stats.attachmentsFailed(), stats.attachmentsDropped()), false)
 				.build();
 	}
+
+	private String formatHitRate(long hits, long misses) {
+		long total = hits + misses;
+		return String.format("%s/%s hits (%.2f%%)", hits, total, total == 0 ? 0f : ((float) hits / total) * 100);
+	}
 }
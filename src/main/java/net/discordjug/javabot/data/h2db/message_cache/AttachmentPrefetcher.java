@@ -0,0 +1,181 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.discordjug.javabot.data.config.SystemsConfig;
+
+/**
+ * Requests attachments of cached messages from Discord's CDN.
+ * This is done in order to prevent Discord from deleting the attachment too quickly.
+ * <p>
+ * All requests share a single {@link HttpClient}. At most {@link SystemsConfig#getAttachmentPrefetchConcurrency()} requests
+ * are in flight at the same time, further attachments are queued and dropped if the queue is full.
+ * Only the first byte of every attachment is requested.
+ */
+@Slf4j
+@Service
+public class AttachmentPrefetcher {
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient httpClient;
+	private final Semaphore permits;
+	private final BlockingQueue<String> queue;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong totalLatencyNanos = new AtomicLong();
+	private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+	/**
+	 * Creates the prefetcher.
+	 *
+	 * @param httpClient The shared {@link HttpClient} used for requesting attachments
+	 * @param systemsConfig Configuration containing the concurrency and queue limits
+	 */
+	public AttachmentPrefetcher(HttpClient httpClient, SystemsConfig systemsConfig) {
+		this.httpClient = httpClient;
+		this.permits = new Semaphore(Math.max(1, systemsConfig.getAttachmentPrefetchConcurrency()));
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, systemsConfig.getAttachmentPrefetchQueueSize()));
+	}
+
+	/**
+	 * Queues the given attachments for being requested.
+	 * Attachments that don't fit into the queue are dropped.
+	 *
+	 * @param attachments The URLs of the attachments
+	 */
+	public void prefetch(List<String> attachments) {
+		for (String attachment : attachments) {
+			if (!queue.offer(attachment)) {
+				dropped.incrementAndGet();
+			}
+		}
+		drain();
+	}
+
+	/**
+	 * Gets the amount of attachment requests currently in flight.
+	 *
+	 * @return The amount of requests waiting for a response.
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Gets the amount of attachments waiting for a request.
+	 *
+	 * @return The amount of queued attachments.
+	 */
+	public int getQueued() {
+		return queue.size();
+	}
+
+	/**
+	 * Gets the amount of attachments that have been requested successfully.
+	 *
+	 * @return The amount of successful requests.
+	 */
+	public long getCompleted() {
+		return completed.get();
+	}
+
+	/**
+	 * Gets the amount of attachments that have been dropped because the queue was full.
+	 *
+	 * @return The amount of dropped attachments.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Gets the amount of attachment requests that failed.
+	 *
+	 * @return The amount of failed requests.
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Gets the average time it took to successfully request an attachment.
+	 *
+	 * @return The average latency in milliseconds or {@code 0} if no attachment has been requested yet.
+	 */
+	public long getAverageLatencyMillis() {
+		long count = completed.get();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / count);
+	}
+
+	/**
+	 * Gets the longest time it took to successfully request an attachment.
+	 *
+	 * @return The maximum latency in milliseconds.
+	 */
+	public long getMaxLatencyMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+	}
+
+	private void drain() {
+		while (!queue.isEmpty() && permits.tryAcquire()) {
+			String attachment = queue.poll();
+			if (attachment == null) {
+				permits.release();
+			} else {
+				request(attachment);
+			}
+		}
+	}
+
+	private void request(String attachment) {
+		HttpRequest request;
+		try {
+			request = HttpRequest.newBuilder(URI.create(attachment))
+					.header("Range", "bytes=0-0")
+					.timeout(REQUEST_TIMEOUT)
+					.build();
+		} catch (IllegalArgumentException e) {
+			log.warn("Cannot request invalid attachment URL {}", attachment);
+			failed.incrementAndGet();
+			permits.release();
+			return;
+		}
+		inFlight.incrementAndGet();
+		long start = System.nanoTime();
+		httpClient.sendAsync(request, BodyHandlers.discarding()).whenComplete((response, error) -> {
+			inFlight.decrementAndGet();
+			if (error == null && isSuccessful(response)) {
+				long latency = System.nanoTime() - start;
+				totalLatencyNanos.addAndGet(latency);
+				maxLatencyNanos.accumulateAndGet(latency, Math::max);
+				completed.incrementAndGet();
+			} else {
+				failed.incrementAndGet();
+			}
+			permits.release();
+			drain();
+		});
+	}
+
+	private boolean isSuccessful(HttpResponse<?> response) {
+		return response.statusCode() >= 200 && response.statusCode() < 300;
+	}
+}
@@ -0,0 +1,213 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+/**
+ * A fixed-size ring of the most recent cached messages sent by a single author.
+ * <p>
+ * Entries are stored in primitive arrays ordered from oldest to newest, so spam checks only have to look at the
+ * messages of the author in question and don't need to allocate anything.
+ * If the author sends more than {@link #CAPACITY} messages, the oldest entries are overwritten.
+ */
+public class AuthorMessageWindow {
+	/**
+	 * The maximum amount of messages remembered per author.
+	 */
+	public static final int CAPACITY = 32;
+
+	private final long[] messageIds = new long[CAPACITY];
+	private final long[] channelIds = new long[CAPACITY];
+	private final long[] timestamps = new long[CAPACITY];
+	private final boolean[] javaAttachmentsOnly = new boolean[CAPACITY];
+	private int head = 0;
+	private int size = 0;
+
+	/**
+	 * Adds a message to the end of the window, overwriting the oldest entry if the window is full.
+	 *
+	 * @param messageId The id of the message.
+	 * @param channelId The id of the channel the message was sent in.
+	 * @param timestamp The creation time of the message in epoch milliseconds.
+	 * @param onlyJavaAttachments Whether the message has attachments and all of them are Java files.
+	 */
+	public void add(long messageId, long channelId, long timestamp, boolean onlyJavaAttachments) {
+		int index;
+		if (size == CAPACITY) {
+			index = head;
+			head = (head + 1) % CAPACITY;
+		} else {
+			index = (head + size) % CAPACITY;
+			size++;
+		}
+		messageIds[index] = messageId;
+		channelIds[index] = channelId;
+		timestamps[index] = timestamp;
+		javaAttachmentsOnly[index] = onlyJavaAttachments;
+	}
+
+	/**
+	 * Adds a message to the start of the window.
+	 * This is used for messages older than all messages in the window, e.g. when loading the cache from newest to oldest.
+	 * If the window is full, the message is ignored.
+	 *
+	 * @param messageId The id of the message.
+	 * @param channelId The id of the channel the message was sent in.
+	 * @param timestamp The creation time of the message in epoch milliseconds.
+	 * @param onlyJavaAttachments Whether the message has attachments and all of them are Java files.
+	 */
+	public void addFirst(long messageId, long channelId, long timestamp, boolean onlyJavaAttachments) {
+		if (size == CAPACITY) {
+			return;
+		}
+		head = (head - 1 + CAPACITY) % CAPACITY;
+		size++;
+		messageIds[head] = messageId;
+		channelIds[head] = channelId;
+		timestamps[head] = timestamp;
+		javaAttachmentsOnly[head] = onlyJavaAttachments;
+	}
+
+	/**
+	 * Updates the attachment information of a message in this window.
+	 *
+	 * @param messageId The id of the message.
+	 * @param onlyJavaAttachments Whether the message has attachments and all of them are Java files.
+	 */
+	public void update(long messageId, boolean onlyJavaAttachments) {
+		int position = find(messageId);
+		if (position != -1) {
+			javaAttachmentsOnly[(head + position) % CAPACITY] = onlyJavaAttachments;
+		}
+	}
+
+	/**
+	 * Removes a message from this window.
+	 * Removing the oldest message (which is the common case when the cache evicts messages) doesn't need to move any entries.
+	 *
+	 * @param messageId The id of the message to remove.
+	 * @return {@code true} if the message was part of this window, else {@code false}
+	 */
+	public boolean remove(long messageId) {
+		int position = find(messageId);
+		if (position == -1) {
+			return false;
+		}
+		if (position == 0) {
+			head = (head + 1) % CAPACITY;
+		} else {
+			for (int i = position; i < size - 1; i++) {
+				int to = (head + i) % CAPACITY;
+				int from = (to + 1) % CAPACITY;
+				messageIds[to] = messageIds[from];
+				channelIds[to] = channelIds[from];
+				timestamps[to] = timestamps[from];
+				javaAttachmentsOnly[to] = javaAttachmentsOnly[from];
+			}
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * Checks whether this window doesn't contain any messages.
+	 *
+	 * @return {@code true} if there are no messages in this window, else {@code false}
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Counts the messages that were sent at or after the given timestamp.
+	 *
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should not be counted.
+	 * @param ignoreJavaAttachments Whether messages only consisting of Java file attachments should be ignored.
+	 * @return The amount of matching messages.
+	 */
+	public int countAfter(long timestamp, long excludedMessageId, boolean ignoreJavaAttachments) {
+		int count = 0;
+		for (int i = size - 1; i >= 0; i--) {
+			int index = (head + i) % CAPACITY;
+			if (timestamps[index] < timestamp) {
+				break;
+			}
+			if (messageIds[index] != excludedMessageId && !(ignoreJavaAttachments && javaAttachmentsOnly[index])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the distinct channels messages were sent in at or after the given timestamp.
+	 *
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should not be considered.
+	 * @return The amount of distinct channels.
+	 */
+	public int countChannelsAfter(long timestamp, long excludedMessageId) {
+		int count = 0;
+		for (int i = size - 1; i >= 0; i--) {
+			int index = (head + i) % CAPACITY;
+			if (timestamps[index] < timestamp) {
+				break;
+			}
+			if (messageIds[index] != excludedMessageId && !containsChannelAfter(channelIds[index], i, timestamp, excludedMessageId)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Passes all messages sent at or after the given timestamp to a consumer, from oldest to newest.
+	 *
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should be skipped.
+	 * @param consumer The consumer accepting the message and channel ids.
+	 */
+	public void forEachAfter(long timestamp, long excludedMessageId, EntryConsumer consumer) {
+		int first = size;
+		while (first > 0 && timestamps[(head + first - 1) % CAPACITY] >= timestamp) {
+			first--;
+		}
+		for (int i = first; i < size; i++) {
+			int index = (head + i) % CAPACITY;
+			if (messageIds[index] != excludedMessageId) {
+				consumer.accept(messageIds[index], channelIds[index]);
+			}
+		}
+	}
+
+	private boolean containsChannelAfter(long channelId, int position, long timestamp, long excludedMessageId) {
+		for (int i = position + 1; i < size; i++) {
+			int index = (head + i) % CAPACITY;
+			if (timestamps[index] >= timestamp && messageIds[index] != excludedMessageId && channelIds[index] == channelId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int find(long messageId) {
+		for (int i = size - 1; i >= 0; i--) {
+			if (messageIds[(head + i) % CAPACITY] == messageId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Accepts the ids of a message stored in an {@link AuthorMessageWindow}.
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer {
+		/**
+		 * Accepts a single message.
+		 *
+		 * @param messageId The id of the message.
+		 * @param channelId The id of the channel the message was sent in.
+		 */
+		void accept(long messageId, long channelId);
+	}
+}
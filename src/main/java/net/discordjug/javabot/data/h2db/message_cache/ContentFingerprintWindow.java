@@ -0,0 +1,134 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import net.discordjug.javabot.util.ContentFingerprint;
+
+/**
+ * A fixed-size ring of the {@link ContentFingerprint fingerprints} of the most recent cached messages of a guild.
+ * <p>
+ * Like {@link AuthorMessageWindow}, entries are stored in primitive arrays ordered from oldest to newest
+ * and the oldest entries are overwritten once more than {@link #CAPACITY} messages have been added,
+ * so looking for near-duplicates of a message takes constant time, no matter how many messages are cached.
+ * Removed messages are only marked as such, so removing a message never needs to move entries.
+ */
+public class ContentFingerprintWindow {
+	/**
+	 * The maximum amount of messages remembered per guild.
+	 */
+	public static final int CAPACITY = 1024;
+
+	private final long[] messageIds = new long[CAPACITY];
+	private final long[] channelIds = new long[CAPACITY];
+	private final long[] authorIds = new long[CAPACITY];
+	private final long[] timestamps = new long[CAPACITY];
+	private final long[] fingerprints = new long[CAPACITY];
+	private int head = 0;
+	private int size = 0;
+
+	/**
+	 * Adds a message to the end of the window, overwriting the oldest entry if the window is full.
+	 * Messages without a fingerprint are ignored.
+	 *
+	 * @param messageId The id of the message.
+	 * @param channelId The id of the channel the message was sent in.
+	 * @param authorId The id of the author of the message.
+	 * @param timestamp The creation time of the message in epoch milliseconds.
+	 * @param fingerprint The fingerprint of the content of the message.
+	 */
+	public void add(long messageId, long channelId, long authorId, long timestamp, long fingerprint) {
+		if (fingerprint == ContentFingerprint.NONE) {
+			return;
+		}
+		int index;
+		if (size == CAPACITY) {
+			index = head;
+			head = (head + 1) % CAPACITY;
+		} else {
+			index = (head + size) % CAPACITY;
+			size++;
+		}
+		messageIds[index] = messageId;
+		channelIds[index] = channelId;
+		authorIds[index] = authorId;
+		timestamps[index] = timestamp;
+		fingerprints[index] = fingerprint;
+	}
+
+	/**
+	 * Changes the fingerprint of a message in this window, e.g. after it has been edited.
+	 *
+	 * @param messageId The id of the message.
+	 * @param timestamp The creation time of the message in epoch milliseconds.
+	 * @param fingerprint The new fingerprint of the content of the message.
+	 */
+	public void update(long messageId, long timestamp, long fingerprint) {
+		int index = find(messageId, timestamp);
+		if (index != -1) {
+			fingerprints[index] = fingerprint;
+		}
+	}
+
+	/**
+	 * Marks a message as removed, so it isn't reported as a near-duplicate anymore.
+	 *
+	 * @param messageId The id of the message.
+	 * @param timestamp The creation time of the message in epoch milliseconds.
+	 */
+	public void remove(long messageId, long timestamp) {
+		update(messageId, timestamp, ContentFingerprint.NONE);
+	}
+
+	/**
+	 * Passes all messages sent at or after the given timestamp whose content is near-identical to a fingerprint to a consumer,
+	 * from newest to oldest.
+	 *
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should be skipped.
+	 * @param fingerprint The fingerprint to compare the messages to.
+	 * @param maxDistance The maximum amount of bits the fingerprints of near-identical messages differ in.
+	 * @param consumer The consumer accepting the message, channel and author ids.
+	 */
+	public void forEachSimilarAfter(long timestamp, long excludedMessageId, long fingerprint, int maxDistance, SimilarMessageConsumer consumer) {
+		for (int i = size - 1; i >= 0; i--) {
+			int index = (head + i) % CAPACITY;
+			if (timestamps[index] < timestamp) {
+				break;
+			}
+			if (messageIds[index] != excludedMessageId && ContentFingerprint.isSimilar(fingerprints[index], fingerprint, maxDistance)) {
+				consumer.accept(messageIds[index], channelIds[index], authorIds[index]);
+			}
+		}
+	}
+
+	/**
+	 * Finds a message, starting at the newest message and stopping at the first message older than it.
+	 *
+	 * @return The index of the message in the arrays or {@code -1} if it is not part of this window.
+	 */
+	private int find(long messageId, long timestamp) {
+		for (int i = size - 1; i >= 0; i--) {
+			int index = (head + i) % CAPACITY;
+			if (timestamps[index] < timestamp) {
+				return -1;
+			}
+			if (messageIds[index] == messageId) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Accepts the ids of a message stored in a {@link ContentFingerprintWindow}.
+	 */
+	@FunctionalInterface
+	public interface SimilarMessageConsumer {
+		/**
+		 * Accepts a single message.
+		 *
+		 * @param messageId The id of the message.
+		 * @param channelId The id of the channel the message was sent in.
+		 * @param authorId The id of the author of the message.
+		 */
+		void accept(long messageId, long channelId, long authorId);
+	}
+}
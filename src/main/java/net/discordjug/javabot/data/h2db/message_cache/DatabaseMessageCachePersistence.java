@@ -0,0 +1,32 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import java.util.function.Consumer;
+
+import lombok.RequiredArgsConstructor;
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStore.PendingChanges;
+import net.discordjug.javabot.data.h2db.message_cache.dao.MessageCacheRepository;
+import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
+
+/**
+ * Persists the {@link MessageCache} in the main database, which is synchronized in intervals.
+ */
+@RequiredArgsConstructor
+class DatabaseMessageCachePersistence implements MessageCachePersistence {
+	private final MessageCacheRepository cacheRepository;
+
+	@Override
+	public void forEachNewestFirst(Consumer<CachedMessage> consumer) {
+		cacheRepository.forEachNewestFirst(consumer);
+	}
+
+	@Override
+	public void persist(PendingChanges changes) {
+		cacheRepository.deleteAll(changes.removed());
+		cacheRepository.insertList(changes.changed());
+	}
+
+	@Override
+	public boolean isImmediate() {
+		return false;
+	}
+}
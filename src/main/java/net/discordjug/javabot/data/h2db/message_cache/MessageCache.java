@@ -1,9 +1,10 @@
 package net.discordjug.javabot.data.h2db.message_cache;
 
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.data.config.SystemsConfig;
 import net.discordjug.javabot.data.config.guild.MessageCacheConfig;
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStore.PendingChanges;
 import net.discordjug.javabot.data.h2db.message_cache.dao.MessageCacheRepository;
 import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
 import net.discordjug.javabot.systems.user_commands.IdCalculatorCommand;
@@ -21,21 +22,22 @@ import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
 import net.dv8tion.jda.api.utils.FileUpload;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.springframework.dao.DataAccessException;
@@ -48,57 +50,201 @@ import org.springframework.stereotype.Service;
 @Service
 public class MessageCache {
 	/**
-	 * A memory-cache (list) of sent Messages, wrapped to a {@link CachedMessage} object.
+	 * The in-memory state of the cache, partitioned by guild id so every guild has its own limit, synchronization counter and eviction.
+	 * Each partition can safely be accessed from multiple threads.
 	 */
-	public Deque<CachedMessage> cache = new ArrayDeque<>();
+	private final Map<Long, MessageCacheStore> partitions = new ConcurrentHashMap<>();
 	/**
-	 * Amount of messages since the last synchronization.
-	 * <p>
-	 * If a certain threshold is reached, messages will be synchronized to reduce the chances of loosing
-	 * messages during an unexpected shutdown.
+	 * Stored messages that have been cached before the guild was stored together with the message.
+	 * One of them is evicted whenever a new message is cached, so they age out like they did in the former global cache.
+	 */
+	private final MessageCacheStore legacyPartition = new MessageCacheStore();
+	/**
+	 * Whether stored messages are still being loaded.
 	 */
-	@Getter
-	private int messageCount = 0;
+	private volatile boolean loading = true;
 
 	private final ExecutorService asyncPool;
 	private final BotConfig botConfig;
-	private final MessageCacheRepository cacheRepository;
+	private final MessageCachePersistence persistence;
+	private final AttachmentPrefetcher attachmentPrefetcher;
+	/**
+	 * Ensures changes are persisted in the order they have been taken from the {@link #partitions}.
+	 */
+	private final Object persistLock = new Object();
+	/**
+	 * Statistics about synchronizations, which are only modified while holding the {@link #persistLock}.
+	 */
+	private volatile long synchronizations = 0;
+	private volatile long lastSynchronizationMillis = 0;
+	private volatile int lastSynchronizationWritten = 0;
+	private volatile int lastSynchronizationDeleted = 0;
+	private volatile long totalWritten = 0;
 
 	/**
 	 * Creates a new messages & loads messages from the DB into a List.
 	 * @param botConfig The main configuration of the bot
 	 * @param cacheRepository Dao class that represents the QOTW_POINTS SQL Table.
 	 * @param asyncPool The main thread pool for asynchronous operations
+	 * @param attachmentPrefetcher Service requesting attachments of cached messages from Discord's CDN
 	 */
-	public MessageCache(BotConfig botConfig, MessageCacheRepository cacheRepository, ExecutorService asyncPool) {
+	public MessageCache(BotConfig botConfig, MessageCacheRepository cacheRepository, ExecutorService asyncPool, AttachmentPrefetcher attachmentPrefetcher) {
 		this.asyncPool = asyncPool;
 		this.botConfig = botConfig;
-		this.cacheRepository = cacheRepository;
+		this.persistence = createPersistence(botConfig.getSystems(), cacheRepository, asyncPool);
+		this.attachmentPrefetcher = attachmentPrefetcher;
+		legacyPartition.setLoading(true);
+		if (botConfig.getSystems().isLoadMessageCacheInBackground()) {
+			asyncPool.execute(this::loadStoredMessages);
+		} else {
+			loadStoredMessages();
+		}
+	}
+
+	private static MessageCachePersistence createPersistence(SystemsConfig config, MessageCacheRepository cacheRepository, ExecutorService asyncPool) {
+		if (config.getMessageCacheJournalPath().isBlank()) {
+			return new DatabaseMessageCachePersistence(cacheRepository);
+		}
 		try {
-			cache = new ArrayDeque<>(cacheRepository.getAll());
-		} catch (DataAccessException e) {
+			return new MessageCacheJournal(Path.of(config.getMessageCacheJournalPath()), config.getMessageCacheJournalSegmentSize(), config.getMessageCacheJournalMaxSegments(), asyncPool);
+		} catch (IOException e) {
+			ExceptionLogger.capture(e, MessageCache.class.getSimpleName());
+			log.error("Could not open the message cache journal, using the database instead.", e);
+			return new DatabaseMessageCachePersistence(cacheRepository);
+		}
+	}
+
+	/**
+	 * Streams the stored messages from the database or journal into the cache, from the newest to the oldest message.
+	 * Messages cached while loading are kept in front of the loaded messages.
+	 */
+	private void loadStoredMessages() {
+		boolean compact = botConfig.getSystems().isCompactMessageCache();
+		try {
+			persistence.forEachNewestFirst(message -> {
+				message.setCompact(compact);
+				if (message.getGuildId() == CachedMessage.UNKNOWN_GUILD) {
+					legacyPartition.loadOldest(message);
+				} else {
+					getPartition(message.getGuildId()).loadOldest(message);
+				}
+			});
+			log.info("Loaded {} messages into the message cache.", size() + legacyPartition.size());
+		} catch (DataAccessException | UncheckedIOException e) {
 			ExceptionLogger.capture(e, getClass().getSimpleName());
 			log.error("Something went wrong during retrieval of stored messages.");
+		} finally {
+			loading = false;
+			legacyPartition.setLoading(false);
+			partitions.values().forEach(partition -> partition.setLoading(false));
+		}
+	}
+
+	/**
+	 * Gets the partition of a guild, creating it if it doesn't exist yet.
+	 *
+	 * @param guildId The id of the guild.
+	 * @return The partition containing the messages of the guild.
+	 */
+	private MessageCacheStore getPartition(long guildId) {
+		MessageCacheStore partition = partitions.computeIfAbsent(guildId, _ -> {
+			MessageCacheStore store = new MessageCacheStore();
+			store.setLoading(loading);
+			return store;
+		});
+		if (!loading && partition.isLoading()) {
+			// the partition has been created while loading finished
+			partition.setLoading(false);
 		}
+		return partition;
+	}
+
+	/**
+	 * Checks whether stored messages are still being loaded from the database.
+	 * While loading, the cache only contains a part of the stored messages in addition to all newly received messages.
+	 *
+	 * @return {@code true} if the cache is still loading, else {@code false}
+	 */
+	public boolean isLoading() {
+		return loading;
 	}
 
 	/**
 	 * Synchronizes Messages saved in the Database with what is currently stored in memory. This action is executed in the background.
 	 */
 	public void synchronize() {
-		asyncPool.execute(()->{
-			synchronizeNow();
-		});
+		asyncPool.execute(this::synchronizeNow);
 	}
 	
 	/**
 	 * Synchronizes Messages saved in the Database with what is currently stored in memory and wait until the synchronization finishes.
 	 */
 	public void synchronizeNow() {
-		cacheRepository.delete(cache.size());
-		cacheRepository.insertList(new ArrayList<>(cache));
-		messageCount = 0;
-		log.info("Synchronized Database with local Cache.");
+		List<MessageCacheStore> all = new ArrayList<>(partitions.values());
+		all.add(legacyPartition);
+		persist(all);
+	}
+
+	/**
+	 * Persists the changes of the given partitions.
+	 *
+	 * @param stores The partitions to persist.
+	 */
+	private void persist(List<MessageCacheStore> stores) {
+		synchronized (persistLock) {
+			List<CachedMessage> changed = new ArrayList<>();
+			List<Long> removed = new ArrayList<>();
+			List<PendingChanges> taken = new ArrayList<>(stores.size());
+			for (MessageCacheStore store : stores) {
+				PendingChanges storeChanges = store.takePendingChanges();
+				taken.add(storeChanges);
+				changed.addAll(storeChanges.changed());
+				removed.addAll(storeChanges.removed());
+			}
+			PendingChanges changes = new PendingChanges(changed, removed);
+			long start = System.nanoTime();
+			try {
+				persistence.persist(changes);
+			} catch (DataAccessException | UncheckedIOException e) {
+				ExceptionLogger.capture(e, getClass().getSimpleName());
+				log.error("Could not persist {} changed and {} removed messages of the message cache, retrying with the next synchronization.", changes.changed().size(), changes.removed().size());
+				// keep the changes so they are not lost
+				for (int i = 0; i < stores.size(); i++) {
+					stores.get(i).restorePendingChanges(taken.get(i));
+				}
+				return;
+			}
+			if (!changed.isEmpty() || !removed.isEmpty()) {
+				synchronizations++;
+				lastSynchronizationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				lastSynchronizationWritten = changed.size();
+				lastSynchronizationDeleted = removed.size();
+				totalWritten += changed.size();
+			}
+			if (!persistence.isImmediate()) {
+				log.info("Synchronized Database with local Cache ({} messages saved, {} messages removed).", changes.changed().size(), changes.removed().size());
+			}
+		}
+	}
+
+	/**
+	 * Persists the changes of a partition together with the changes of the legacy partition.
+	 *
+	 * @param partition The partition to persist.
+	 */
+	private void persist(MessageCacheStore partition) {
+		persist(List.of(partition, legacyPartition));
+	}
+
+	/**
+	 * Persists the changes of a partition directly if the storage backend should receive every change as it happens.
+	 *
+	 * @param partition The modified partition.
+	 */
+	private void persistIfImmediate(MessageCacheStore partition) {
+		if (persistence.isImmediate()) {
+			persist(partition);
+		}
 	}
 
 	/**
@@ -108,18 +254,134 @@ public class MessageCache {
 	 */
 	public void cache(Message message) {
 		MessageCacheConfig config = botConfig.get(message.getGuild()).getMessageCacheConfig();
-		if (cache.size() + 1 > config.getMaxCachedMessages()) {
-			cache.removeFirst();
+		CachedMessage cachedMessage = CachedMessage.of(message, botConfig.getSystems().isCompactMessageCache());
+		MessageCacheStore partition = getPartition(message.getGuild().getIdLong());
+		int messageCount = partition.add(cachedMessage, config.getMaxCachedMessages());
+		legacyPartition.evictOldest();
+		if (persistence.isImmediate()) {
+			persist(partition);
+		} else if (messageCount >= config.getMessageSynchronizationInterval()) {
+			asyncPool.execute(() -> persist(partition));
 		}
-		if (messageCount >= config.getMessageSynchronizationInterval()) {
-			synchronize();
-		}
-		messageCount++;
-		CachedMessage cachedMessage = CachedMessage.of(message);
-		cache.add(cachedMessage);
 		requestMessageAttachments(cachedMessage);
 	}
 
+	/**
+	 * Updates a cached message to have the content of the passed {@link Message}.
+	 *
+	 * @param message The edited {@link Message}.
+	 * @return A copy of the {@link CachedMessage} before the edit or an empty {@link Optional} if the message is not cached.
+	 */
+	public Optional<CachedMessage> update(Message message) {
+		MessageCacheStore partition = getPartition(message.getGuild().getIdLong());
+		Optional<CachedMessage> before = partition.update(message.getIdLong(), cached -> cached.init(message));
+		MessageCacheStore guildPartition = partition;
+		if (before.isEmpty()) {
+			partition = legacyPartition;
+			before = legacyPartition.update(message.getIdLong(), cached -> cached.init(message));
+		}
+		guildPartition.recordEditLookup(before.isPresent());
+		persistIfImmediate(partition);
+		return before;
+	}
+
+	/**
+	 * Looks up a cached message by its id.
+	 *
+	 * @param guildId The id of the guild the message was sent in.
+	 * @param messageId The id of the message.
+	 * @return A copy of the {@link CachedMessage} or an empty {@link Optional} if the message is not cached.
+	 */
+	public Optional<CachedMessage> getCachedMessage(long guildId, long messageId) {
+		MessageCacheStore partition = partitions.get(guildId);
+		Optional<CachedMessage> message = partition == null ? Optional.empty() : partition.get(messageId);
+		return message.isPresent() ? message : legacyPartition.get(messageId);
+	}
+
+	/**
+	 * Removes a message from the cache.
+	 *
+	 * @param guildId The id of the guild the message was sent in.
+	 * @param messageId The id of the message to remove.
+	 * @return The removed {@link CachedMessage} or an empty {@link Optional} if the message was not cached.
+	 */
+	public Optional<CachedMessage> remove(long guildId, long messageId) {
+		MessageCacheStore partition = getPartition(guildId);
+		Optional<CachedMessage> removed = partition.remove(messageId);
+		// while loading, this also prevents a stored message without guild from being loaded
+		Optional<CachedMessage> removedLegacy = legacyPartition.remove(messageId);
+		partition.recordDeleteLookup(removed.isPresent() || removedLegacy.isPresent());
+		persistIfImmediate(partition);
+		return removed.isPresent() ? removed : removedLegacy;
+	}
+
+	/**
+	 * Collects statistics about the cache of a guild.
+	 *
+	 * @param guildId The id of the guild.
+	 * @return A snapshot of the statistics, with zeros for the guild if nothing has been cached for it yet.
+	 */
+	public MessageCacheStatistics getStatistics(long guildId) {
+		// not creating a partition, so querying statistics of unknown guilds doesn't add to the cache
+		MessageCacheStore partition = partitions.get(guildId);
+		boolean known = partition != null;
+		return new MessageCacheStatistics(
+				loading,
+				known ? partition.size() : 0,
+				known ? partition.getRetainedBytes() : 0,
+				known ? partition.getEvictions() : 0,
+				known ? partition.getEditHits() : 0,
+				known ? partition.getEditMisses() : 0,
+				known ? partition.getDeleteHits() : 0,
+				known ? partition.getDeleteMisses() : 0,
+				known ? partition.getMessageCount() : 0,
+				synchronizations,
+				lastSynchronizationMillis,
+				lastSynchronizationWritten,
+				lastSynchronizationDeleted,
+				totalWritten,
+				attachmentPrefetcher.getCompleted(),
+				attachmentPrefetcher.getFailed(),
+				attachmentPrefetcher.getDropped(),
+				attachmentPrefetcher.getQueued(),
+				attachmentPrefetcher.getAverageLatencyMillis(),
+				attachmentPrefetcher.getMaxLatencyMillis());
+	}
+
+	/**
+	 * Gets the amount of messages currently held in memory across all guilds.
+	 *
+	 * @return The number of cached messages.
+	 */
+	public int size() {
+		return partitions.values().stream().mapToInt(MessageCacheStore::size).sum();
+	}
+
+	/**
+	 * Gets the amount of messages of a guild currently held in memory.
+	 *
+	 * @param guildId The id of the guild.
+	 * @return The number of cached messages of the guild.
+	 */
+	public int size(long guildId) {
+		MessageCacheStore partition = partitions.get(guildId);
+		return partition == null ? 0 : partition.size();
+	}
+
+	/**
+	 * Gets the amount of messages since the last synchronization.
+	 * <p>
+	 * If a certain threshold is reached, messages will be synchronized to reduce the chances of loosing
+	 * messages during an unexpected shutdown.
+	 *
+	 * @param guildId The id of the guild.
+	 * @return The amount of messages of the guild cached since the last synchronization.
+	 */
+	public int getMessageCount(long guildId) {
+		MessageCacheStore partition = partitions.get(guildId);
+		return partition == null ? 0 : partition.getMessageCount();
+	}
+
 	/**
 	 * Sends the updated message's content to the {@link MessageCacheConfig#getMessageCacheLogChannel()}.
 	 *
@@ -160,19 +422,80 @@ public class MessageCache {
 	}
 	
 	/**
-	 * Retrieves all cached messages that were sent after a passed timestamp.
+	 * Retrieves all cached messages of a guild that were sent after a passed timestamp.
+	 * @param guildId the id of the guild
 	 * @param timestamp the timestamp since when messages should be received
 	 * @return the messages sent after the given timestamp as a {@link List}
 	 */
-	public List<CachedMessage> getMessagesAfter(OffsetDateTime timestamp) {
-		List<CachedMessage> cachedMessages = new ArrayList<>();
-		for (CachedMessage msg : this.cache.reversed()) {
-			if (UserSnowflake.fromId(msg.getMessageId()).getTimeCreated().isBefore(timestamp)) {
-				return cachedMessages.reversed();
-			}
-			cachedMessages.add(msg);
+	public List<CachedMessage> getMessagesAfter(long guildId, OffsetDateTime timestamp) {
+		MessageCacheStore partition = partitions.get(guildId);
+		return partition == null ? List.of() : partition.getMessagesAfter(timestamp.toInstant().toEpochMilli());
+	}
+
+	/**
+	 * Counts the cached messages of an author in a guild that were sent after a passed timestamp.
+	 * Messages only consisting of Java file attachments are not counted.
+	 *
+	 * @param guildId The id of the guild.
+	 * @param authorId The id of the author.
+	 * @param timestamp The timestamp since when messages should be counted.
+	 * @param excludedMessageId The id of a message that should not be counted, e.g. the message currently being checked.
+	 * @return The amount of messages.
+	 */
+	public int countMessagesByAuthorAfter(long guildId, long authorId, OffsetDateTime timestamp, long excludedMessageId) {
+		MessageCacheStore partition = partitions.get(guildId);
+		return partition == null ? 0 : partition.countMessagesByAuthorAfter(authorId, timestamp.toInstant().toEpochMilli(), excludedMessageId, true);
+	}
+
+	/**
+	 * Counts the distinct channels of a guild an author has sent cached messages in after a passed timestamp.
+	 *
+	 * @param guildId The id of the guild.
+	 * @param authorId The id of the author.
+	 * @param timestamp The timestamp since when messages should be considered.
+	 * @param excludedMessageId The id of a message that should not be considered.
+	 * @return The amount of distinct channels.
+	 */
+	public int countChannelsByAuthorAfter(long guildId, long authorId, OffsetDateTime timestamp, long excludedMessageId) {
+		MessageCacheStore partition = partitions.get(guildId);
+		return partition == null ? 0 : partition.countChannelsByAuthorAfter(authorId, timestamp.toInstant().toEpochMilli(), excludedMessageId);
+	}
+
+	/**
+	 * Passes the ids of all cached messages an author has sent in a guild after a passed timestamp to a consumer.
+	 * The consumer must not block.
+	 *
+	 * @param guildId The id of the guild.
+	 * @param authorId The id of the author.
+	 * @param timestamp The timestamp since when messages should be considered.
+	 * @param excludedMessageId The id of a message that should be skipped.
+	 * @param consumer The consumer accepting the message and channel ids.
+	 */
+	public void forEachMessageByAuthorAfter(long guildId, long authorId, OffsetDateTime timestamp, long excludedMessageId, AuthorMessageWindow.EntryConsumer consumer) {
+		MessageCacheStore partition = partitions.get(guildId);
+		if (partition != null) {
+			partition.forEachMessageByAuthorAfter(authorId, timestamp.toInstant().toEpochMilli(), excludedMessageId, consumer);
+		}
+	}
+
+	/**
+	 * Passes the ids of all recently cached messages of a guild sent after a passed timestamp with a content near-identical
+	 * to a {@link net.discordjug.javabot.util.ContentFingerprint fingerprint} to a consumer, from newest to oldest.
+	 * Only the last {@link ContentFingerprintWindow#CAPACITY} messages of the guild are considered.
+	 * The consumer must not block.
+	 *
+	 * @param guildId The id of the guild.
+	 * @param timestamp The timestamp since when messages should be considered.
+	 * @param excludedMessageId The id of a message that should be skipped.
+	 * @param fingerprint The fingerprint to compare the messages to.
+	 * @param maxDistance The maximum amount of bits the fingerprints of near-identical messages differ in.
+	 * @param consumer The consumer accepting the message, channel and author ids.
+	 */
+	public void forEachSimilarMessageAfter(long guildId, OffsetDateTime timestamp, long excludedMessageId, long fingerprint, int maxDistance, ContentFingerprintWindow.SimilarMessageConsumer consumer) {
+		MessageCacheStore partition = partitions.get(guildId);
+		if (partition != null) {
+			partition.forEachSimilarMessageAfter(timestamp.toInstant().toEpochMilli(), excludedMessageId, fingerprint, maxDistance, consumer);
 		}
-		return cachedMessages.reversed();
 	}
 
 	/**
@@ -181,10 +504,8 @@ public class MessageCache {
 	 * @param message the cached message
 	 */
 	private void requestMessageAttachments(CachedMessage message) {
-		HttpClient client = HttpClient.newHttpClient();
-		for (String attachment : message.getAttachments()) {
-			HttpRequest request = HttpRequest.newBuilder(URI.create(attachment)).build();
-			client.sendAsync(request, BodyHandlers.discarding());
+		if (message.getAttachmentCount() > 0) {
+			attachmentPrefetcher.prefetch(message.getAttachments());
 		}
 	}
 
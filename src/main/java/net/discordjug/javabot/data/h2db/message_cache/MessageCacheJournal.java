@@ -0,0 +1,424 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.SequencedMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStore.PendingChanges;
+import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
+import net.discordjug.javabot.util.ExceptionLogger;
+
+/**
+ * Persists the {@link MessageCache} in an append-only journal consisting of memory-mapped segment files.
+ * <p>
+ * Every change to the cache is appended as a record directly when it happens, so no messages are lost if the bot crashes.
+ * Each record is stored as {@code [length][CRC32][type][payload]}. When reading the journal, the first record
+ * with an invalid length or checksum marks the end of the journal, so records that have only been written partially are ignored.
+ * <p>
+ * If there are more than {@code maxSegments} segments, the journal is compacted in the background: records are appended to a new segment
+ * while the previous snapshot and all older segments are replayed and their result is written to a new snapshot file,
+ * which is named after the first segment it doesn't contain. The snapshot is written to a temporary file and only renamed
+ * once it is complete, after which the replaced snapshot and segments are deleted.
+ */
+@Slf4j
+class MessageCacheJournal implements MessageCachePersistence {
+	private static final String SEGMENT_PREFIX = "message-cache-";
+	private static final String SEGMENT_SUFFIX = ".journal";
+	private static final String SNAPSHOT_SUFFIX = ".snapshot";
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+	private static final int ZERO_CHUNK_SIZE = 8192;
+
+	private static final byte TYPE_PUT = 1;
+	private static final byte TYPE_REMOVE = 2;
+
+	private final Path directory;
+	private final int segmentSize;
+	private final int maxSegments;
+	private final Executor compactionExecutor;
+	private final List<Path> segments = new ArrayList<>();
+	/**
+	 * The snapshot containing the state before the first segment or {@code null} if the journal has not been compacted yet.
+	 */
+	private Path snapshot;
+	private long nextSegmentNumber = 1;
+	private MappedByteBuffer current;
+	private boolean compacting = false;
+	/**
+	 * The state replayed when opening the journal, which is used for the first {@link #forEachNewestFirst(Consumer)} call.
+	 */
+	private ReplayState loadedState;
+
+	/**
+	 * Opens the journal in the given directory, creating it if necessary.
+	 * Appending continues after the last valid record.
+	 *
+	 * @param directory The directory containing the segment files.
+	 * @param segmentSize The size of a single segment file in bytes.
+	 * @param maxSegments The amount of segments after which the journal is compacted.
+	 * @param compactionExecutor The executor compactions are run on, so appending records doesn't wait for them.
+	 * @throws IOException If the journal cannot be opened.
+	 */
+	MessageCacheJournal(Path directory, int segmentSize, int maxSegments, Executor compactionExecutor) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.maxSegments = Math.max(1, maxSegments);
+		this.compactionExecutor = compactionExecutor;
+		Files.createDirectories(directory);
+		List<Path> files;
+		try (Stream<Path> stream = Files.list(directory)) {
+			files = stream.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)).sorted().toList();
+		}
+		List<Path> obsolete = new ArrayList<>();
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			if (name.endsWith(SEGMENT_SUFFIX)) {
+				segments.add(file);
+			} else if (name.endsWith(SNAPSHOT_SUFFIX)) {
+				if (snapshot != null) {
+					obsolete.add(snapshot);
+				}
+				snapshot = file;
+			} else if (name.endsWith(TEMPORARY_SUFFIX)) {
+				// an incomplete snapshot of an interrupted compaction
+				obsolete.add(file);
+			}
+		}
+		if (snapshot != null) {
+			// a compaction may have been interrupted before deleting what its snapshot replaced
+			nextSegmentNumber = parseNumber(snapshot, SNAPSHOT_SUFFIX);
+			segments.stream().filter(segment -> parseNumber(segment, SEGMENT_SUFFIX) < nextSegmentNumber).forEach(obsolete::add);
+			segments.removeAll(obsolete);
+		}
+		for (Path file : obsolete) {
+			Files.delete(file);
+		}
+		open();
+	}
+
+	/**
+	 * Replays the journal and continues appending after the last valid record.
+	 */
+	private void open() throws IOException {
+		if (segments.isEmpty()) {
+			roll();
+			return;
+		}
+		Path last = segments.getLast();
+		nextSegmentNumber = parseNumber(last, SEGMENT_SUFFIX) + 1;
+		ReplayState state = replay(snapshot, segments.subList(0, segments.size() - 1));
+		int end = replaySegment(last, state);
+		current = map(last);
+		current.position(end);
+		clearRemaining();
+		loadedState = state;
+	}
+
+	@Override
+	public synchronized void forEachNewestFirst(Consumer<CachedMessage> consumer) {
+		try {
+			ReplayState state = loadedState == null ? replay(snapshot, segments) : loadedState;
+			loadedState = null;
+			for (CachedMessage message : state.messages.sequencedValues().reversed()) {
+				consumer.accept(message);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized void persist(PendingChanges changes) {
+		loadedState = null;
+		try {
+			for (Long messageId : changes.removed()) {
+				append(ByteBuffer.allocate(1 + Long.BYTES).put(TYPE_REMOVE).putLong(messageId).flip());
+			}
+			for (CachedMessage message : changes.changed()) {
+				append(encodePut(message));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public boolean isImmediate() {
+		return true;
+	}
+
+	/**
+	 * Gets the position the next record is written to in the current segment.
+	 *
+	 * @return The write position in bytes.
+	 */
+	synchronized int getPosition() {
+		return current.position();
+	}
+
+	/**
+	 * Gets the segment files currently making up this journal.
+	 *
+	 * @return The paths of the segments, from the oldest to the newest segment.
+	 */
+	synchronized List<Path> getSegments() {
+		return List.copyOf(segments);
+	}
+
+	/**
+	 * Gets the snapshot containing the state before the first segment.
+	 *
+	 * @return The path of the snapshot or {@code null} if the journal has not been compacted yet.
+	 */
+	synchronized Path getSnapshot() {
+		return snapshot;
+	}
+
+	private void append(ByteBuffer record) throws IOException {
+		int frameSize = HEADER_SIZE + record.remaining();
+		if (frameSize > segmentSize) {
+			throw new IOException("Journal record of " + frameSize + " bytes exceeds the segment size of " + segmentSize + " bytes");
+		}
+		if (current.remaining() < frameSize) {
+			roll();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(record.duplicate());
+		int start = current.position();
+		// the length is written last so a partially written record is never considered valid
+		current.position(start + HEADER_SIZE);
+		current.put(record);
+		current.putInt(start + Integer.BYTES, (int) crc.getValue());
+		current.putInt(start, frameSize - HEADER_SIZE);
+		if (!compacting && segments.size() > maxSegments) {
+			startCompaction();
+		}
+	}
+
+	private void roll() throws IOException {
+		if (current != null) {
+			current.force();
+		}
+		Path segment = resolve(nextSegmentNumber++, SEGMENT_SUFFIX);
+		segments.add(segment);
+		current = map(segment);
+	}
+
+	/**
+	 * Starts compacting all segments except for a new one, which records are appended to in the meantime.
+	 */
+	private void startCompaction() throws IOException {
+		roll();
+		List<Path> oldSegments = List.copyOf(segments.subList(0, segments.size() - 1));
+		Path oldSnapshot = snapshot;
+		Path newSnapshot = resolve(parseNumber(segments.getLast(), SEGMENT_SUFFIX), SNAPSHOT_SUFFIX);
+		compacting = true;
+		try {
+			compactionExecutor.execute(() -> compact(oldSnapshot, oldSegments, newSnapshot));
+		} catch (RejectedExecutionException e) {
+			// the bot is shutting down, compacting on the next start is fine
+			compacting = false;
+		}
+	}
+
+	/**
+	 * Replaces a snapshot and the segments following it with a new snapshot of their state.
+	 * The replaced files are not written to anymore, so they can be read without holding the lock of the journal.
+	 */
+	private void compact(Path oldSnapshot, List<Path> oldSegments, Path newSnapshot) {
+		try {
+			ReplayState state = replay(oldSnapshot, oldSegments);
+			Path temporary = newSnapshot.resolveSibling(newSnapshot.getFileName() + TEMPORARY_SUFFIX);
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+				for (CachedMessage message : state.messages.values()) {
+					ByteBuffer frame = frame(encodePut(message));
+					while (frame.hasRemaining()) {
+						channel.write(frame);
+					}
+				}
+				channel.force(true);
+			}
+			Files.move(temporary, newSnapshot, StandardCopyOption.ATOMIC_MOVE);
+			synchronized (this) {
+				snapshot = newSnapshot;
+				segments.removeAll(oldSegments);
+				// the replaced files are also read by forEachNewestFirst, which holds the lock
+				for (Path file : oldSegments) {
+					Files.deleteIfExists(file);
+				}
+				if (oldSnapshot != null) {
+					Files.deleteIfExists(oldSnapshot);
+				}
+			}
+			log.info("Compacted message cache journal to {} messages.", state.messages.size());
+		} catch (IOException e) {
+			ExceptionLogger.capture(e, getClass().getSimpleName());
+		} finally {
+			synchronized (this) {
+				compacting = false;
+			}
+		}
+	}
+
+	private Path resolve(long number, String suffix) {
+		return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, suffix));
+	}
+
+	private MappedByteBuffer map(Path segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return channel.map(MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+		}
+	}
+
+	/**
+	 * Overwrites everything after the write position with zeros, removing partially written records.
+	 */
+	private void clearRemaining() {
+		byte[] zeros = new byte[ZERO_CHUNK_SIZE];
+		int position = current.position();
+		while (current.hasRemaining()) {
+			current.put(zeros, 0, Math.min(zeros.length, current.remaining()));
+		}
+		current.position(position);
+	}
+
+	private static ReplayState replay(Path snapshot, List<Path> segments) throws IOException {
+		ReplayState state = new ReplayState();
+		if (snapshot != null) {
+			replaySegment(snapshot, state);
+		}
+		for (Path segment : segments) {
+			replaySegment(segment, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Applies all valid records of a segment.
+	 *
+	 * @param segment The segment file.
+	 * @param state The state the records are applied to.
+	 * @return The position after the last valid record.
+	 * @throws IOException If the segment cannot be read.
+	 */
+	private static int replaySegment(Path segment, ReplayState state) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			while (buffer.remaining() >= HEADER_SIZE) {
+				int start = buffer.position();
+				int length = buffer.getInt(start);
+				if (length <= 0 || length > buffer.remaining() - HEADER_SIZE) {
+					break;
+				}
+				ByteBuffer record = buffer.slice(start + HEADER_SIZE, length);
+				CRC32 crc = new CRC32();
+				crc.update(record.duplicate());
+				if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+					break;
+				}
+				state.apply(record);
+				buffer.position(start + HEADER_SIZE + length);
+			}
+			return buffer.position();
+		}
+	}
+
+	/**
+	 * Prepends the header to a record, for writing it to a snapshot.
+	 */
+	private static ByteBuffer frame(ByteBuffer record) {
+		CRC32 crc = new CRC32();
+		crc.update(record.duplicate());
+		return ByteBuffer.allocate(HEADER_SIZE + record.remaining())
+				.putInt(record.remaining())
+				.putInt((int) crc.getValue())
+				.put(record)
+				.flip();
+	}
+
+	private static ByteBuffer encodePut(CachedMessage message) {
+		byte[] content = message.getMessageContent().getBytes(StandardCharsets.UTF_8);
+		List<String> attachments = message.getAttachments();
+		List<byte[]> encodedAttachments = new ArrayList<>(attachments.size());
+		int size = 1 + 4 * Long.BYTES + Integer.BYTES + content.length + Integer.BYTES;
+		for (String attachment : attachments) {
+			byte[] encoded = attachment.getBytes(StandardCharsets.UTF_8);
+			encodedAttachments.add(encoded);
+			size += Integer.BYTES + encoded.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size)
+				.put(TYPE_PUT)
+				.putLong(message.getMessageId())
+				.putLong(message.getGuildId())
+				.putLong(message.getAuthorId())
+				.putLong(message.getChannelId())
+				.putInt(content.length)
+				.put(content)
+				.putInt(encodedAttachments.size());
+		for (byte[] attachment : encodedAttachments) {
+			buffer.putInt(attachment.length).put(attachment);
+		}
+		return buffer.flip();
+	}
+
+	private static CachedMessage decodePut(ByteBuffer record) {
+		long messageId = record.getLong();
+		long guildId = record.getLong();
+		long authorId = record.getLong();
+		long channelId = record.getLong();
+		String content = readString(record);
+		int attachmentCount = record.getInt();
+		List<String> attachments = new ArrayList<>(attachmentCount);
+		for (int i = 0; i < attachmentCount; i++) {
+			attachments.add(readString(record));
+		}
+		return new CachedMessage(messageId, guildId, authorId, channelId, content, attachments);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static long parseNumber(Path file, String suffix) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - suffix.length()));
+	}
+
+	/**
+	 * The messages resulting from replaying records.
+	 */
+	private static class ReplayState {
+		private final SequencedMap<Long, CachedMessage> messages = new LinkedHashMap<>();
+
+		void apply(ByteBuffer record) {
+			switch (record.get()) {
+				case TYPE_PUT -> {
+					CachedMessage message = decodePut(record);
+					messages.put(message.getMessageId(), message);
+				}
+				case TYPE_REMOVE -> messages.remove(record.getLong());
+				default -> log.warn("Ignoring unknown message cache journal record.");
+			}
+		}
+	}
+}
@@ -13,7 +13,6 @@ import org.jetbrains.annotations.NotNull;
 
 import lombok.RequiredArgsConstructor;
 
-import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,15 +33,12 @@ public class MessageCacheListener extends ListenerAdapter {
 	@Override
 	public void onMessageUpdate(@NotNull MessageUpdateEvent event) {
 		if (this.ignoreMessageCache(event.getMessage())) return;
-		Deque<CachedMessage> cache = messageCache.cache;
-		Optional<CachedMessage> optional = cache.stream().filter(m -> m.getMessageId() == event.getMessageIdLong()).findFirst();
+		Optional<CachedMessage> optional = messageCache.update(event.getMessage());
 		CachedMessage before;
 		if (optional.isPresent()) {
-			CachedMessage inCache= optional.get();
-			before = new CachedMessage(inCache.getMessageId(), inCache.getAuthorId(), inCache.getChannelId(),inCache.getMessageContent(), inCache.getAttachments());
-			inCache.init(event.getMessage());
+			before = optional.get();
 		} else {
-			before = new CachedMessage(event.getMessageIdLong(), event.getAuthor().getIdLong(), event.getChannel().getIdLong(),"[unknown content]", List.of());
+			before = new CachedMessage(event.getMessageIdLong(), event.getGuild().getIdLong(), event.getAuthor().getIdLong(), event.getChannel().getIdLong(),"[unknown content]", List.of());
 			messageCache.cache(event.getMessage());
 		}
 		messageCache.sendUpdatedMessageToLog(event.getMessage(), before);
@@ -50,11 +46,9 @@ public class MessageCacheListener extends ListenerAdapter {
 
 	@Override
 	public void onMessageDelete(@NotNull MessageDeleteEvent event) {
-		Optional<CachedMessage> optional = messageCache.cache.stream().filter(m -> m.getMessageId() == event.getMessageIdLong()).findFirst();
-		optional.ifPresent(message -> {
-			messageCache.sendDeletedMessageToLog(event.getGuild(), event.getChannel(), message);
-			messageCache.cache.remove(message);
-		});
+		if (!event.isFromGuild()) return;
+		messageCache.remove(event.getGuild().getIdLong(), event.getMessageIdLong())
+			.ifPresent(message -> messageCache.sendDeletedMessageToLog(event.getGuild(), event.getChannel(), message));
 	}
 
 
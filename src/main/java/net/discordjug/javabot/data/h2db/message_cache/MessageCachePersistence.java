@@ -0,0 +1,33 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import java.util.function.Consumer;
+
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStore.PendingChanges;
+import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
+
+/**
+ * A storage backend the {@link MessageCache} is persisted to.
+ */
+interface MessageCachePersistence {
+	/**
+	 * Streams all persisted messages to a consumer, from the newest to the oldest message.
+	 *
+	 * @param consumer The consumer accepting the messages.
+	 */
+	void forEachNewestFirst(Consumer<CachedMessage> consumer);
+
+	/**
+	 * Persists changes to the cache.
+	 *
+	 * @param changes The messages that have been cached or edited and the ids of the messages that have been removed.
+	 */
+	void persist(PendingChanges changes);
+
+	/**
+	 * Checks whether changes should be persisted as soon as they happen instead of every
+	 * {@link net.discordjug.javabot.data.config.guild.MessageCacheConfig#getMessageSynchronizationInterval() few messages}.
+	 *
+	 * @return {@code true} if every change should be persisted immediately, else {@code false}
+	 */
+	boolean isImmediate();
+}
@@ -0,0 +1,50 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+/**
+ * A snapshot of how the {@link MessageCache} of a guild behaves, used for sizing
+ * {@link net.discordjug.javabot.data.config.guild.MessageCacheConfig#getMaxCachedMessages()}.
+ * Synchronization and attachment statistics are shared by all guilds.
+ *
+ * @param loading                      Whether stored messages are still being loaded.
+ * @param cachedMessages               The amount of messages of the guild held in memory.
+ * @param retainedBytes                The estimated amount of heap memory retained by these messages in bytes.
+ * @param evictions                    The amount of messages evicted to make room for new messages.
+ * @param editHits                     The amount of edited messages that were cached.
+ * @param editMisses                   The amount of edited messages that were not cached.
+ * @param deleteHits                   The amount of deleted messages that were cached.
+ * @param deleteMisses                 The amount of deleted messages that were not cached.
+ * @param pendingMessages              The amount of messages cached since the last synchronization of the guild.
+ * @param synchronizations             The amount of synchronizations since startup.
+ * @param lastSynchronizationMillis    The duration of the last synchronization in milliseconds.
+ * @param lastSynchronizationWritten   The amount of messages written by the last synchronization.
+ * @param lastSynchronizationDeleted   The amount of messages deleted by the last synchronization.
+ * @param totalWritten                 The amount of messages written by all synchronizations.
+ * @param attachmentsPrefetched        The amount of attachments that have been requested successfully.
+ * @param attachmentsFailed            The amount of attachment requests that failed.
+ * @param attachmentsDropped           The amount of attachments dropped because the queue was full.
+ * @param attachmentsQueued            The amount of attachments waiting for a request.
+ * @param averageAttachmentLatencyMillis The average time it took to request an attachment in milliseconds.
+ * @param maxAttachmentLatencyMillis   The longest time it took to request an attachment in milliseconds.
+ */
+public record MessageCacheStatistics(
+		boolean loading,
+		int cachedMessages,
+		long retainedBytes,
+		long evictions,
+		long editHits,
+		long editMisses,
+		long deleteHits,
+		long deleteMisses,
+		int pendingMessages,
+		long synchronizations,
+		long lastSynchronizationMillis,
+		int lastSynchronizationWritten,
+		int lastSynchronizationDeleted,
+		long totalWritten,
+		long attachmentsPrefetched,
+		long attachmentsFailed,
+		long attachmentsDropped,
+		int attachmentsQueued,
+		long averageAttachmentLatencyMillis,
+		long maxAttachmentLatencyMillis) {
+}
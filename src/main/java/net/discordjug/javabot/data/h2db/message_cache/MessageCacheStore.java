@@ -0,0 +1,550 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
+import net.discordjug.javabot.systems.user_commands.IdCalculatorCommand;
+import net.discordjug.javabot.util.ContentFingerprint;
+
+/**
+ * The in-memory state of the {@link MessageCache}.
+ * <p>
+ * All operations are guarded by a read-write lock, so messages can be cached, edited and deleted from JDA event threads
+ * while AutoMod reads the cache and the synchronization runs on another thread.
+ * Every operation only holds the lock for a constant amount of work (or, for reads, the amount of messages in the requested window).
+ * The synchronization never iterates the live cache, it only takes a snapshot of the messages that changed.
+ */
+class MessageCacheStore {
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Lock readLock = lock.readLock();
+	private final Lock writeLock = lock.writeLock();
+
+	/**
+	 * The cached messages indexed by their message id, the first entry is always the oldest message.
+	 */
+	private final SequencedMap<Long, CachedMessage> cache = new LinkedHashMap<>();
+	/**
+	 * The most recent cached messages of each author, used for cheap spam detection.
+	 */
+	private final Map<Long, AuthorMessageWindow> authorWindows = new HashMap<>();
+	/**
+	 * The fingerprints of the most recent messages, used for detecting near-duplicate messages.
+	 * Messages loaded from the database are not added as they are older than any spam window.
+	 */
+	private final ContentFingerprintWindow fingerprintWindow = new ContentFingerprintWindow();
+	/**
+	 * Ids of messages that have been cached or edited since the last synchronization.
+	 */
+	private Set<Long> changedMessages = new LinkedHashSet<>();
+	/**
+	 * Ids of messages that have been evicted or deleted since the last synchronization.
+	 */
+	private Set<Long> removedMessages = new LinkedHashSet<>();
+	/**
+	 * Amount of messages since the last synchronization.
+	 */
+	private int messageCount = 0;
+	/**
+	 * Whether messages are still being loaded from the database.
+	 */
+	private volatile boolean loading = false;
+	/**
+	 * Ids of messages that have been deleted before they were loaded from the database.
+	 */
+	private final Set<Long> deletedWhileLoading = new HashSet<>();
+	/**
+	 * The maximum amount of messages passed to the latest {@link #add(CachedMessage, int)} call.
+	 * The limit is configured per guild, so it is only known once a message of the guild has been received.
+	 */
+	private int maxCachedMessages = Integer.MAX_VALUE;
+	/**
+	 * The estimated amount of heap memory retained by the cached messages in bytes.
+	 */
+	private long retainedBytes = 0;
+	/**
+	 * Amount of messages that have been evicted to make room for new messages.
+	 */
+	private long evictions = 0;
+	private final AtomicLong editHits = new AtomicLong();
+	private final AtomicLong editMisses = new AtomicLong();
+	private final AtomicLong deleteHits = new AtomicLong();
+	private final AtomicLong deleteMisses = new AtomicLong();
+
+	/**
+	 * Adds a message that has already been persisted in front of all other messages, e.g. when loading the cache from the database.
+	 * The message is not considered changed.
+	 * Messages that have been cached, edited or deleted while loading are skipped.
+	 * If the cache is already full, the message is skipped as well and deleted with the next synchronization.
+	 *
+	 * @param message The message to add, which must be older than all messages added so far.
+	 */
+	void loadOldest(CachedMessage message) {
+		writeLock.lock();
+		try {
+			long messageId = message.getMessageId();
+			if (cache.containsKey(messageId) || deletedWhileLoading.contains(messageId)) {
+				return;
+			}
+			if (cache.size() >= maxCachedMessages) {
+				removedMessages.add(messageId);
+				evictions++;
+				return;
+			}
+			cache.putFirst(messageId, message);
+			retainedBytes += message.estimateRetainedBytes();
+			authorWindows
+				.computeIfAbsent(message.getAuthorId(), _ -> new AuthorMessageWindow())
+				.addFirst(messageId, message.getChannelId(), IdCalculatorCommand.getTimestampFromId(messageId), message.hasOnlyJavaAttachments());
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Sets whether messages are still being loaded from the database.
+	 * While loading, deletions of messages that are not cached (yet) are remembered so these messages are not loaded afterwards.
+	 *
+	 * @param loading {@code true} if messages are being loaded, else {@code false}
+	 */
+	void setLoading(boolean loading) {
+		writeLock.lock();
+		try {
+			this.loading = loading;
+			deletedWhileLoading.clear();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Checks whether messages are still being loaded from the database.
+	 *
+	 * @return {@code true} if messages are being loaded, else {@code false}
+	 */
+	boolean isLoading() {
+		return loading;
+	}
+
+	/**
+	 * Adds a new message to the cache, evicting the oldest messages if the cache is full.
+	 *
+	 * @param message The message to add.
+	 * @param maxCachedMessages The maximum amount of messages in the cache.
+	 * @return The amount of messages cached since the last synchronization, including this one.
+	 */
+	int add(CachedMessage message, int maxCachedMessages) {
+		writeLock.lock();
+		try {
+			this.maxCachedMessages = maxCachedMessages;
+			CachedMessage existing = cache.get(message.getMessageId());
+			// more messages than allowed may have been loaded from the database, so the cache might need to shrink by multiple messages
+			while (existing == null && cache.size() >= maxCachedMessages && !cache.isEmpty()) {
+				markRemoved(cache.pollFirstEntry().getValue());
+				evictions++;
+			}
+			if (existing != null) {
+				retainedBytes -= existing.estimateRetainedBytes();
+				removeFromAuthorWindow(existing);
+				fingerprintWindow.remove(existing.getMessageId(), IdCalculatorCommand.getTimestampFromId(existing.getMessageId()));
+			}
+			put(message);
+			changedMessages.add(message.getMessageId());
+			return ++messageCount;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Evicts the oldest cached message if the cache is not empty.
+	 */
+	void evictOldest() {
+		writeLock.lock();
+		try {
+			if (!cache.isEmpty()) {
+				markRemoved(cache.pollFirstEntry().getValue());
+				evictions++;
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Modifies a cached message.
+	 *
+	 * @param messageId The id of the message.
+	 * @param modification The modification to apply to the message.
+	 * @return A copy of the message before the modification or an empty {@link Optional} if the message is not cached.
+	 */
+	Optional<CachedMessage> update(long messageId, Consumer<CachedMessage> modification) {
+		writeLock.lock();
+		try {
+			CachedMessage inCache = cache.get(messageId);
+			if (inCache == null) {
+				return Optional.empty();
+			}
+			CachedMessage before = inCache.copy();
+			retainedBytes -= inCache.estimateRetainedBytes();
+			modification.accept(inCache);
+			retainedBytes += inCache.estimateRetainedBytes();
+			changedMessages.add(messageId);
+			AuthorMessageWindow window = authorWindows.get(inCache.getAuthorId());
+			if (window != null) {
+				window.update(messageId, inCache.hasOnlyJavaAttachments());
+			}
+			fingerprintWindow.update(messageId, IdCalculatorCommand.getTimestampFromId(messageId), ContentFingerprint.of(inCache.getMessageContent()));
+			return Optional.of(before);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Looks up a cached message by its id.
+	 *
+	 * @param messageId The id of the message.
+	 * @return A copy of the {@link CachedMessage} or an empty {@link Optional} if the message is not cached.
+	 */
+	Optional<CachedMessage> get(long messageId) {
+		readLock.lock();
+		try {
+			return Optional.ofNullable(cache.get(messageId)).map(CachedMessage::copy);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes a message from the cache.
+	 *
+	 * @param messageId The id of the message to remove.
+	 * @return The removed {@link CachedMessage} or an empty {@link Optional} if the message was not cached.
+	 */
+	Optional<CachedMessage> remove(long messageId) {
+		writeLock.lock();
+		try {
+			CachedMessage removed = cache.remove(messageId);
+			if (removed != null) {
+				markRemoved(removed);
+			} else if (loading) {
+				deletedWhileLoading.add(messageId);
+				removedMessages.add(messageId);
+			}
+			return Optional.ofNullable(removed);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the amount of cached messages.
+	 *
+	 * @return The number of cached messages.
+	 */
+	int size() {
+		readLock.lock();
+		try {
+			return cache.size();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the amount of messages cached since the last synchronization.
+	 *
+	 * @return The amount of messages.
+	 */
+	int getMessageCount() {
+		readLock.lock();
+		try {
+			return messageCount;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the estimated amount of heap memory retained by the cached messages.
+	 *
+	 * @return The estimated size in bytes.
+	 */
+	long getRetainedBytes() {
+		readLock.lock();
+		try {
+			return retainedBytes;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the amount of messages that have been evicted to make room for new messages.
+	 *
+	 * @return The amount of evictions.
+	 */
+	long getEvictions() {
+		readLock.lock();
+		try {
+			return evictions;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Records whether an edited message has been found in the cache.
+	 *
+	 * @param hit {@code true} if the message was cached, else {@code false}
+	 */
+	void recordEditLookup(boolean hit) {
+		(hit ? editHits : editMisses).incrementAndGet();
+	}
+
+	/**
+	 * Records whether a deleted message has been found in the cache.
+	 *
+	 * @param hit {@code true} if the message was cached, else {@code false}
+	 */
+	void recordDeleteLookup(boolean hit) {
+		(hit ? deleteHits : deleteMisses).incrementAndGet();
+	}
+
+	/**
+	 * Gets the amount of edited messages that have been found in the cache.
+	 *
+	 * @return The amount of hits.
+	 */
+	long getEditHits() {
+		return editHits.get();
+	}
+
+	/**
+	 * Gets the amount of edited messages that have not been found in the cache.
+	 *
+	 * @return The amount of misses.
+	 */
+	long getEditMisses() {
+		return editMisses.get();
+	}
+
+	/**
+	 * Gets the amount of deleted messages that have been found in the cache.
+	 *
+	 * @return The amount of hits.
+	 */
+	long getDeleteHits() {
+		return deleteHits.get();
+	}
+
+	/**
+	 * Gets the amount of deleted messages that have not been found in the cache.
+	 *
+	 * @return The amount of misses.
+	 */
+	long getDeleteMisses() {
+		return deleteMisses.get();
+	}
+
+	/**
+	 * Retrieves copies of all cached messages that were sent at or after a passed timestamp.
+	 *
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @return The messages from oldest to newest.
+	 */
+	List<CachedMessage> getMessagesAfter(long timestamp) {
+		readLock.lock();
+		try {
+			List<CachedMessage> cachedMessages = new ArrayList<>();
+			for (CachedMessage msg : cache.sequencedValues().reversed()) {
+				if (IdCalculatorCommand.getTimestampFromId(msg.getMessageId()) < timestamp) {
+					break;
+				}
+				cachedMessages.add(msg.copy());
+			}
+			return cachedMessages.reversed();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Counts the cached messages of an author that were sent at or after a passed timestamp.
+	 *
+	 * @param authorId The id of the author.
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should not be counted.
+	 * @param ignoreJavaAttachments Whether messages only consisting of Java file attachments should be ignored.
+	 * @return The amount of messages.
+	 */
+	int countMessagesByAuthorAfter(long authorId, long timestamp, long excludedMessageId, boolean ignoreJavaAttachments) {
+		readLock.lock();
+		try {
+			AuthorMessageWindow window = authorWindows.get(authorId);
+			return window == null ? 0 : window.countAfter(timestamp, excludedMessageId, ignoreJavaAttachments);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Counts the distinct channels an author has sent cached messages in at or after a passed timestamp.
+	 *
+	 * @param authorId The id of the author.
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should not be considered.
+	 * @return The amount of distinct channels.
+	 */
+	int countChannelsByAuthorAfter(long authorId, long timestamp, long excludedMessageId) {
+		readLock.lock();
+		try {
+			AuthorMessageWindow window = authorWindows.get(authorId);
+			return window == null ? 0 : window.countChannelsAfter(timestamp, excludedMessageId);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Passes the ids of all cached messages an author has sent at or after a passed timestamp to a consumer.
+	 * The consumer is called while holding the read lock and must not block.
+	 *
+	 * @param authorId The id of the author.
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should be skipped.
+	 * @param consumer The consumer accepting the message and channel ids.
+	 */
+	void forEachMessageByAuthorAfter(long authorId, long timestamp, long excludedMessageId, AuthorMessageWindow.EntryConsumer consumer) {
+		readLock.lock();
+		try {
+			AuthorMessageWindow window = authorWindows.get(authorId);
+			if (window != null) {
+				window.forEachAfter(timestamp, excludedMessageId, consumer);
+			}
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Passes the ids of all cached messages sent at or after a passed timestamp with a content near-identical to a fingerprint to a consumer.
+	 * The consumer is called while holding the read lock and must not block.
+	 *
+	 * @param timestamp The timestamp in epoch milliseconds.
+	 * @param excludedMessageId The id of a message that should be skipped.
+	 * @param fingerprint The {@link ContentFingerprint} to compare the messages to.
+	 * @param maxDistance The maximum amount of bits the fingerprints of near-identical messages differ in.
+	 * @param consumer The consumer accepting the message, channel and author ids.
+	 */
+	void forEachSimilarMessageAfter(long timestamp, long excludedMessageId, long fingerprint, int maxDistance, ContentFingerprintWindow.SimilarMessageConsumer consumer) {
+		readLock.lock();
+		try {
+			fingerprintWindow.forEachSimilarAfter(timestamp, excludedMessageId, fingerprint, maxDistance, consumer);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Collects all changes since the last synchronization and resets the change tracking.
+	 * The returned messages are copies, so they can safely be persisted while the cache is modified.
+	 *
+	 * @return the messages that need to be saved and the ids of the messages that need to be deleted
+	 */
+	PendingChanges takePendingChanges() {
+		writeLock.lock();
+		try {
+			List<CachedMessage> changed = new ArrayList<>(changedMessages.size());
+			for (Long id : changedMessages) {
+				CachedMessage message = cache.get(id);
+				if (message != null) {
+					changed.add(message.copy());
+				}
+			}
+			List<Long> removed = new ArrayList<>(removedMessages);
+			changedMessages = new LinkedHashSet<>();
+			removedMessages = new LinkedHashSet<>();
+			messageCount = 0;
+			return new PendingChanges(changed, removed);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Marks changes that have been taken by {@link #takePendingChanges()} as pending again, e.g. because they could not be persisted.
+	 * Changes that have been superseded in the meantime are skipped: a message that has been removed since is not saved again,
+	 * and a removed message that has been cached again is not deleted.
+	 *
+	 * @param changes the changes to restore
+	 */
+	void restorePendingChanges(PendingChanges changes) {
+		writeLock.lock();
+		try {
+			for (CachedMessage message : changes.changed()) {
+				if (cache.containsKey(message.getMessageId())) {
+					changedMessages.add(message.getMessageId());
+				}
+			}
+			for (Long id : changes.removed()) {
+				if (!cache.containsKey(id)) {
+					removedMessages.add(id);
+				}
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private void put(CachedMessage message) {
+		long timestamp = IdCalculatorCommand.getTimestampFromId(message.getMessageId());
+		cache.put(message.getMessageId(), message);
+		retainedBytes += message.estimateRetainedBytes();
+		removedMessages.remove(message.getMessageId());
+		authorWindows
+			.computeIfAbsent(message.getAuthorId(), _ -> new AuthorMessageWindow())
+			.add(message.getMessageId(), message.getChannelId(), timestamp, message.hasOnlyJavaAttachments());
+		fingerprintWindow.add(message.getMessageId(), message.getChannelId(), message.getAuthorId(), timestamp, ContentFingerprint.of(message.getMessageContent()));
+	}
+
+	private void markRemoved(CachedMessage message) {
+		retainedBytes -= message.estimateRetainedBytes();
+		changedMessages.remove(message.getMessageId());
+		removedMessages.add(message.getMessageId());
+		removeFromAuthorWindow(message);
+		fingerprintWindow.remove(message.getMessageId(), IdCalculatorCommand.getTimestampFromId(message.getMessageId()));
+	}
+
+	private void removeFromAuthorWindow(CachedMessage message) {
+		if (message == null) {
+			return;
+		}
+		AuthorMessageWindow window = authorWindows.get(message.getAuthorId());
+		if (window != null && window.remove(message.getMessageId()) && window.isEmpty()) {
+			authorWindows.remove(message.getAuthorId());
+		}
+	}
+
+	/**
+	 * Changes to the cache that have not been written to the database yet.
+	 *
+	 * @param changed messages that have been cached or edited
+	 * @param removed ids of messages that have been evicted or deleted
+	 */
+	record PendingChanges(List<CachedMessage> changed, List<Long> removed) {
+	}
+}
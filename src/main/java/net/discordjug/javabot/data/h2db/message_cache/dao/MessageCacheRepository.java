@@ -7,14 +7,15 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 
 /**
  * Dao class that represents the QOTW_POINTS SQL Table.
@@ -22,25 +23,44 @@ import java.util.Map.Entry;
 @RequiredArgsConstructor
 @Repository
 public class MessageCacheRepository {
+	private static final int FETCH_SIZE = 500;
 	private final JdbcTemplate jdbcTemplate;
 
 	/**
-	 * Inserts a {@link List} of {@link CachedMessage} objects.
+	 * Inserts or updates a {@link List} of {@link CachedMessage} objects.
+	 * Attachments that no longer exist on an edited message are removed.
 	 *
 	 * @param messages The List to insert.
 	 * @throws SQLException If an error occurs.
 	 */
 	public void insertList(@NotNull List<CachedMessage> messages) throws DataAccessException {
-		jdbcTemplate.batchUpdate("MERGE INTO message_cache (message_id, author_id, channel_id, message_content) VALUES (?, ?, ?, ?)",
+		if (messages.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate("MERGE INTO message_cache (message_id, guild_id, author_id, channel_id, message_content) VALUES (?, ?, ?, ?, ?)",
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement stmt, int i) throws SQLException {
+						CachedMessage msg = messages.get(i);
+						stmt.setLong(1, msg.getMessageId());
+						stmt.setLong(2, msg.getGuildId());
+						stmt.setLong(3, msg.getAuthorId());
+						stmt.setLong(4,msg.getChannelId());
+						stmt.setString(5, msg.getMessageContent());
+					}
+
+					@Override
+					public int getBatchSize() {
+						return messages.size();
+					}
+				});
+		jdbcTemplate.batchUpdate("DELETE FROM message_cache_attachments WHERE message_id = ? AND attachment_index >= ?",
 				new BatchPreparedStatementSetter() {
 					@Override
 					public void setValues(PreparedStatement stmt, int i) throws SQLException {
 						CachedMessage msg = messages.get(i);
 						stmt.setLong(1, msg.getMessageId());
-						stmt.setLong(2, msg.getAuthorId());
-						stmt.setLong(3,msg.getChannelId());
-						stmt.setString(4, msg.getMessageContent());
-						stmt.executeUpdate();
+						stmt.setInt(2, msg.getAttachments().size());
 					}
 
 					@Override
@@ -75,53 +95,86 @@ public class MessageCacheRepository {
 	}
 
 	/**
-	 * Gets all Messages from the Database.
+	 * Streams all Messages from the Database to a consumer, from the newest to the oldest message.
+	 * Rows are processed while they are read, so the messages are never held in a list.
 	 *
-	 * @return A {@link List} of {@link CachedMessage}s.
+	 * @param consumer The consumer accepting the messages.
 	 * @throws SQLException If anything goes wrong.
 	 */
-	public List<CachedMessage> getAll() throws DataAccessException {
-		List<CachedMessage> messagesWithLink = jdbcTemplate.query(
-				"SELECT * FROM message_cache LEFT JOIN message_cache_attachments ON message_cache.message_id = message_cache_attachments.message_id",
-				(rs, _) -> this.read(rs));
-		Map<Long, CachedMessage> messages=new LinkedHashMap<>();
-		for (CachedMessage msg : messagesWithLink) {
-			messages.merge(msg.getMessageId(), msg, (oldValue, value) -> {
-				ArrayList<String> attachments = new ArrayList<>(oldValue.getAttachments());
-				attachments.addAll(value.getAttachments());
-				return new CachedMessage(oldValue.getMessageId(), oldValue.getAuthorId(), oldValue.getChannelId(),oldValue.getMessageContent(), attachments);
-			});
-		}
-		return new ArrayList<>(messages.values());
+	public void forEachNewestFirst(@NotNull Consumer<CachedMessage> consumer) throws DataAccessException {
+		MessageAssembler assembler = new MessageAssembler(consumer);
+		jdbcTemplate.query(con -> {
+			PreparedStatement stmt = con.prepareStatement(
+					"SELECT * FROM message_cache LEFT JOIN message_cache_attachments ON message_cache.message_id = message_cache_attachments.message_id " +
+					"ORDER BY message_cache.message_id DESC, message_cache_attachments.attachment_index");
+			stmt.setFetchSize(FETCH_SIZE);
+			return stmt;
+		}, assembler);
+		assembler.finish();
 	}
 
 	/**
-	 * Deletes the given amount of Messages.
+	 * Deletes the Messages with the given ids together with their attachments.
 	 *
-	 * @param amount The amount to delete.
-	 * @return If any rows we're affected.
+	 * @param messageIds The ids of the messages to delete.
 	 * @throws SQLException If anything goes wrong.
 	 */
-	public boolean delete(int amount) throws DataAccessException {
-		int rows = jdbcTemplate.update("DELETE FROM message_cache LIMIT ?", amount);
-		if(rows > 0){
-			jdbcTemplate.update("DELETE FROM message_cache_attachments WHERE message_id NOT IN (SELECT message_id FROM message_cache)");
-			return true;
+	public void deleteAll(@NotNull List<Long> messageIds) throws DataAccessException {
+		if (messageIds.isEmpty()) {
+			return;
 		}
-		return false;
+		BatchPreparedStatementSetter idSetter = new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement stmt, int i) throws SQLException {
+				stmt.setLong(1, messageIds.get(i));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return messageIds.size();
+			}
+		};
+		jdbcTemplate.batchUpdate("DELETE FROM message_cache WHERE message_id = ?", idSetter);
+		jdbcTemplate.batchUpdate("DELETE FROM message_cache_attachments WHERE message_id = ?", idSetter);
 	}
 
-	private CachedMessage read(ResultSet rs) throws SQLException {
-		List<String> attachments = new ArrayList<>();
-		String attachment = rs.getString("link");
-		if(attachment != null) {
-			attachments.add(attachment);
+	/**
+	 * Combines the rows of a message and its attachments to {@link CachedMessage}s.
+	 * Rows of the same message have to be consecutive.
+	 */
+	@RequiredArgsConstructor
+	private static class MessageAssembler implements RowCallbackHandler {
+		private final Consumer<CachedMessage> consumer;
+		private long messageId;
+		private long guildId;
+		private long authorId;
+		private long channelId;
+		private String messageContent;
+		private List<String> attachments;
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			long id = rs.getLong("message_cache.message_id");
+			if (attachments == null || id != messageId) {
+				finish();
+				messageId = id;
+				guildId = rs.getLong("guild_id");
+				authorId = rs.getLong("author_id");
+				channelId = rs.getLong("channel_id");
+				messageContent = rs.getString("message_content");
+				attachments = new ArrayList<>();
+			}
+			String attachment = rs.getString("link");
+			if (attachment != null) {
+				attachments.add(attachment);
+			}
+		}
+
+		void finish() {
+			if (attachments != null) {
+				consumer.accept(new CachedMessage(messageId, guildId, authorId, channelId, messageContent, attachments));
+				attachments = null;
+			}
 		}
-		return new CachedMessage(
-				rs.getLong("message_cache.message_id"),
-				rs.getLong("author_id"),
-				rs.getLong("channel_id"),
-				rs.getString("message_content"),
-				attachments);
 	}
 }
@@ -1,8 +1,10 @@
 package net.discordjug.javabot.data.h2db.message_cache.model;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -12,66 +14,248 @@ import net.dv8tion.jda.api.entities.Message.Attachment;
 
 /**
  * Represents a cached Message.
+ * <p>
+ * A cached message can either keep its content as {@link String}s or, if {@link #setCompact(boolean) compact} storage is enabled,
+ * as UTF-8 encoded byte arrays with the common prefix of Discord attachment URLs stripped.
+ * Compact messages are only decoded when their content is requested, e.g. when building a log embed.
  */
 @Getter
 @EqualsAndHashCode
 @ToString
 public class CachedMessage {
+	/**
+	 * The guild id of messages that have been cached before the guild was stored together with the message.
+	 */
+	public static final long UNKNOWN_GUILD = -1;
+	/**
+	 * The prefix shared by the URLs of most Discord attachments.
+	 */
+	private static final String ATTACHMENT_URL_PREFIX = "https://cdn.discordapp.com/attachments/";
+	/**
+	 * Replaces {@link #ATTACHMENT_URL_PREFIX} in compact attachment URLs.
+	 */
+	private static final char ATTACHMENT_URL_PREFIX_MARKER = '\u0001';
+	private static final char ATTACHMENT_SEPARATOR = '\n';
+	/**
+	 * Estimated size of a {@link CachedMessage} object without its content: object header, four longs, four references, an int and a boolean.
+	 */
+	private static final int MESSAGE_OVERHEAD = 12 + 4 * Long.BYTES + 4 * 4 + Integer.BYTES + 1;
+	/**
+	 * Estimated size of a {@link String} object and the header of its backing array.
+	 */
+	private static final int STRING_OVERHEAD = 24 + 16;
+	private static final int ARRAY_OVERHEAD = 16;
+	private static final int LIST_OVERHEAD = 16 + ARRAY_OVERHEAD;
+
 	private final long messageId;
+	/**
+	 * The id of the guild the message was sent in or {@link #UNKNOWN_GUILD} for messages cached before the guild was stored.
+	 */
+	private final long guildId;
 	private final long authorId;
 	private final long channelId;
+	@Getter(AccessLevel.NONE)
+	@ToString.Exclude
 	private String messageContent;
+	@Getter(AccessLevel.NONE)
+	@ToString.Exclude
 	private List<String> attachments=new ArrayList<>();
-	
-	private CachedMessage(long messageId, long authorId,long channelId) {
+	@Getter(AccessLevel.NONE)
+	@ToString.Exclude
+	private byte[] compactMessageContent;
+	@Getter(AccessLevel.NONE)
+	@ToString.Exclude
+	private byte[] compactAttachments;
+	private int attachmentCount;
+	private boolean compact;
+
+	private CachedMessage(long messageId, long guildId, long authorId,long channelId) {
 		this.messageId = messageId;
+		this.guildId = guildId;
 		this.authorId = authorId;
 		this.channelId = channelId;
 	}
-	
+
 	/**
 	 * Creates a {@link CachedMessage} with the given information.
 	 * @param messageId The Discord ID of the message
+	 * @param guildId The Discord ID of the message guild
 	 * @param authorId The Discord ID of the message author
 	 * @param channelId The Discord ID of the message channel
 	 * @param messageContent the textual content of the message
 	 * @param attachments The attachment URLs
 	 */
-	public CachedMessage(long messageId, long authorId, long channelId, String messageContent, List<String> attachments) {
+	public CachedMessage(long messageId, long guildId, long authorId, long channelId, String messageContent, List<String> attachments) {
 		super();
 		this.messageId = messageId;
+		this.guildId = guildId;
 		this.authorId = authorId;
 		this.channelId = channelId;
-		this.messageContent = messageContent;
-		this.attachments = List.copyOf(attachments);
+		setContent(messageContent, List.copyOf(attachments));
 	}
 
 	/**
 	 * Converts a {@link Message} object to a {@link CachedMessage}.
 	 *
 	 * @param message The {@link Message} to convert.
+	 * @param compact Whether the content of the message should be stored in compact form.
 	 * @return The built {@link CachedMessage}.
 	 */
-	public static CachedMessage of(Message message) {
-		CachedMessage cachedMessage = new CachedMessage(message.getIdLong(), message.getAuthor().getIdLong(),message.getChannelIdLong());
+	public static CachedMessage of(Message message, boolean compact) {
+		CachedMessage cachedMessage = new CachedMessage(message.getIdLong(), message.getGuild().getIdLong(), message.getAuthor().getIdLong(),message.getChannelIdLong());
+		cachedMessage.compact = compact;
 		cachedMessage.init(message);
 		return cachedMessage;
 	}
-	
+
+	/**
+	 * Converts a {@link Message} object to a {@link CachedMessage}.
+	 *
+	 * @param message The {@link Message} to convert.
+	 * @return The built {@link CachedMessage}.
+	 */
+	public static CachedMessage of(Message message) {
+		return of(message, false);
+	}
+
 	/**
 	 * Resets the current {@link CachedMessage} to have the content of the passed {@link Message}.
 	 * @param message the {@link Message} this object is set to.
 	 */
 	public void init(Message message) {
-		messageContent = MessageUtils.getMessageContent(message).trim();
-		this.attachments = message
+		setContent(MessageUtils.getMessageContent(message).trim(), message
 				.getAttachments()
 				.stream()
 				.map(Attachment::getUrl)
-				.toList();
+				.toList());
+	}
+
+	/**
+	 * Creates an independent copy of this message which is not stored in compact form.
+	 *
+	 * @return The copied {@link CachedMessage}.
+	 */
+	public CachedMessage copy() {
+		return new CachedMessage(messageId, guildId, authorId, channelId, getMessageContent(), getAttachments());
 	}
-	
+
+	/**
+	 * Gets the textual content of this message, decoding it if the message is stored in compact form.
+	 *
+	 * @return The content of the message.
+	 */
+	@ToString.Include
+	public String getMessageContent() {
+		if (compact) {
+			return new String(compactMessageContent, StandardCharsets.UTF_8);
+		}
+		return messageContent;
+	}
+
+	/**
+	 * Gets the URLs of all attachments of this message, decoding them if the message is stored in compact form.
+	 *
+	 * @return An unmodifiable {@link List} of attachment URLs.
+	 */
+	@ToString.Include
+	public List<String> getAttachments() {
+		if (!compact) {
+			return attachments;
+		}
+		if (attachmentCount == 0) {
+			return List.of();
+		}
+		String[] encoded = new String(compactAttachments, StandardCharsets.UTF_8).split(String.valueOf(ATTACHMENT_SEPARATOR), -1);
+		List<String> decoded = new ArrayList<>(encoded.length);
+		for (String attachment : encoded) {
+			if (!attachment.isEmpty() && attachment.charAt(0) == ATTACHMENT_URL_PREFIX_MARKER) {
+				attachment = ATTACHMENT_URL_PREFIX + attachment.substring(1);
+			}
+			decoded.add(attachment);
+		}
+		return List.copyOf(decoded);
+	}
+
+	/**
+	 * Checks whether this message has attachments and all of them are Java files.
+	 *
+	 * @return {@code true} if the message only has Java file attachments, else {@code false}
+	 */
+	public boolean hasOnlyJavaAttachments() {
+		return attachmentCount > 0 && getAttachments().stream().allMatch(attachment -> attachment.contains(".java?"));
+	}
+
+	/**
+	 * Estimates the amount of heap memory retained by this message, assuming compressed references and Latin-1 strings.
+	 *
+	 * @return The estimated size in bytes.
+	 */
+	public long estimateRetainedBytes() {
+		long size = MESSAGE_OVERHEAD;
+		if (compact) {
+			size += ARRAY_OVERHEAD + compactMessageContent.length;
+			if (compactAttachments != null) {
+				size += ARRAY_OVERHEAD + compactAttachments.length;
+			}
+		} else {
+			size += STRING_OVERHEAD + messageContent.length();
+			size += LIST_OVERHEAD + 4L * attachments.size();
+			for (String attachment : attachments) {
+				size += STRING_OVERHEAD + attachment.length();
+			}
+		}
+		return size;
+	}
+
 	public void setMessageContent(String messageContent) {
-		this.messageContent = messageContent;
+		setContent(messageContent, getAttachments());
+	}
+
+	/**
+	 * Switches between storing the content of this message as {@link String}s and storing it in compact form.
+	 *
+	 * @param compact {@code true} if the content should be stored in compact form, else {@code false}
+	 */
+	public void setCompact(boolean compact) {
+		if (this.compact == compact) {
+			return;
+		}
+		String content = getMessageContent();
+		List<String> currentAttachments = getAttachments();
+		this.compact = compact;
+		setContent(content, currentAttachments);
+	}
+
+	private void setContent(String messageContent, List<String> attachments) {
+		attachmentCount = attachments.size();
+		if (compact) {
+			this.messageContent = null;
+			this.attachments = null;
+			compactMessageContent = messageContent.getBytes(StandardCharsets.UTF_8);
+			compactAttachments = encodeAttachments(attachments);
+		} else {
+			this.messageContent = messageContent;
+			this.attachments = attachments;
+			compactMessageContent = null;
+			compactAttachments = null;
+		}
+	}
+
+	private static byte[] encodeAttachments(List<String> attachments) {
+		if (attachments.isEmpty()) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (String attachment : attachments) {
+			if (!sb.isEmpty()) {
+				sb.append(ATTACHMENT_SEPARATOR);
+			}
+			if (attachment.startsWith(ATTACHMENT_URL_PREFIX)) {
+				sb.append(ATTACHMENT_URL_PREFIX_MARKER).append(attachment, ATTACHMENT_URL_PREFIX.length(), attachment.length());
+			} else {
+				sb.append(attachment);
+			}
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
 	}
 }
@@ -28,11 +28,17 @@ import java.util.regex.Pattern;
 public class GitHubLinkListener extends ListenerAdapter {
 
 	private final Pattern GITHUB_LINK_PATTERN = Pattern.compile("https:?//github\\.com/([A-Za-z0-9\\-_.]+)/([A-Za-z0-9\\-_.]+)/(?:blob|tree)/(\\S+?)/(\\S+?)(\\.\\S+)?#L(\\d+)[-~]?L?(\\d*)");
+	/**
+	 * Contained in every link matched by {@link #GITHUB_LINK_PATTERN}, whichever of its schemes is used.
+	 */
+	private static final String GITHUB_LINK_MARKER = "//github.com/";
 
 	@Override
 	public void onMessageReceived(@NotNull MessageReceivedEvent event) {
 		if (event.getAuthor().isBot() || event.getAuthor().isSystem()) return;
-		Matcher matcher = GITHUB_LINK_PATTERN.matcher(event.getMessage().getContentRaw());
+		String text = event.getMessage().getContentRaw();
+		if (!text.contains(GITHUB_LINK_MARKER)) return;
+		Matcher matcher = GITHUB_LINK_PATTERN.matcher(text);
 		if (matcher.find()) {
 			Pair<String, String> content = parseGithubUrl(matcher.group());
 			if (!content.getFirst().isBlank() && !content.getSecond().isBlank()) {
@@ -32,11 +32,17 @@ import java.util.regex.Pattern;
 public class MessageLinkListener extends ListenerAdapter {
 
 	private static final Pattern MESSAGE_URL_PATTERN = Pattern.compile("https://((?:canary|ptb)\\.)?discord(app)?.com/channels/[0-9]+/[0-9]+/[0-9]+");
+	/**
+	 * Checked before running {@link #MESSAGE_URL_PATTERN}, as every message link it matches contains it.
+	 */
+	private static final String MESSAGE_URL_MARKER = "com/channels/";
 
 	@Override
 	public void onMessageReceived(@NotNull MessageReceivedEvent event) {
 		if (event.getAuthor().isBot() || event.getAuthor().isSystem()) return;
-		Matcher matcher = MESSAGE_URL_PATTERN.matcher(event.getMessage().getContentRaw());
+		String text = event.getMessage().getContentRaw();
+		if (!text.contains(MESSAGE_URL_MARKER)) return;
+		Matcher matcher = MESSAGE_URL_PATTERN.matcher(text);
 		if (matcher.find()) {
 			MessageChannelUnion messageChannel = event.getChannel();
 			IWebhookContainer webhookChannel = getWebhookChannel(messageChannel);
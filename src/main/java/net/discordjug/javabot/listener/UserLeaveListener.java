@@ -5,9 +5,9 @@ import net.discordjug.javabot.data.config.BotConfig;
 import net.discordjug.javabot.data.config.GuildConfig;
 import net.discordjug.javabot.data.config.guild.HelpConfig;
 import net.discordjug.javabot.data.h2db.DbActions;
+import net.discordjug.javabot.systems.help.HelpExperienceService;
 import net.discordjug.javabot.systems.help.HelpManager;
-import net.discordjug.javabot.systems.help.dao.HelpAccountRepository;
-import net.discordjug.javabot.systems.help.dao.HelpTransactionRepository;
+import net.discordjug.javabot.systems.help.HelpPostActivity;
 import net.discordjug.javabot.systems.user_preferences.UserPreferenceService;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.User;
@@ -30,9 +30,9 @@ import org.jetbrains.annotations.NotNull;
 public class UserLeaveListener extends ListenerAdapter {
 	private final DbActions dbActions;
 	private final BotConfig botConfig;
-	private final HelpAccountRepository helpAccountRepository;
-	private final HelpTransactionRepository helpTransactionRepository;
+	private final HelpExperienceService experienceService;
 	private final UserPreferenceService userPreferenceService;
+	private final HelpPostActivity helpPostActivity;
 
 	@Override
 	public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
@@ -86,7 +86,7 @@ public class UserLeaveListener extends ListenerAdapter {
 	}
 
 	private void unreserveHelpChannel(ThreadChannel post) {
-		HelpManager manager = new HelpManager(post, dbActions, botConfig, helpAccountRepository, helpTransactionRepository, userPreferenceService);
+		HelpManager manager = new HelpManager(post, dbActions, botConfig, experienceService, userPreferenceService, helpPostActivity);
 		manager.close(UserSnowflake.fromId(post.getGuild().getSelfMember().getIdLong()), "User left the server");
 	}
 }
@@ -0,0 +1,207 @@
+package net.discordjug.javabot.listener.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds URLs and Discord invites in text without using regular expressions.
+ * <p>
+ * The scanner reports exactly the matches of the following patterns AutoMod used before, but never backtracks or recurses,
+ * so the time needed is linear in the length of the text, no matter what the text contains.
+ * <pre>
+ * URLs (case insensitive):
+ * (?:^|[\W])((ht|f)tp(s?)://|www\.)(([\w\-]+\.)+?([\w\-.~]+/?)*[\p{Alnum}.,%_=?&amp;#\-+()\[\]*$~@!:/{};']*)
+ * Invites:
+ * discord(?:(\.(?:me|io|gg)|sites\.com)/.{0,4}|(?:app)?\.com.{1,4}(?:invite|oauth2).{0,5}/)\w+
+ * </pre>
+ * As all characters allowed after the first label of a URL are URL characters, a URL ends at the first non-URL character.
+ * The bounded quantifiers of the invite pattern are tried in the same order as a backtracking matcher would do.
+ */
+final class LinkScanner {
+	private static final String[] URL_PREFIXES = {"http://", "https://", "ftp://", "ftps://", "www."};
+	private static final String URL_SYMBOLS = ".,%_=?&#-+()[]*$~@!:/{};'";
+	private static final String INVITE_START = "discord";
+	private static final String[] SHORT_INVITE_DOMAINS = {".me/", ".io/", ".gg/", "sites.com/"};
+	private static final String[] INVITE_PATHS = {"invite", "oauth2"};
+
+	private LinkScanner() {
+	}
+
+	/**
+	 * Finds all URLs in a text.
+	 *
+	 * @param text The text to search.
+	 * @return The URLs in the order they appear, each starting with its scheme or {@code www.}.
+	 */
+	static List<String> findUrls(CharSequence text) {
+		List<String> urls = new ArrayList<>();
+		int position = 0;
+		while (position < text.length()) {
+			int urlStart = position;
+			int urlEnd = position == 0 ? urlEnd(text, 0) : -1;
+			if (urlEnd == -1 && !isWordCharacter(text.charAt(position))) {
+				urlStart = position + 1;
+				urlEnd = urlEnd(text, urlStart);
+			}
+			if (urlEnd == -1) {
+				position++;
+			} else {
+				urls.add(text.subSequence(urlStart, urlEnd).toString());
+				position = urlEnd;
+			}
+		}
+		return urls;
+	}
+
+	/**
+	 * Checks whether a URL starts at the given position.
+	 *
+	 * @return The end of the URL or {@code -1} if there is no URL at that position.
+	 */
+	private static int urlEnd(CharSequence text, int start) {
+		int labelStart = -1;
+		for (String prefix : URL_PREFIXES) {
+			if (startsWithIgnoreCase(text, start, prefix)) {
+				labelStart = start + prefix.length();
+				break;
+			}
+		}
+		if (labelStart == -1) {
+			return -1;
+		}
+		int position = labelStart;
+		while (position < text.length() && isLabelCharacter(text.charAt(position))) {
+			position++;
+		}
+		if (position == labelStart || position >= text.length() || text.charAt(position) != '.') {
+			return -1;
+		}
+		while (position < text.length() && isUrlCharacter(text.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Finds all Discord invite URLs in a text. Invites may overlap.
+	 *
+	 * @param text The text to search.
+	 * @return The invite URLs in the order they appear.
+	 */
+	static List<String> findInviteUrls(CharSequence text) {
+		List<String> invites = new ArrayList<>();
+		String string = text.toString();
+		int start = string.indexOf(INVITE_START);
+		while (start != -1) {
+			int end = inviteEnd(string, start + INVITE_START.length());
+			if (end != -1) {
+				invites.add(string.substring(start, end));
+			}
+			start = string.indexOf(INVITE_START, start + 1);
+		}
+		return invites;
+	}
+
+	/**
+	 * Matches the part of an invite following {@code discord}.
+	 *
+	 * @return The end of the invite or {@code -1} if there is no invite.
+	 */
+	private static int inviteEnd(String text, int position) {
+		for (String domain : SHORT_INVITE_DOMAINS) {
+			if (text.startsWith(domain, position)) {
+				// .{0,4}\w+
+				int[] afterAny = anyCharacters(text, position + domain.length(), 4);
+				for (int i = afterAny.length - 1; i >= 0; i--) {
+					if (afterAny[i] < text.length() && isWordCharacter(text.charAt(afterAny[i]))) {
+						return wordEnd(text, afterAny[i]);
+					}
+				}
+				return -1;
+			}
+		}
+		int domainEnd;
+		if (text.startsWith("app.com", position)) {
+			domainEnd = position + "app.com".length();
+		} else if (text.startsWith(".com", position)) {
+			domainEnd = position + ".com".length();
+		} else {
+			return -1;
+		}
+		// .{1,4}(?:invite|oauth2).{0,5}/\w+
+		int[] afterAny = anyCharacters(text, domainEnd, 4);
+		for (int i = afterAny.length - 1; i >= 1; i--) {
+			for (String path : INVITE_PATHS) {
+				if (text.startsWith(path, afterAny[i])) {
+					int[] afterPath = anyCharacters(text, afterAny[i] + path.length(), 5);
+					for (int j = afterPath.length - 1; j >= 0; j--) {
+						int slash = afterPath[j];
+						if (slash + 1 < text.length() && text.charAt(slash) == '/' && isWordCharacter(text.charAt(slash + 1))) {
+							return wordEnd(text, slash + 1);
+						}
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Computes the positions after matching {@code .} between zero and {@code max} times,
+	 * which matches a single code point except line terminators.
+	 *
+	 * @return The position after matching {@code .} {@code i} times at index {@code i}.
+	 */
+	private static int[] anyCharacters(String text, int start, int max) {
+		int[] positions = new int[max + 1];
+		positions[0] = start;
+		int count = 0;
+		int position = start;
+		while (count < max && position < text.length() && !isLineTerminator(text.charAt(position))) {
+			position += Character.charCount(text.codePointAt(position));
+			positions[++count] = position;
+		}
+		return count == max ? positions : Arrays.copyOf(positions, count + 1);
+	}
+
+	private static int wordEnd(CharSequence text, int position) {
+		while (position < text.length() && isWordCharacter(text.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	private static boolean startsWithIgnoreCase(CharSequence text, int start, String lowerCasePrefix) {
+		if (start + lowerCasePrefix.length() > text.length()) {
+			return false;
+		}
+		for (int i = 0; i < lowerCasePrefix.length(); i++) {
+			char c = text.charAt(start + i);
+			// only ASCII letters are matched case insensitively
+			if (c >= 'A' && c <= 'Z') {
+				c = (char) (c + ('a' - 'A'));
+			}
+			if (c != lowerCasePrefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	private static boolean isWordCharacter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	private static boolean isLabelCharacter(char c) {
+		return isWordCharacter(c) || c == '-';
+	}
+
+	private static boolean isUrlCharacter(char c) {
+		return isWordCharacter(c) || URL_SYMBOLS.indexOf(c) != -1;
+	}
+}
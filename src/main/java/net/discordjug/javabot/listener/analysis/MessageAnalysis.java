@@ -0,0 +1,120 @@
+package net.discordjug.javabot.listener.analysis;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.Getter;
+import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.data.config.GuildConfig;
+import net.discordjug.javabot.util.ContentFingerprint;
+import net.discordjug.javabot.util.ExceptionLogger;
+import net.discordjug.javabot.util.MessageUtils;
+import net.discordjug.javabot.util.StringUtils;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Mentions;
+
+/**
+ * Information about a received message that is needed by multiple listeners.
+ * <p>
+ * Every piece of information is computed when it is first requested and reused afterwards,
+ * so listeners handling the same message don't parse it again.
+ * Instances are obtained using {@link MessageAnalyzer#analyze(Message)}.
+ */
+public class MessageAnalysis {
+	/**
+	 * The analyzed message.
+	 */
+	@Getter
+	private final Message message;
+	private final BotConfig botConfig;
+
+	/**
+	 * The content of the message or the content of the forwarded message.
+	 *
+	 * @see MessageUtils#getMessageContent(Message)
+	 */
+	@Getter(lazy = true)
+	private final String content = MessageUtils.getMessageContent(message);
+
+	/**
+	 * The configuration of the guild the message has been sent in or {@code null} if it hasn't been sent in a guild.
+	 */
+	@Getter(lazy = true)
+	private final GuildConfig guildConfig = message.isFromGuild() ? botConfig.get(message.getGuild()) : null;
+
+	/**
+	 * All URLs in the {@link #getContent() content}.
+	 */
+	@Getter(lazy = true)
+	private final List<String> urls = Collections.unmodifiableList(LinkScanner.findUrls(getContent()));
+
+	/**
+	 * The hosts of all HTTP(S) URLs in the {@link #getContent() content}.
+	 */
+	@Getter(lazy = true)
+	private final Set<String> hosts = findHosts();
+
+	/**
+	 * All Discord invite URLs in the {@link #getContent() content}, ignoring control characters and spaces.
+	 * These may overlap.
+	 */
+	@Getter(lazy = true)
+	private final List<String> inviteUrls = Collections.unmodifiableList(LinkScanner.findInviteUrls(StringUtils.removeControlCharactersAndSpaces(getContent())));
+
+	/**
+	 * The {@link ContentFingerprint} of the {@link #getContent() content}, used for finding near-identical messages.
+	 */
+	@Getter(lazy = true)
+	private final long fingerprint = ContentFingerprint.of(getContent());
+
+	/**
+	 * Analyzes a message.
+	 *
+	 * @param message The message to analyze.
+	 * @param botConfig The main configuration of the bot.
+	 */
+	MessageAnalysis(Message message, BotConfig botConfig) {
+		this.message = message;
+		this.botConfig = botConfig;
+	}
+
+	/**
+	 * Checks whether the raw content of the message contains characters used for markdown code blocks.
+	 *
+	 * @return {@code true} if the message contains a backtick, else {@code false}
+	 */
+	public boolean containsCodeMarkers() {
+		return message.getContentRaw().indexOf('`') != -1;
+	}
+
+	/**
+	 * Checks whether the message mentions any users or roles or mentions everyone.
+	 *
+	 * @return {@code true} if the message mentions anyone, else {@code false}
+	 */
+	public boolean mentionsAnyone() {
+		Mentions mentions = message.getMentions();
+		return !mentions.getUsers().isEmpty() || !mentions.getRoles().isEmpty() || mentions.mentionsEveryone();
+	}
+
+	private Set<String> findHosts() {
+		Set<String> found = new LinkedHashSet<>();
+		for (String url : getUrls()) {
+			if (url.regionMatches(true, 0, "http://", 0, 7) || url.regionMatches(true, 0, "https://", 0, 8)) {
+				try {
+					String host = new URI(url).getHost();
+					if (host != null) {
+						found.add(host);
+					}
+				} catch (URISyntaxException e) {
+					ExceptionLogger.capture(e, getClass().getSimpleName());
+				}
+			}
+		}
+		return Collections.unmodifiableSet(found);
+	}
+}
@@ -0,0 +1,50 @@
+package net.discordjug.javabot.listener.analysis;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.RequiredArgsConstructor;
+import net.discordjug.javabot.data.config.BotConfig;
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Provides the {@link MessageAnalysis} of messages.
+ * <p>
+ * Analyses are remembered per message and shared by all listeners receiving the same event.
+ * As an analysis references its message, analyses are only kept for a few seconds, which is enough for all listeners to handle the event.
+ * Edited messages are analyzed again.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageAnalyzer {
+	private final BotConfig botConfig;
+	private final Cache<AnalysisKey, MessageAnalysis> analyses = Caffeine.newBuilder()
+			.expireAfterWrite(5, TimeUnit.SECONDS)
+			.build();
+
+	/**
+	 * Gets the analysis of a message, analyzing it if no other listener did so before.
+	 *
+	 * @param message The message to analyze.
+	 * @return The {@link MessageAnalysis} of the message.
+	 */
+	public MessageAnalysis analyze(Message message) {
+		OffsetDateTime timeEdited = message.getTimeEdited();
+		AnalysisKey key = new AnalysisKey(message.getIdLong(), timeEdited == null ? 0 : timeEdited.toInstant().toEpochMilli());
+		return analyses.get(key, _ -> new MessageAnalysis(message, botConfig));
+	}
+
+	/**
+	 * Identifies a version of a message.
+	 *
+	 * @param messageId The id of the message.
+	 * @param editedAt The time the message has last been edited in epoch milliseconds or {@code 0} if it hasn't been edited.
+	 */
+	private record AnalysisKey(long messageId, long editedAt) {
+	}
+}
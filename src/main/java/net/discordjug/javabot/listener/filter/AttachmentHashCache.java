@@ -0,0 +1,169 @@
+package net.discordjug.javabot.listener.filter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.discordjug.javabot.data.config.SystemsConfig;
+import net.discordjug.javabot.util.ExceptionLogger;
+import net.dv8tion.jda.api.entities.Message.Attachment;
+
+/**
+ * Computes and remembers the SHA-256 hashes of attachments which are checked against {@link net.discordjug.javabot.data.config.guild.MessageRule}s.
+ * <p>
+ * Attachments are streamed into the digest instead of being loaded into memory and the hash of an attachment is only computed once,
+ * no matter how many rules or log messages need it.
+ * Attachments larger than {@link SystemsConfig#getAttachmentHashMaxSize()} aren't downloaded at all.
+ * A download may take at most half of {@link SystemsConfig#getMessageFilterTimeoutMillis()},
+ * so filters hashing attachments finish before their deadline even if Discord's CDN is slow.
+ */
+@Component
+public class AttachmentHashCache {
+	private static final Duration MAX_DOWNLOAD_TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient httpClient;
+	private final long maxAttachmentSize;
+	private final Duration downloadTimeout;
+	private final Cache<Long, String> hashes;
+
+	/**
+	 * Creates the cache.
+	 *
+	 * @param httpClient The shared {@link HttpClient} used for downloading attachments
+	 * @param systemsConfig Configuration containing the size of the cache, the maximum attachment size and the deadline of message filters
+	 */
+	public AttachmentHashCache(HttpClient httpClient, SystemsConfig systemsConfig) {
+		this.httpClient = httpClient;
+		this.maxAttachmentSize = systemsConfig.getAttachmentHashMaxSize();
+		Duration halfFilterTimeout = Duration.ofMillis(Math.max(systemsConfig.getMessageFilterTimeoutMillis() / 2, 1));
+		this.downloadTimeout = halfFilterTimeout.compareTo(MAX_DOWNLOAD_TIMEOUT) < 0 ? halfFilterTimeout : MAX_DOWNLOAD_TIMEOUT;
+		this.hashes = Caffeine.newBuilder()
+				.maximumSize(systemsConfig.getAttachmentHashCacheSize())
+				.build();
+	}
+
+	/**
+	 * Gets the SHA-256 hash of an attachment, downloading it if the hash isn't known yet.
+	 *
+	 * @param attachment The attachment.
+	 * @return The Base64 encoded hash or an empty String if the attachment is too large or could not be downloaded.
+	 */
+	public String getSHA(Attachment attachment) {
+		if (attachment.getSize() > maxAttachmentSize) {
+			return "";
+		}
+		String hash = hashes.get(attachment.getIdLong(), _ -> computeSHA(attachment.getProxyUrl()));
+		return hash == null ? "" : hash;
+	}
+
+	/**
+	 * Downloads an attachment and computes its hash.
+	 * The download is aborted if it takes longer than the download timeout or the waiting thread is interrupted.
+	 *
+	 * @param url The URL of the attachment.
+	 * @return The Base64 encoded hash or {@code null} if it could not be computed, which isn't cached.
+	 */
+	private String computeSHA(String url) {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(downloadTimeout).build();
+		CompletableFuture<HttpResponse<String>> response = httpClient.sendAsync(request, this::createBodySubscriber);
+		try {
+			return response.get(downloadTimeout.toMillis(), TimeUnit.MILLISECONDS).body();
+		} catch (ExecutionException e) {
+			ExceptionLogger.capture(e.getCause(), getClass().getSimpleName());
+			return null;
+		} catch (TimeoutException e) {
+			response.cancel(true);
+			return null;
+		} catch (InterruptedException e) {
+			response.cancel(true);
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private BodySubscriber<String> createBodySubscriber(ResponseInfo responseInfo) {
+		if (responseInfo.statusCode() != 200) {
+			return BodySubscribers.replacing(null);
+		}
+		return new DigestSubscriber(maxAttachmentSize);
+	}
+
+	/**
+	 * Streams the body of a response into a SHA-256 digest, completing with {@code null} as soon as it exceeds the maximum size.
+	 */
+	private static class DigestSubscriber implements BodySubscriber<String> {
+		private final CompletableFuture<String> result = new CompletableFuture<>();
+		private final MessageDigest digest;
+		private final long maxSize;
+		private Flow.Subscription subscription;
+		private long total;
+
+		private DigestSubscriber(long maxSize) {
+			this.maxSize = maxSize;
+			try {
+				this.digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("SHA-256 is not supported", e);
+			}
+		}
+
+		@Override
+		public CompletionStage<String> getBody() {
+			return result;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onNext(List<ByteBuffer> buffers) {
+			if (result.isDone()) {
+				return;
+			}
+			for (ByteBuffer buffer : buffers) {
+				total += buffer.remaining();
+				if (total > maxSize) {
+					subscription.cancel();
+					result.complete(null);
+					return;
+				}
+				digest.update(buffer);
+			}
+			subscription.request(1);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			result.completeExceptionally(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			result.complete(Base64.getEncoder().encodeToString(digest.digest()));
+		}
+	}
+}
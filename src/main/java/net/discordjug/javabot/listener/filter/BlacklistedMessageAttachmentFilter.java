@@ -1,12 +1,9 @@
 package net.discordjug.javabot.listener.filter;
 
-import lombok.RequiredArgsConstructor;
-import net.discordjug.javabot.data.config.BotConfig;
 import net.discordjug.javabot.data.config.GuildConfig;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
-import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -15,17 +12,13 @@ import java.util.List;
  * This {@link MessageFilter} blocks attachments blacklisted using {@link GuildConfig}.
  */
 @Component
-@RequiredArgsConstructor
 public class BlacklistedMessageAttachmentFilter implements MessageFilter {
 
-	private final BotConfig botConfig;
-
 	@Override
 	public MessageModificationStatus processMessage(MessageContent content) {
-		MessageReceivedEvent event = content.event();
 		List<Message.Attachment> attachments = content.attachments();
 		List<MessageEmbed> embeds = content.embeds();
-		GuildConfig guildConfig = botConfig.get(event.getGuild());
+		GuildConfig guildConfig = content.analysis().getGuildConfig();
 		List<String> blacklistedMessageExtensions = guildConfig.getBlacklistedMessageExtensions();
 		boolean removed = attachments.removeIf(attachment -> blacklistedMessageExtensions.contains(attachment.getFileExtension()));
 		if (removed) {
@@ -43,4 +36,9 @@ public class BlacklistedMessageAttachmentFilter implements MessageFilter {
 	public int getOrder() {
 		return -10;//should run earlier than normal because it is automod-related but other automod filters are more important
 	}
+
+	@Override
+	public boolean isEnforcing() {
+		return true;
+	}
 }
@@ -0,0 +1,195 @@
+package net.discordjug.javabot.listener.filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.google.re2j.Pattern;
+import com.google.re2j.PatternSyntaxException;
+
+import net.discordjug.javabot.data.config.guild.MessageRule;
+import net.dv8tion.jda.api.entities.Message.Attachment;
+
+/**
+ * The {@link MessageRule}s of a guild, compiled for checking them against messages.
+ * <p>
+ * The message regexes of all rules are combined into a single re2j pattern, so a message is checked against all of them
+ * in one linear-time pass. Only if that pattern matches, the rules are checked individually to find out which of them fired.
+ * As most messages don't match any rule, this avoids running every regex on every message.
+ * Regexes are translated to re2j by the {@link Re2jTranslator}, regexes it doesn't translate are checked individually using {@link java.util.regex.Pattern}.
+ */
+class CompiledMessageRules {
+	private final List<MessageRule> rules;
+	private final List<RuleState> states;
+	private final List<CompiledRule> compiledRules;
+	/**
+	 * Matches a message iff it matches any of the message regexes that are part of it, {@code null} if there are none.
+	 */
+	private final Pattern combinedMessagePattern;
+
+	private CompiledMessageRules(List<MessageRule> rules) {
+		this.rules = rules;
+		this.states = rules.stream().map(RuleState::of).toList();
+		this.compiledRules = new ArrayList<>(rules.size());
+		StringJoiner combined = new StringJoiner("|");
+		for (MessageRule rule : rules) {
+			Pattern messagePattern = toRe2j(rule.getMessageRegex());
+			if (messagePattern != null) {
+				combined.add("(?:" + messagePattern.pattern() + ")");
+			}
+			compiledRules.add(new CompiledRule(rule, messagePattern != null, toPredicate(rule.getMessageRegex(), messagePattern), toPredicate(rule.getAttachmentNameRegex(), toRe2j(rule.getAttachmentNameRegex()))));
+		}
+		this.combinedMessagePattern = combined.length() == 0 ? null : Pattern.compile(combined.toString());
+	}
+
+	/**
+	 * Compiles a list of {@link MessageRule}s.
+	 *
+	 * @param rules The rules to compile.
+	 * @return The compiled rules.
+	 */
+	static CompiledMessageRules compile(List<MessageRule> rules) {
+		return new CompiledMessageRules(rules);
+	}
+
+	/**
+	 * Checks whether these compiled rules still represent the given rules.
+	 * This is the case if neither the list nor any of its rules have been changed since compiling.
+	 *
+	 * @param rules The current rules.
+	 * @return {@code true} if the rules don't need to be compiled again, else {@code false}
+	 */
+	boolean isCompiledFrom(List<MessageRule> rules) {
+		if (this.rules != rules || states.size() != rules.size()) {
+			return false;
+		}
+		for (int i = 0; i < rules.size(); i++) {
+			if (!states.get(i).matches(rules.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds all rules matching a message.
+	 *
+	 * @param messageText The text of the message.
+	 * @param attachments The attachments of the message.
+	 * @param shaComputer Computes the SHA hash of an attachment, which is called at most once per attachment.
+	 * @return The matching rules in the order they are configured.
+	 */
+	List<MessageRule> findMatchingRules(CharSequence messageText, List<Attachment> attachments, Function<Attachment, String> shaComputer) {
+		List<MessageRule> matching = new ArrayList<>();
+		String text = messageText.toString();
+		Boolean combinedMatches = null;
+		Map<Attachment, String> shas = new HashMap<>();
+		for (CompiledRule compiled : compiledRules) {
+			MessageRule rule = compiled.rule();
+			if (attachments.size() > rule.getMaxAttachments() || attachments.size() < rule.getMinAttachments()) {
+				continue;
+			}
+			if (compiled.inCombinedPattern()) {
+				if (combinedMatches == null) {
+					combinedMatches = combinedMessagePattern.matches(text);
+				}
+				if (!combinedMatches) {
+					continue;
+				}
+			}
+			if (!compiled.messageMatcher().test(text)) {
+				continue;
+			}
+			if (attachments.stream().map(Attachment::getFileName).allMatch(compiled.attachmentNameMatcher()) && matchesSHA(rule, attachments, shas, shaComputer)) {
+				matching.add(rule);
+			}
+		}
+		return matching;
+	}
+
+	private static boolean matchesSHA(MessageRule rule, List<Attachment> attachments, Map<Attachment, String> shas, Function<Attachment, String> shaComputer) {
+		if (rule.getAttachmentSHAs().isEmpty()) {
+			return true;
+		}
+		for (Attachment attachment : attachments) {
+			if (rule.getAttachmentSHAs().contains(shas.computeIfAbsent(attachment, shaComputer))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Translates a {@link java.util.regex.Pattern} to an equivalent re2j {@link Pattern}.
+	 *
+	 * @param pattern The pattern to translate, may be {@code null}.
+	 * @return The re2j pattern or {@code null} if there is no pattern or it uses features that are not translated to re2j.
+	 */
+	private static Pattern toRe2j(java.util.regex.Pattern pattern) {
+		String regex = pattern == null ? null : Re2jTranslator.translate(pattern);
+		if (regex == null) {
+			return null;
+		}
+		try {
+			return Pattern.compile(regex);
+		} catch (PatternSyntaxException e) {
+			return null;
+		}
+	}
+
+	private static Predicate<String> toPredicate(java.util.regex.Pattern pattern, Pattern re2jPattern) {
+		if (pattern == null) {
+			return _ -> true;
+		}
+		if (re2jPattern != null) {
+			return re2jPattern::matches;
+		}
+		return text -> pattern.matcher(text).matches();
+	}
+
+	/**
+	 * A single compiled rule.
+	 *
+	 * @param rule The rule.
+	 * @param inCombinedPattern Whether the message regex of the rule is part of the {@link #combinedMessagePattern}.
+	 * @param messageMatcher Checks whether the text of a message matches the rule.
+	 * @param attachmentNameMatcher Checks whether the name of an attachment matches the rule.
+	 */
+	private record CompiledRule(MessageRule rule, boolean inCombinedPattern, Predicate<String> messageMatcher, Predicate<String> attachmentNameMatcher) {
+	}
+
+	/**
+	 * The state of a rule at the time of compiling, used for detecting changes.
+	 * Patterns are compared by identity as they are replaced whenever a rule is changed.
+	 *
+	 * @param rule The rule.
+	 * @param messageRegex The message regex.
+	 * @param attachmentNameRegex The attachment name regex.
+	 * @param minAttachments The minimum amount of attachments.
+	 * @param maxAttachments The maximum amount of attachments.
+	 * @param attachmentSHAs The SHA hashes of attachments.
+	 * @param action The action to execute.
+	 */
+	private record RuleState(MessageRule rule, java.util.regex.Pattern messageRegex, java.util.regex.Pattern attachmentNameRegex, int minAttachments, int maxAttachments, Set<String> attachmentSHAs, MessageRule.MessageAction action) {
+		static RuleState of(MessageRule rule) {
+			return new RuleState(rule, rule.getMessageRegex(), rule.getAttachmentNameRegex(), rule.getMinAttachments(), rule.getMaxAttachments(), new HashSet<>(rule.getAttachmentSHAs()), rule.getAction());
+		}
+
+		boolean matches(MessageRule rule) {
+			return this.rule == rule
+					&& messageRegex == rule.getMessageRegex()
+					&& attachmentNameRegex == rule.getAttachmentNameRegex()
+					&& minAttachments == rule.getMinAttachments()
+					&& maxAttachments == rule.getMaxAttachments()
+					&& action == rule.getAction()
+					&& Objects.equals(attachmentSHAs, rule.getAttachmentSHAs());
+		}
+	}
+}
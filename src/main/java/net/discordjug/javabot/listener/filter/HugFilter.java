@@ -1,10 +1,10 @@
 package net.discordjug.javabot.listener.filter;
 
 import lombok.RequiredArgsConstructor;
+import net.discordjug.javabot.util.KeywordScanner;
 import org.springframework.stereotype.Component;
 
-import java.util.Objects;
-import java.util.regex.Pattern;
+import java.util.List;
 
 /**
  * This {@link MessageFilter} replaces all occurrences of 'fuck' in incoming messages with 'hug'.
@@ -13,25 +13,22 @@ import java.util.regex.Pattern;
 @RequiredArgsConstructor
 public class HugFilter implements MessageFilter {
 
-	private static final Pattern FUCKER = Pattern.compile(
-			"(fuck)(ing|er|ed|k+)?",
-			Pattern.CASE_INSENSITIVE
-	);
+	private static final KeywordScanner FUCKER = KeywordScanner.of("fuck");
+	private static final String[] SUFFIXES = {"ing", "er", "ed"};
 
 	@Override
 	public MessageModificationStatus processMessage(MessageContent content) {
 		if (!content.event().getMessage().getMentions().getUsers().isEmpty()) {
 			return MessageModificationStatus.NOT_MODIFIED;
 		}
-		String before = content.messageText().toString();
-		String processed = replaceFucks(content.messageText().toString());
-		if (!before.equals(processed)) {
-			content.messageText().setLength(0);
-			content.messageText().append(processed);
-			return MessageModificationStatus.MODIFIED;
-		} else {
+		List<KeywordScanner.Match> fucks = FUCKER.findAll(content.messageText());
+		if (fucks.isEmpty()) {
 			return MessageModificationStatus.NOT_MODIFIED;
 		}
+		String processed = replaceFucks(content.messageText().toString(), fucks);
+		content.messageText().setLength(0);
+		content.messageText().append(processed);
+		return MessageModificationStatus.MODIFIED;
 	}
 
 	private static String processHug(String originalText) {
@@ -40,17 +37,37 @@ public class HugFilter implements MessageFilter {
 				copyCase(originalText, 3, 'g');
 	}
 
-	private static String replaceFucks(String str) {
-		return FUCKER.matcher(str).replaceAll(matchResult -> {
-			String theFuck = matchResult.group(1);
-			String suffix = Objects.requireNonNullElse(matchResult.group(2), "");
+	private static String replaceFucks(String str, List<KeywordScanner.Match> fucks) {
+		StringBuilder sb = new StringBuilder(str.length());
+		int copied = 0;
+		for (KeywordScanner.Match match : fucks) {
+			if (match.start() < copied) {
+				continue;
+			}
+			String theFuck = str.substring(match.start(), match.end());
+			String suffix = str.substring(match.end(), suffixEnd(str, match.end()));
 			String processedSuffix = switch (suffix.toLowerCase()) {
 				case "er", "ed", "ing" -> copyCase(suffix, 0, 'g') + suffix; // fucking, fucker, fucked
 				case "" -> ""; // just fuck
 				default -> copyCase(suffix, "g".repeat(suffix.length())); // fuckkkkk...
 			};
-			return processHug(theFuck) + processedSuffix;
-		});
+			sb.append(str, copied, match.start()).append(processHug(theFuck)).append(processedSuffix);
+			copied = match.end() + suffix.length();
+		}
+		return sb.append(str, copied, str.length()).toString();
+	}
+
+	private static int suffixEnd(String str, int start) {
+		for (String suffix : SUFFIXES) {
+			if (str.regionMatches(true, start, suffix, 0, suffix.length())) {
+				return start + suffix.length();
+			}
+		}
+		int end = start;
+		while (end < str.length() && Character.toLowerCase(str.charAt(end)) == 'k') {
+			end++;
+		}
+		return end;
 	}
 
 	private static String copyCase(String source, String toChange) {
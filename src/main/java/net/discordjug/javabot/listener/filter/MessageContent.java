@@ -1,5 +1,6 @@
 package net.discordjug.javabot.listener.filter;
 
+import net.discordjug.javabot.listener.analysis.MessageAnalysis;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
@@ -12,9 +13,11 @@ import java.util.List;
  * @param messageText 	The text associated with the message
  * @param attachments 	The attachments associated with the message
  * @param embeds 		The embeds associated with the message
+ * @param analysis 	The analysis of the original message shared with other listeners
  */
 public record MessageContent(MessageReceivedEvent event,
 							StringBuilder messageText,
 							List<Message.Attachment> attachments,
-							List<MessageEmbed> embeds) {
+							List<MessageEmbed> embeds,
+							MessageAnalysis analysis) {
 }
@@ -33,4 +33,14 @@ public interface MessageFilter extends Ordered {
 	default int getOrder() {
 		return 0;
 	}
+
+	/**
+	 * Whether this filter enforces rules of the server.
+	 * Enforcing filters still process messages other filters failed to process, and their own failures are reported to staff members.
+	 *
+	 * @return {@code true} if this filter is related to moderation, else {@code false}.
+	 */
+	default boolean isEnforcing() {
+		return false;
+	}
 }
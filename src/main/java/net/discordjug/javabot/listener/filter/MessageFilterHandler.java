@@ -1,18 +1,41 @@
 package net.discordjug.javabot.listener.filter;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.discordjug.javabot.data.config.SystemsConfig;
+import net.discordjug.javabot.listener.analysis.MessageAnalysis;
+import net.discordjug.javabot.listener.analysis.MessageAnalyzer;
 import net.discordjug.javabot.systems.moderation.AutoMod;
+import net.discordjug.javabot.systems.notification.NotificationService;
 import net.discordjug.javabot.util.ExceptionLogger;
+import net.discordjug.javabot.util.LatencyHistogram;
+import net.discordjug.javabot.util.Responses;
 import net.discordjug.javabot.util.WebhookUtil;
+import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.attribute.IWebhookContainer;
 import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildChannel;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import jakarta.annotation.PreDestroy;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This class is responsible for calling {@link MessageFilter}s on incoming messages and optionally replacing the message.
@@ -21,39 +44,120 @@ import java.util.List;
  * These filters are able to act on the message and modify message contents using the {@link MessageContent} record.
  * Modifications to the message are performed after all filters are executed by deleting the original message and re-sending a modified message.
  *
+ * Filters are executed on virtual threads instead of the JDA event thread, so slow filters don't delay other listeners.
+ * Messages sent in the same channel are still processed one after another in the order they have been received.
+ * Each filter has {@link SystemsConfig#getMessageFilterTimeoutMillis()} to process a message. If it takes longer or fails,
+ * it is interrupted and the message is not replaced. As a filter ignoring the interrupt may keep running, every filter works on its own copy
+ * of the {@link MessageContent}, which only replaces the content once the filter finished. The remaining {@link MessageFilter#isEnforcing() enforcing} filters
+ * still process the message, and failures of enforcing filters are reported in the moderation log,
+ * so a slow or failing filter never lets a message skip moderation silently.
+ *
  * Message filters are Spring components implementing the {@link MessageFilter} interface.
  */
-@RequiredArgsConstructor
+@Slf4j
 public class MessageFilterHandler extends ListenerAdapter {
 
 	private final List<MessageFilter> filters;
 	private final AutoMod autoMod;
+	private final MessageAnalyzer messageAnalyzer;
+	private final NotificationService notificationService;
+	private final long filterTimeoutMillis;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	/**
+	 * The last message processing task of each channel, which the next message of the channel waits for.
+	 */
+	private final Map<Long, CompletableFuture<Void>> channelTasks = new ConcurrentHashMap<>();
+	private final Map<MessageFilter, LatencyHistogram> latencies;
+
+	/**
+	 * Creates the handler.
+	 *
+	 * @param filters All message filters
+	 * @param autoMod {@link AutoMod} for skipping messages that are handled by it
+	 * @param messageAnalyzer Provides the analysis of messages shared with other listeners
+	 * @param notificationService Used for reporting failures of enforcing filters in the moderation log
+	 * @param systemsConfig Configuration containing the deadline of filters
+	 */
+	public MessageFilterHandler(List<MessageFilter> filters, AutoMod autoMod, MessageAnalyzer messageAnalyzer,
+			NotificationService notificationService, SystemsConfig systemsConfig) {
+		this.filters = filters.stream().sorted(Comparator.comparingInt(MessageFilter::getOrder)).toList();
+		this.autoMod = autoMod;
+		this.messageAnalyzer = messageAnalyzer;
+		this.notificationService = notificationService;
+		this.filterTimeoutMillis = systemsConfig.getMessageFilterTimeoutMillis();
+		Map<MessageFilter, LatencyHistogram> histograms = new IdentityHashMap<>();
+		for (MessageFilter filter : this.filters) {
+			histograms.put(filter, new LatencyHistogram());
+		}
+		this.latencies = Collections.unmodifiableMap(histograms);
+	}
 
 	@Override
 	public void onMessageReceived(@NotNull MessageReceivedEvent event) {
 		if (!shouldRunFilters(event)) {
 			return;
 		}
+		MessageAnalysis analysis = messageAnalyzer.analyze(event.getMessage());
+		if (autoMod.hasSuspiciousLink(analysis) ||
+				autoMod.hasAdvertisingLink(analysis)) {
+			return;
+		}
 
 		MessageContent content = new MessageContent(
 				event,
 				new StringBuilder(event.getMessage().getContentRaw()),
 				new ArrayList<>(event.getMessage().getAttachments()),
-				new ArrayList<>(event.getMessage().getEmbeds())
+				new ArrayList<>(event.getMessage().getEmbeds()),
+				analysis
 		);
+		submit(event.getChannel().getIdLong(), content);
+	}
 
-		boolean handled = false;
+	/**
+	 * Processes a message after all previously submitted messages of the same channel have been processed.
+	 *
+	 * @param channelId The id of the channel the message was sent in.
+	 * @param content The content of the message.
+	 * @return A {@link CompletableFuture} completing when the message has been processed.
+	 */
+	CompletableFuture<Void> submit(long channelId, MessageContent content) {
+		// failures of previous messages are already logged and must not prevent processing this message
+		CompletableFuture<Void> task = channelTasks.compute(channelId, (_, previous) ->
+				(previous == null ? CompletableFuture.<Void>completedFuture(null) : previous.exceptionally(_ -> null))
+					.thenRunAsync(() -> processMessage(content), executor));
+		task.whenComplete((_, e) -> {
+			channelTasks.remove(channelId, task);
+			if (e != null) {
+				ExceptionLogger.capture(e, getClass().getSimpleName());
+			}
+		});
+		return task;
+	}
+
+	/**
+	 * Stops processing messages, waiting for messages that are currently processed.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		executor.close();
+	}
 
+	/**
+	 * Gets the latencies of all message filters.
+	 *
+	 * @return A snapshot of the latencies of each filter, keyed by the name of the filter, in the order the filters are executed.
+	 */
+	public Map<String, LatencyHistogram.Snapshot> getFilterLatencies() {
+		Map<String, LatencyHistogram.Snapshot> snapshots = new LinkedHashMap<>();
 		for (MessageFilter filter : filters) {
-			MessageModificationStatus status = filter.processMessage(content);
-			if (status == MessageModificationStatus.MODIFIED) {
-				handled = true;
-			} else if (status == MessageModificationStatus.STOP_PROCESSING) {
-				return;
-			}
+			snapshots.put(filter.getClass().getSimpleName(), latencies.get(filter).snapshot());
 		}
+		return snapshots;
+	}
 
-		if (handled) {
+	private void processMessage(MessageContent content) {
+		if (applyFilters(content)) {
+			MessageReceivedEvent event = content.event();
 			IWebhookContainer webhookContainer = null;
 			long threadId = 0;
 			if (event.isFromType(ChannelType.TEXT)) {
@@ -74,6 +178,103 @@ public class MessageFilterHandler extends ListenerAdapter {
 		}
 	}
 
+	/**
+	 * Runs all filters on a message in their order.
+	 * After a filter failed, only {@link MessageFilter#isEnforcing() enforcing} filters are executed.
+	 *
+	 * @param content The content of the message.
+	 * @return {@code true} if the message should be replaced with the modified content, else {@code false}.
+	 */
+	boolean applyFilters(MessageContent content) {
+		boolean handled = false;
+		boolean failed = false;
+
+		for (MessageFilter filter : filters) {
+			if (failed && !filter.isEnforcing()) {
+				continue;
+			}
+			MessageModificationStatus status = runFilter(filter, content);
+			if (status == null) {
+				failed = true;
+				if (filter.isEnforcing()) {
+					reportFailure(filter, content);
+				}
+			} else if (status == MessageModificationStatus.MODIFIED) {
+				handled = true;
+			} else if (status == MessageModificationStatus.STOP_PROCESSING) {
+				return false;
+			}
+		}
+		return handled && !failed;
+	}
+
+	/**
+	 * Runs a single filter on its own virtual thread, waiting at most for the deadline of filters.
+	 * The filter processes a copy of the content, which is only applied to the content if the filter finished.
+	 *
+	 * @param filter The filter to run.
+	 * @param content The content of the message.
+	 * @return The status returned by the filter or {@code null} if it failed or missed the deadline.
+	 */
+	private @Nullable MessageModificationStatus runFilter(MessageFilter filter, MessageContent content) {
+		long start = System.nanoTime();
+		MessageContent copy = copyContent(content);
+		Future<MessageModificationStatus> result = executor.submit(() -> filter.processMessage(copy));
+		try {
+			MessageModificationStatus status = result.get(filterTimeoutMillis, TimeUnit.MILLISECONDS);
+			applyContent(copy, content);
+			return status;
+		} catch (TimeoutException e) {
+			result.cancel(true);
+			log.warn("Message filter {} exceeded its deadline of {}ms while processing message {}",
+					filter.getClass().getSimpleName(), filterTimeoutMillis, content.event().getMessageIdLong());
+			return null;
+		} catch (ExecutionException e) {
+			ExceptionLogger.capture(e.getCause(), filter.getClass().getSimpleName());
+			return null;
+		} catch (InterruptedException e) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			latencies.get(filter).record(System.nanoTime() - start);
+		}
+	}
+
+	private static MessageContent copyContent(MessageContent content) {
+		return new MessageContent(
+				content.event(),
+				new StringBuilder(content.messageText()),
+				new ArrayList<>(content.attachments()),
+				new ArrayList<>(content.embeds()),
+				content.analysis()
+		);
+	}
+
+	private static void applyContent(MessageContent source, MessageContent target) {
+		target.messageText().setLength(0);
+		target.messageText().append(source.messageText());
+		target.attachments().clear();
+		target.attachments().addAll(source.attachments());
+		target.embeds().clear();
+		target.embeds().addAll(source.embeds());
+	}
+
+	/**
+	 * Reports that an enforcing filter could not check a message, so staff members can check it instead.
+	 */
+	private void reportFailure(MessageFilter filter, MessageContent content) {
+		MessageReceivedEvent event = content.event();
+		EmbedBuilder embed = new EmbedBuilder()
+				.setTitle("Message filter failed")
+				.setColor(Responses.Type.WARN.getColor())
+				.setAuthor(event.getAuthor().getName(), null, event.getAuthor().getEffectiveAvatarUrl())
+				.setDescription("The message " + event.getMessage().getJumpUrl() + " by " + event.getAuthor().getAsMention() +
+						" could not be checked by " + filter.getClass().getSimpleName() + ", please check it manually.")
+				.setFooter(event.getAuthor().getId());
+		notificationService.withGuild(event.getGuild()).sendToModerationLog(channel -> channel.sendMessageEmbeds(embed.build()));
+	}
+
 	private boolean shouldRunFilters(@NotNull MessageReceivedEvent event) {
 		if (event.isWebhookMessage()) {
 			return false;
@@ -84,10 +285,6 @@ public class MessageFilterHandler extends ListenerAdapter {
 		if (event.getAuthor().isBot() || event.getAuthor().isSystem()) {
 			return false;
 		}
-		if (autoMod.hasSuspiciousLink(event.getMessage()) ||
-				autoMod.hasAdvertisingLink(event.getMessage())) {
-			return false;
-		}
 		return true;
 	}
 
@@ -1,16 +1,9 @@
 package net.discordjug.javabot.listener.filter;
 
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
-import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
@@ -21,10 +14,8 @@ import net.discordjug.javabot.data.config.guild.ModerationConfig;
 import net.discordjug.javabot.data.h2db.message_cache.MessageCache;
 import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
 import net.discordjug.javabot.util.Checks;
-import net.discordjug.javabot.util.ExceptionLogger;
 import net.discordjug.javabot.util.GsonUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.Message.Attachment;
 import net.dv8tion.jda.api.entities.Message;
 import org.springframework.stereotype.Component;
 
@@ -38,19 +29,22 @@ public class MessageRuleFilter implements MessageFilter {
 
 	private final BotConfig botConfig;
 	private final MessageCache messageCache;
+	private final AttachmentHashCache attachmentHashCache;
+	/**
+	 * The compiled message rules of each guild, which are compiled again when the rules change.
+	 */
+	private final Map<Long, CompiledMessageRules> compiledRules = new ConcurrentHashMap<>();
 
 	@Override
 	public MessageModificationStatus processMessage(MessageContent content) {
 
-		ModerationConfig moderationConfig = botConfig.get(content.event().getGuild()).getModerationConfig();
-		List<MessageRule> messageRules = moderationConfig.getMessageRules();
+		ModerationConfig moderationConfig = content.analysis().getGuildConfig().getModerationConfig();
+		CompiledMessageRules rules = getCompiledRules(content.event().getGuild().getIdLong(), moderationConfig.getMessageRules());
 
 		MessageRule ruleToExecute = null;
-		for (MessageRule rule : messageRules) {
-			if (matches(content, rule)) {
-				if (ruleToExecute == null || rule.getAction() == MessageAction.BLOCK) {
-					ruleToExecute = rule;
-				}
+		for (MessageRule rule : rules.findMatchingRules(content.messageText(), content.attachments(), attachmentHashCache::getSHA)) {
+			if (ruleToExecute == null || rule.getAction() == MessageAction.BLOCK) {
+				ruleToExecute = rule;
 			}
 		}
 		MessageModificationStatus status = MessageModificationStatus.NOT_MODIFIED;
@@ -82,50 +76,28 @@ public class MessageRuleFilter implements MessageFilter {
 		moderationConfig.getLogChannel().sendMessageEmbeds(embed.build()).queue();
 	}
 
-	private boolean matches(MessageContent content, MessageRule rule) {
-		if (rule.getMessageRegex() != null && !rule.getMessageRegex().matcher(content.messageText()).matches()) {
-			return false;
+	private CompiledMessageRules getCompiledRules(long guildId, List<MessageRule> messageRules) {
+		CompiledMessageRules compiled = compiledRules.get(guildId);
+		if (compiled == null || !compiled.isCompiledFrom(messageRules)) {
+			compiled = CompiledMessageRules.compile(messageRules);
+			compiledRules.put(guildId, compiled);
 		}
-		if (content.attachments().size() > rule.getMaxAttachments()) {
-			return false;
-		}
-		if (content.attachments().size() < rule.getMinAttachments()) {
-			return false;
-		}
-		boolean matchesSHA = rule.getAttachmentSHAs().isEmpty();
-		for (Attachment attachment : content.attachments()) {
-			if (rule.getAttachmentNameRegex() != null && !rule.getAttachmentNameRegex().matcher(attachment.getFileName()).matches()) {
-				return false;
-			}
-			if (!matchesSHA) {
-				if (rule.getAttachmentSHAs().contains(computeSHA(attachment))) {
-					matchesSHA = true;
-				}
-			}
-		}
-		return matchesSHA;
+		return compiled;
 	}
 
 	private String computeAttachmentDescription(List<Message.Attachment> attachments) {
 		return attachments.stream()
-				.map(attachment -> "- " + attachment.getUrl() + ": `" + computeSHA(attachment) + "`")
+				.map(attachment -> "- " + attachment.getUrl() + ": `" + attachmentHashCache.getSHA(attachment) + "`")
 				.collect(Collectors.joining("\n"));
 	}
 	
-	private String computeSHA(Attachment attachment) {
-		try {
-			HttpResponse<byte[]> res = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(attachment.getProxyUrl())).build(), BodyHandlers.ofByteArray());
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] hash = digest.digest(res.body());
-			return Base64.getEncoder().encodeToString(hash);
-		} catch (IOException | InterruptedException | NoSuchAlgorithmException e) {
-			ExceptionLogger.capture(e);
-			return "";
-		}
-	}
-	
 	@Override
 	public int getOrder() {
 		return -100;//automod should run early
 	}
+
+	@Override
+	public boolean isEnforcing() {
+		return true;
+	}
 }
@@ -0,0 +1,310 @@
+package net.discordjug.javabot.listener.filter;
+
+import java.util.regex.Pattern;
+
+/**
+ * Translates {@link Pattern}s to re2j syntax with the same meaning.
+ * <p>
+ * re2j accepts most patterns of {@link Pattern} but interprets some of them differently without any error,
+ * e.g. {@code [a-z&&[^x]]} is not an intersection, {@code (?U)} means ungreedy instead of Unicode character classes,
+ * {@code \v} is a single character instead of any vertical whitespace, {@code .} and {@code \s} match other characters
+ * and {@code (?i)} uses Unicode instead of ASCII case folding.
+ * Therefore, only a conservative subset of the syntax is accepted, which is rewritten so re2j matches the same strings
+ * as {@link Pattern#matcher(CharSequence) matching} the whole input with {@link Pattern}.
+ * Patterns using anything else are not translated.
+ */
+final class Re2jTranslator {
+	private static final int SUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL;
+	/**
+	 * The characters {@link Pattern} considers line terminators, which {@code .} doesn't match without {@link Pattern#DOTALL}.
+	 */
+	private static final String LINE_TERMINATORS = "\\n\\r\\x{85}\\x{2028}\\x{2029}";
+	/**
+	 * The characters matched by {@code \s}, which is {@code [ \t\n\x0B\f\r]}.
+	 */
+	private static final String WHITESPACE = "\\t-\\r ";
+	/**
+	 * Returned instead of a character if an escape sequence in a character class has already been appended as a class.
+	 */
+	private static final int CLASS_APPENDED = -1;
+	/**
+	 * Returned instead of a character if an escape sequence is not translated.
+	 */
+	private static final int UNSUPPORTED = -2;
+
+	private final String pattern;
+	private final boolean caseInsensitive;
+	private final boolean multiline;
+	private final boolean dotAll;
+	private final StringBuilder result = new StringBuilder();
+	private int pos = 0;
+
+	private Re2jTranslator(Pattern pattern) {
+		this.pattern = pattern.pattern();
+		this.caseInsensitive = (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0;
+		this.multiline = (pattern.flags() & Pattern.MULTILINE) != 0;
+		this.dotAll = (pattern.flags() & Pattern.DOTALL) != 0;
+	}
+
+	/**
+	 * Translates a {@link Pattern} to re2j syntax, including its flags.
+	 *
+	 * @param pattern The pattern to translate.
+	 * @return The re2j regex or {@code null} if the pattern uses syntax or flags that are not translated.
+	 */
+	static String translate(Pattern pattern) {
+		if ((pattern.flags() & ~SUPPORTED_FLAGS) != 0) {
+			return null;
+		}
+		Re2jTranslator translator = new Re2jTranslator(pattern);
+		while (translator.pos < translator.pattern.length()) {
+			if (!translator.translateNext()) {
+				return null;
+			}
+		}
+		return translator.result.toString();
+	}
+
+	private boolean translateNext() {
+		int c = next();
+		switch (c) {
+			case '\\' -> {
+				return translateEscape();
+			}
+			case '[' -> {
+				return translateClass();
+			}
+			case '{' -> {
+				return translateRepetition();
+			}
+			case '*', '+', '?' -> {
+				result.append((char) c);
+				return translateQuantifierMode();
+			}
+			case '(' -> {
+				if (peek() != '?') {
+					result.append('(');
+				} else if (pattern.startsWith("?:", pos)) {
+					pos += 2;
+					result.append("(?:");
+				} else {
+					// lookarounds, named groups and inline flags
+					return false;
+				}
+			}
+			case ')', '|' -> result.append((char) c);
+			case '.' -> result.append(dotAll ? "(?s:.)" : "[^" + LINE_TERMINATORS + "]");
+			case '^' -> {
+				if (multiline) {
+					return false;
+				}
+				result.append('^');
+			}
+			case '$' -> {
+				// when matching the whole input, a trailing $ can't match before a final line terminator
+				if (multiline || pos != pattern.length()) {
+					return false;
+				}
+				result.append('$');
+			}
+			default -> appendLiteral(c);
+		}
+		return true;
+	}
+
+	private boolean translateEscape() {
+		if (pos >= pattern.length()) {
+			return false;
+		}
+		int c = next();
+		switch (c) {
+			case 'd', 'D', 'w', 'W', 'b', 'B', 'A', 'z', 't', 'n', 'r', 'f' -> result.append('\\').append((char) c);
+			case 's' -> result.append('[').append(WHITESPACE).append(']');
+			case 'S' -> result.append("[^").append(WHITESPACE).append(']');
+			default -> {
+				if (Character.isLetterOrDigit(c)) {
+					// other classes, back references, quotes and character codes
+					return false;
+				}
+				appendLiteral(c);
+			}
+		}
+		return true;
+	}
+
+	private boolean translateRepetition() {
+		int end = pattern.indexOf('}', pos);
+		if (end < 0 || !pattern.substring(pos, end).matches("\\d+(,\\d*)?")) {
+			return false;
+		}
+		result.append(pattern, pos - 1, end + 1);
+		pos = end + 1;
+		return translateQuantifierMode();
+	}
+
+	/**
+	 * Translates the suffix of a quantifier, accepting reluctant but not possessive quantifiers.
+	 */
+	private boolean translateQuantifierMode() {
+		if (peek() == '+') {
+			return false;
+		}
+		if (peek() == '?') {
+			result.append('?');
+			pos++;
+		}
+		return true;
+	}
+
+	private boolean translateClass() {
+		StringBuilder items = new StringBuilder();
+		boolean negated = peek() == '^';
+		if (negated) {
+			pos++;
+		}
+		if (peek() == ']') {
+			return false;
+		}
+		while (pos < pattern.length()) {
+			int c = next();
+			if (c == ']') {
+				result.append(negated ? "[^" : "[").append(items).append(']');
+				return true;
+			}
+			if (c == '[' || (c == '&' && peek() == '&')) {
+				// unions and intersections
+				return false;
+			}
+			if (c == '\\') {
+				c = translateClassEscape(items);
+				if (c == CLASS_APPENDED) {
+					continue;
+				}
+				if (c == UNSUPPORTED) {
+					return false;
+				}
+			}
+			if (!translateClassRange(items, c)) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Translates an escape sequence in a character class.
+	 *
+	 * @return The escaped character, {@link #CLASS_APPENDED} if it stands for a class that has been appended to the items
+	 * or {@link #UNSUPPORTED} if the escape sequence is not translated.
+	 */
+	private int translateClassEscape(StringBuilder items) {
+		if (pos >= pattern.length()) {
+			return UNSUPPORTED;
+		}
+		int c = next();
+		switch (c) {
+			case 'd', 'D', 'w', 'W' -> {
+				items.append('\\').append((char) c);
+				return CLASS_APPENDED;
+			}
+			case 's' -> {
+				items.append(WHITESPACE);
+				return CLASS_APPENDED;
+			}
+			default -> {
+				return toEscapedCharacter(c);
+			}
+		}
+	}
+
+	private boolean translateClassRange(StringBuilder items, int low) {
+		if (peek() != '-' || pos + 1 >= pattern.length() || pattern.charAt(pos + 1) == ']') {
+			appendClassRange(items, low, low);
+			return true;
+		}
+		pos++;
+		int high = next();
+		if (high == '[') {
+			return false;
+		}
+		if (high == '\\') {
+			if (pos >= pattern.length()) {
+				return false;
+			}
+			high = toEscapedCharacter(next());
+			if (high == UNSUPPORTED) {
+				return false;
+			}
+		}
+		appendClassRange(items, low, high);
+		return true;
+	}
+
+	/**
+	 * Gets the character an escape sequence in a character class stands for.
+	 *
+	 * @return The character or {@link #UNSUPPORTED} if the escape sequence is not translated.
+	 */
+	private static int toEscapedCharacter(int c) {
+		return switch (c) {
+			case 't' -> '\t';
+			case 'n' -> '\n';
+			case 'r' -> '\r';
+			case 'f' -> '\f';
+			default -> Character.isLetterOrDigit(c) ? UNSUPPORTED : c;
+		};
+	}
+
+	private void appendClassRange(StringBuilder items, int low, int high) {
+		appendClassCharacters(items, low, high);
+		if (caseInsensitive) {
+			// Pattern only folds the case of ASCII letters without UNICODE_CASE
+			int lowercaseLow = Math.max(low, 'a');
+			int lowercaseHigh = Math.min(high, 'z');
+			if (lowercaseLow <= lowercaseHigh) {
+				appendClassCharacters(items, Character.toUpperCase(lowercaseLow), Character.toUpperCase(lowercaseHigh));
+			}
+			int uppercaseLow = Math.max(low, 'A');
+			int uppercaseHigh = Math.min(high, 'Z');
+			if (uppercaseLow <= uppercaseHigh) {
+				appendClassCharacters(items, Character.toLowerCase(uppercaseLow), Character.toLowerCase(uppercaseHigh));
+			}
+		}
+	}
+
+	private static void appendClassCharacters(StringBuilder items, int low, int high) {
+		appendEscaped(items, low);
+		if (high != low) {
+			items.append('-');
+			appendEscaped(items, high);
+		}
+	}
+
+	private void appendLiteral(int c) {
+		if (caseInsensitive && c < 128 && Character.isLetter(c)) {
+			result.append('[').append((char) Character.toLowerCase(c)).append((char) Character.toUpperCase(c)).append(']');
+		} else {
+			appendEscaped(result, c);
+		}
+	}
+
+	private static void appendEscaped(StringBuilder builder, int c) {
+		if (c < ' ' || c == 0x7F) {
+			builder.append("\\x{").append(Integer.toHexString(c)).append('}');
+		} else if (c < 128 && c != ' ' && !Character.isLetterOrDigit(c)) {
+			builder.append('\\').append((char) c);
+		} else {
+			builder.appendCodePoint(c);
+		}
+	}
+
+	private int next() {
+		int c = pattern.codePointAt(pos);
+		pos += Character.charCount(c);
+		return c;
+	}
+
+	private int peek() {
+		return pos < pattern.length() ? pattern.charAt(pos) : -1;
+	}
+}
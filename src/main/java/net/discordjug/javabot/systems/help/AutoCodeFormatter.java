@@ -2,6 +2,8 @@ package net.discordjug.javabot.systems.help;
 
 import lombok.RequiredArgsConstructor;
 import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.listener.analysis.MessageAnalysis;
+import net.discordjug.javabot.listener.analysis.MessageAnalyzer;
 import net.discordjug.javabot.systems.moderation.AutoMod;
 import net.discordjug.javabot.systems.user_preferences.UserPreferenceService;
 import net.discordjug.javabot.systems.user_preferences.model.Preference;
@@ -35,6 +37,7 @@ public class AutoCodeFormatter {
 	private final AutoMod autoMod;
 	private final BotConfig botConfig;
 	private final UserPreferenceService preferenceService;
+	private final MessageAnalyzer messageAnalyzer;
 
 
 	/**
@@ -82,8 +85,9 @@ public class AutoCodeFormatter {
 				.isSystem()) {
 			return;
 		}
-		if (autoMod.hasSuspiciousLink(event.getMessage()) ||
-				autoMod.hasAdvertisingLink(event.getMessage())) {
+		MessageAnalysis analysis = messageAnalyzer.analyze(event.getMessage());
+		if (autoMod.hasSuspiciousLink(analysis) ||
+				autoMod.hasAdvertisingLink(analysis)) {
 			return;
 		}
 		if (event.isWebhookMessage()) {
@@ -95,7 +99,7 @@ public class AutoCodeFormatter {
 		if (event.getChannel()
 				.asThreadChannel()
 				.getParentChannel()
-				.getIdLong() != botConfig.get(event.getGuild())
+				.getIdLong() != analysis.getGuildConfig()
 				.getHelpConfig()
 				.getHelpForumChannelId()) {
 			return;
@@ -106,7 +110,7 @@ public class AutoCodeFormatter {
 		}
 
 
-		if (event.getMessage().getContentRaw().contains("`")) {
+		if (analysis.containsCodeMarkers()) {
 			return; // exit if already contains codeblock
 		}
 
@@ -115,9 +119,7 @@ public class AutoCodeFormatter {
 			return;
 		}
 
-		if (isFirstMessage || !event.getMessage().getMentions().getUsers().isEmpty() ||
-				!event.getMessage().getMentions().getRoles().isEmpty() ||
-				event.getMessage().getMentions().mentionsEveryone()) {
+		if (isFirstMessage || analysis.mentionsAnyone()) {
 			sendFormatHint(event);
 		} else {
 			replaceUnformattedCode(event.getMessage()
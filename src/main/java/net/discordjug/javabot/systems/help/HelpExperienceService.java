@@ -20,11 +20,18 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service class that handles Help Experience Transactions.
@@ -36,6 +43,7 @@ public class HelpExperienceService {
 	private final BotConfig botConfig;
 	private final HelpAccountRepository helpAccountRepository;
 	private final HelpTransactionRepository helpTransactionRepository;
+	private final HelpPostActivity helpPostActivity;
 
 	/**
 	 * Creates a new Help Account if none exists.
@@ -86,21 +94,53 @@ public class HelpExperienceService {
 	 */
 	@Transactional
 	public void performTransaction(long recipient, double value, Guild guild, long channelId) throws DataAccessException {
-		if (value == 0) {
+		performTransactions(List.of(createTransaction(recipient, value, channelId)), guild);
+	}
+
+	/**
+	 * Performs multiple transactions at once, using a single batch for updating the accounts and another one for storing the transactions.
+	 * Accounts that don't exist yet are created.
+	 *
+	 * @param transactions The transactions, containing the recipient, value, type and channel of each transaction.
+	 * @param guild        The current guild.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	@Transactional
+	public void performTransactions(Collection<HelpTransaction> transactions, Guild guild) throws DataAccessException {
+		List<HelpTransaction> valid = transactions.stream()
+				.filter(transaction -> transaction.getWeight() != 0)
+				.toList();
+		if (valid.size() < transactions.size()) {
 			log.error("Cannot make zero-value transactions");
+		}
+		if (valid.isEmpty()) {
 			return;
 		}
+		Map<Long, Double> changes = valid.stream()
+				.collect(Collectors.toMap(HelpTransaction::getRecipient, HelpTransaction::getWeight, Double::sum, LinkedHashMap::new));
+		helpAccountRepository.addExperience(changes);
+		helpTransactionRepository.saveAll(valid);
+		for (HelpAccount account : helpAccountRepository.getByUserIds(changes.keySet())) {
+			checkExperienceRoles(guild, account);
+		}
+		changes.forEach((recipient, value) -> log.info("Added {} help experience to {}'s help account", value, recipient));
+		ImageCache.removeCachedImagesByKeyword(ExperienceLeaderboardSubcommand.CACHE_PREFIX);
+	}
+
+	/**
+	 * Creates a transaction that can be passed to {@link #performTransactions(Collection, Guild)}.
+	 *
+	 * @param recipient The recipient's user id.
+	 * @param value     The transaction's value.
+	 * @param channelId The ID of the channel the transaction should be performed in
+	 * @return The created {@link HelpTransaction}.
+	 */
+	public static HelpTransaction createTransaction(long recipient, double value, long channelId) {
 		HelpTransaction transaction = new HelpTransaction();
 		transaction.setRecipient(recipient);
 		transaction.setWeight(value);
 		transaction.setChannelId(channelId);
-		HelpAccount account = getOrCreateAccount(recipient);
-		account.updateExperience(value);
-		helpAccountRepository.update(account);
-		helpTransactionRepository.save(transaction);
-		checkExperienceRoles(guild, account);
-		log.info("Added {} help experience to {}'s help account", value, recipient);
-		ImageCache.removeCachedImagesByKeyword(ExperienceLeaderboardSubcommand.CACHE_PREFIX);
+		return transaction;
 	}
 
 	private void checkExperienceRoles(@NotNull Guild guild, @NotNull HelpAccount account) {
@@ -125,17 +165,25 @@ public class HelpExperienceService {
 	 * @param post The {@link ThreadChannel} post
 	 * @param allowIfXPAlreadyGiven {@code true} if XP should be awarded if XP have already been awarded
 	 */
+	@Transactional
 	public void addMessageBasedHelpXP(ThreadChannel post, boolean allowIfXPAlreadyGiven) {
 		HelpConfig config = botConfig.get(post.getGuild()).getHelpConfig();
 		try {
-			Map<Long, Double> experience = HelpManager.calculateExperience(HelpListener.HELP_POST_MESSAGES.get(post.getIdLong()), post.getOwnerIdLong(), config);
+			Map<Long, Double> experience = HelpManager.calculateExperience(helpPostActivity.getActivity(post.getIdLong()), post.getOwnerIdLong(), config);
+			Set<Long> alreadyRewarded = allowIfXPAlreadyGiven ? Set.of() : helpTransactionRepository.getRecipientsInChannel(post.getIdLong());
+			List<HelpTransaction> transactions = new ArrayList<>();
 			for (Map.Entry<Long, Double> entry : experience.entrySet()) {
-				if(entry.getValue()>0 && (allowIfXPAlreadyGiven||!helpTransactionRepository.existsTransactionWithRecipientInChannel(entry.getKey(), post.getIdLong()))) {
-					performTransaction(entry.getKey(), entry.getValue(), config.getGuild(), post.getIdLong());
+				if(entry.getValue()>0 && !alreadyRewarded.contains(entry.getKey())) {
+					transactions.add(createTransaction(entry.getKey(), entry.getValue(), post.getIdLong()));
 				}
 			}
+			performTransactions(transactions, config.getGuild());
 		} catch (DataAccessException e) {
 			ExceptionLogger.capture(e, getClass().getName());
+			// the exception doesn't reach the transaction proxy, so no experience is awarded if only a part could be stored
+			if (TransactionSynchronizationManager.isActualTransactionActive()) {
+				TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+			}
 		}
 	}
 }
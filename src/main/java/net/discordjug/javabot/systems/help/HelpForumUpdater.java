@@ -20,9 +20,20 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Loops through all guilds and updates the corresponding help forum channel, closing inactive ones.
+ * Closes help forum posts once they have been inactive for too long.
+ * <p>
+ * The time of the latest message of each open post is reported by the {@link HelpListener}, from which the time the post expires is scheduled
+ * in a {@link PostDeadlineQueue}. A single task is scheduled for the earliest deadline, so posts are closed right when they expire
+ * and no requests to Discord are needed for posts that are still active. Posts are forgotten as soon as they are archived,
+ * including their {@link HelpPostActivity}, so help experience must be awarded before a post is archived.
+ * Posts whose latest message is unknown, e.g. after a restart, are looked up periodically.
  */
 @Slf4j
 @Service
@@ -32,20 +43,30 @@ public class HelpForumUpdater {
 	private final BotConfig botConfig;
 	private final UserPreferenceService preferenceService;
 	private final HelpExperienceService experienceService;
+	private final HelpPostActivity helpPostActivity;
+	private final ScheduledExecutorService asyncPool;
 
+	private final PostDeadlineQueue deadlines = new PostDeadlineQueue();
 	/**
-	 * Updates all help channels.
+	 * The latest message of each post with a scheduled deadline.
+	 */
+	private final Map<Long, LatestMessage> latestMessages = new ConcurrentHashMap<>();
+	private ScheduledFuture<?> timer;
+	private long timerDeadline = Long.MAX_VALUE;
+
+	/**
+	 * Looks up the latest message of all open posts whose latest message is not known yet, e.g. because the bot has just been started.
 	 */
 	@Scheduled(cron = "0 */10 * * * *") // Run every 10 minutes
 	public void execute() {
 		for (Guild guild : jda.getGuilds()) {
-			log.debug("Checking for inactive forum posts in {}", guild.getName());
+			log.debug("Checking for untracked forum posts in {}", guild.getName());
 			HelpConfig config = botConfig.get(guild).getHelpConfig();
 			ForumChannel forum = config.getHelpForumChannel();
 			if (forum != null) {
 				for (ThreadChannel post : forum.getThreadChannels()) {
-					if (post.isArchived() || post.isLocked()) continue;
-					checkForumPost(post, config);
+					if (post.isArchived() || post.isLocked() || deadlines.contains(post.getIdLong())) continue;
+					retrieveLatestMessage(post);
 				}
 			} else {
 				log.warn("Could not find forum channel for guild {}", guild.getName());
@@ -53,30 +74,107 @@ public class HelpForumUpdater {
 		}
 	}
 
-	private void checkForumPost(@NotNull ThreadChannel post, HelpConfig config) {
+	/**
+	 * Schedules closing a help forum post after a message has been sent in it.
+	 * If the message is a question asking the owner to thank helpers, the post is closed after {@link HelpConfig#getRemoveThanksTimeoutMinutes()}
+	 * and the question is deleted, otherwise after {@link HelpConfig#getInactivityTimeoutMinutes()}.
+	 *
+	 * @param post The post the message has been sent in.
+	 * @param message The message.
+	 */
+	public void onMessage(@NotNull ThreadChannel post, @NotNull Message message) {
+		HelpConfig config = botConfig.get(post.getGuild()).getHelpConfig();
+		long sentAt = message.getTimeCreated().toInstant().toEpochMilli();
+		boolean isThankMessage = isThanksMessage(message);
+		long timeoutMinutes = isThankMessage
+				? Math.min(config.getRemoveThanksTimeoutMinutes(), config.getInactivityTimeoutMinutes())
+				: config.getInactivityTimeoutMinutes();
+		// the deadline is scheduled while holding the lock of the post, so deadlines of older messages never replace newer ones
+		latestMessages.compute(post.getIdLong(), (postId, previous) -> {
+			if (previous != null && previous.sentAt() > sentAt) {
+				return previous;
+			}
+			deadlines.schedule(postId, sentAt + TimeUnit.MINUTES.toMillis(timeoutMinutes));
+			return new LatestMessage(sentAt, isThankMessage ? message.getIdLong() : 0);
+		});
+		scheduleTimer();
+	}
+
+	/**
+	 * Stops tracking a post after it has been closed, so it isn't closed again for inactivity and its latest message
+	 * as well as the activity of its authors are forgotten.
+	 * If the post is reopened, it is tracked again with the next message.
+	 *
+	 * @param postId The id of the closed post.
+	 */
+	public void onPostClosed(long postId) {
+		latestMessages.compute(postId, (_, _) -> {
+			deadlines.remove(postId);
+			return null;
+		});
+		helpPostActivity.remove(postId);
+	}
+
+	private void retrieveLatestMessage(@NotNull ThreadChannel post) {
 		post.getHistory().retrievePast(1).queue(messages -> {
 			if (messages.isEmpty()) {
 				log.error("Could not find messages in forum thread {}", post.getId());
 				return;
 			}
 			// Simply get the first one, as we only requested a singular message
-			Message latest = messages.get(0);
-			long minutesAgo = (Instant.now().getEpochSecond() - latest.getTimeCreated().toEpochSecond()) / 60;
-			boolean isThankMessage = isThanksMessage(latest);
-			if (minutesAgo > config.getInactivityTimeoutMinutes() || minutesAgo > config.getRemoveThanksTimeoutMinutes() && isThankMessage) {
-				if (isThankMessage) {
-					latest.delete().queue();
+			onMessage(post, messages.get(0));
+		}, e -> log.error("Could not find latest message in forum thread {}:", post.getId(), e));
+	}
+
+	/**
+	 * Makes sure a task runs at the earliest deadline, replacing the scheduled task if it would run later.
+	 */
+	private synchronized void scheduleTimer() {
+		long next = deadlines.nextDeadline();
+		if (next == Long.MAX_VALUE || timer != null && timerDeadline <= next) {
+			return;
+		}
+		if (timer != null) {
+			timer.cancel(false);
+		}
+		timerDeadline = next;
+		timer = asyncPool.schedule(this::closeExpiredPosts, Math.max(0, next - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+	}
+
+	private void closeExpiredPosts() {
+		synchronized (this) {
+			timer = null;
+			timerDeadline = Long.MAX_VALUE;
+		}
+		try {
+			for (long postId : deadlines.pollExpired(System.currentTimeMillis())) {
+				LatestMessage latest = latestMessages.get(postId);
+				// skip posts that received a message in the meantime
+				if (latest == null || deadlines.contains(postId) || !latestMessages.remove(postId, latest)) continue;
+				ThreadChannel post = jda.getThreadChannelById(postId);
+				if (post != null && !post.isArchived() && !post.isLocked()) {
+					closeInactivePost(post, latest);
 				}
-				post.sendMessage(config.getDormantChannelMessageTemplate().formatted(config.getInactivityTimeoutMinutes())).queue(s -> {
-					post.getManager().setArchived(true).queue();
-					sendDMDormantInfoIfEnabled(post, config);
-					experienceService.addMessageBasedHelpXP(post, false);
-					log.info("Archived forum thread '{}' (by {}) for inactivity (last message sent {} minutes ago)",
-							post.getName(), post.getOwnerId(), minutesAgo);
-					
-				});
 			}
-		}, e -> log.error("Could not find latest message in forum thread {}:", post.getId(), e));
+		} finally {
+			scheduleTimer();
+		}
+	}
+
+	private void closeInactivePost(@NotNull ThreadChannel post, LatestMessage latest) {
+		HelpConfig config = botConfig.get(post.getGuild()).getHelpConfig();
+		long minutesAgo = (Instant.now().toEpochMilli() - latest.sentAt()) / 60_000;
+		if (latest.thanksMessageId() != 0) {
+			post.deleteMessageById(latest.thanksMessageId()).queue();
+		}
+		post.sendMessage(config.getDormantChannelMessageTemplate().formatted(config.getInactivityTimeoutMinutes())).queue(s -> {
+			// the activity of the post is forgotten once it is archived
+			experienceService.addMessageBasedHelpXP(post, false);
+			post.getManager().setArchived(true).queue();
+			sendDMDormantInfoIfEnabled(post, config);
+			log.info("Archived forum thread '{}' (by {}) for inactivity (last message sent {} minutes ago)",
+					post.getName(), post.getOwnerId(), minutesAgo);
+		});
 	}
 
 	private void sendDMDormantInfoIfEnabled(ThreadChannel post, HelpConfig config) {
@@ -108,4 +206,13 @@ public class HelpForumUpdater {
 		return m.getAuthor().isBot() && !m.getComponents().isEmpty() &&
 				m.getComponents().stream().allMatch(c -> c instanceof Button b && b.getCustomId() != null && b.getCustomId().contains(HelpManager.HELP_THANKS_IDENTIFIER));
 	}
+
+	/**
+	 * The latest message sent in a post.
+	 *
+	 * @param sentAt The creation time of the message in epoch milliseconds.
+	 * @param thanksMessageId The id of the message if it asks the owner to thank helpers, else {@code 0}.
+	 */
+	private record LatestMessage(long sentAt, long thanksMessageId) {
+	}
 }
@@ -5,10 +5,10 @@ import net.discordjug.javabot.annotations.AutoDetectableComponentHandler;
 import net.discordjug.javabot.data.config.BotConfig;
 import net.discordjug.javabot.data.config.guild.HelpConfig;
 import net.discordjug.javabot.data.h2db.DbActions;
-import net.discordjug.javabot.systems.help.dao.HelpAccountRepository;
-import net.discordjug.javabot.systems.help.dao.HelpTransactionRepository;
 import net.discordjug.javabot.systems.user_preferences.UserPreferenceService;
+import net.discordjug.javabot.util.ExceptionLogger;
 import net.discordjug.javabot.util.InteractionUtils;
+import net.discordjug.javabot.util.KeywordScanner;
 import net.discordjug.javabot.util.Responses;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.components.actionrow.ActionRow;
@@ -20,12 +20,14 @@ import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateArchivedEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 
 import org.jetbrains.annotations.NotNull;
+import org.springframework.dao.DataAccessException;
 import xyz.dynxsty.dih4jda.interactions.components.ButtonHandler;
 import xyz.dynxsty.dih4jda.util.ComponentIdBuilder;
 
@@ -43,11 +45,28 @@ import java.util.stream.Stream;
 })
 public class HelpListener extends ListenerAdapter implements ButtonHandler {
 
+	private static final Set<Long> newThreadChannels;
 	/**
-	 * A static Map that holds all messages that was sent in a specific reserved forum channel.
+	 * A close suggestion is sent if a message of the post owner contains all keywords of any of these detectors.
 	 */
-	static final Map<Long, List<Message>> HELP_POST_MESSAGES = new HashMap<>();
-	private static final Set<Long> newThreadChannels;
+	private static final String[][] CLOSE_SUGGESTION_DETECTORS = {
+			{"close", "post"},
+			{"close", "thread"},
+			{"close", "question"},
+			{"problem", "solv"},
+			{"issue", "solv"},
+			{"thank"}
+	};
+	private static final KeywordScanner CLOSE_SUGGESTION_SCANNER = new KeywordScanner(Arrays.stream(CLOSE_SUGGESTION_DETECTORS)
+			.flatMap(Arrays::stream)
+			.distinct()
+			.toList());
+	/**
+	 * The indices of the keywords of each of the {@link #CLOSE_SUGGESTION_DETECTORS} in the {@link #CLOSE_SUGGESTION_SCANNER}.
+	 */
+	private static final int[][] CLOSE_SUGGESTION_DETECTOR_KEYWORDS = Arrays.stream(CLOSE_SUGGESTION_DETECTORS)
+			.map(detector -> Arrays.stream(detector).mapToInt(CLOSE_SUGGESTION_SCANNER.getKeywords()::indexOf).toArray())
+			.toArray(int[][]::new);
 
 	static {
 		newThreadChannels = new HashSet<>();
@@ -55,19 +74,11 @@ public class HelpListener extends ListenerAdapter implements ButtonHandler {
 
 	private final UserPreferenceService preferenceService;
 	private final BotConfig botConfig;
-	private final HelpAccountRepository helpAccountRepository;
-	private final HelpTransactionRepository helpTransactionRepository;
 	private final HelpExperienceService experienceService;
 	private final DbActions dbActions;
 	private final AutoCodeFormatter autoCodeFormatter;
-	private final String[][] closeSuggestionDetectors = {
-			{"close", "post"},
-			{"close", "thread"},
-			{"close", "question"},
-			{"problem", "solv"},
-			{"issue", "solv"},
-			{"thank"}
-	};
+	private final HelpPostActivity helpPostActivity;
+	private final HelpForumUpdater helpForumUpdater;
 	private final long SUGGEST_CLOSE_TIMEOUT = 5 * 60_000L;//5 minutes
 	private final Map<Long, Long> recentlyCloseSuggestedPosts = new LinkedHashMap<>(
 			8,
@@ -109,9 +120,6 @@ public class HelpListener extends ListenerAdapter implements ButtonHandler {
 			return;
 		}
 		autoCodeFormatter.handleMessageEvent(event, false);
-		if (event.getMessage().getAuthor().isSystem() || event.getMessage().getAuthor().isBot()) {
-			return;
-		}
 		// check for forum post
 		if (isInvalidForumPost(event.getChannel())) {
 			return;
@@ -120,13 +128,17 @@ public class HelpListener extends ListenerAdapter implements ButtonHandler {
 		if (isInvalidHelpForumChannel(post.getParentChannel().asForumChannel())) {
 			return;
 		}
-		// cache messages
-		List<Message> messages = new ArrayList<>();
-		messages.add(event.getMessage());
-		if (HELP_POST_MESSAGES.containsKey(post.getIdLong())) {
-			messages.addAll(HELP_POST_MESSAGES.get(post.getIdLong()));
+		// any message, including those of the bot, postpones closing the post for inactivity
+		helpForumUpdater.onMessage(post, event.getMessage());
+		if (event.getMessage().getAuthor().isSystem() || event.getMessage().getAuthor().isBot()) {
+			return;
+		}
+		// remember who wrote how much for thanking helpers and awarding experience
+		try {
+			helpPostActivity.recordMessage(post.getIdLong(), event.getMessage(), botConfig.get(event.getGuild()).getHelpConfig().getMinimumMessageLength());
+		} catch (DataAccessException e) {
+			ExceptionLogger.capture(e, getClass().getSimpleName());
 		}
-		HELP_POST_MESSAGES.put(post.getIdLong(), messages);
 		// suggest to close post on "problem solved"-messages
 		replyCloseSuggestionIfPatternMatches(event.getMessage());
 	}
@@ -145,8 +157,16 @@ public class HelpListener extends ListenerAdapter implements ButtonHandler {
 		newThreadChannels.add(event.getChannel().getIdLong());
 	}
 
+	@Override
+	public void onChannelUpdateArchived(@NotNull ChannelUpdateArchivedEvent event) {
+		// covers closing posts manually, by unreserving, by thanking helpers and for inactivity
+		if (Boolean.TRUE.equals(event.getNewValue())) {
+			helpForumUpdater.onPostClosed(event.getChannel().getIdLong());
+		}
+	}
+
 	private void replyCloseSuggestionIfPatternMatches(Message msg) {
-		String content = msg.getContentRaw().toLowerCase();
+		String content = msg.getContentRaw();
 		if (content.contains("```")) {
 			return;
 		}
@@ -175,19 +195,18 @@ public class HelpListener extends ListenerAdapter implements ButtonHandler {
 	}
 
 	private boolean matchesAnyDetector(String content) {
-		for (String[] detector : closeSuggestionDetectors) {
-			if (doesMatchDetector(content, detector)) {
+		BitSet keywords = CLOSE_SUGGESTION_SCANNER.findKeywords(content);
+		for (int[] detector : CLOSE_SUGGESTION_DETECTOR_KEYWORDS) {
+			if (doesMatchDetector(keywords, detector)) {
 				return true;
 			}
 		}
 		return false;
 	}
 
-	private boolean doesMatchDetector(String content, String[] detector) {
-		int currentIndex = 0;
-		for (String keyword : detector) {
-			currentIndex = content.indexOf(keyword);
-			if (currentIndex == -1) {
+	private boolean doesMatchDetector(BitSet foundKeywords, int[] detector) {
+		for (int keyword : detector) {
+			if (!foundKeywords.get(keyword)) {
 				return false;
 			}
 		}
@@ -218,9 +237,9 @@ public class HelpListener extends ListenerAdapter implements ButtonHandler {
 				post,
 				dbActions,
 				botConfig,
-				helpAccountRepository,
-				helpTransactionRepository,
-				preferenceService
+				experienceService,
+				preferenceService,
+				helpPostActivity
 		);
 		switch (id[0]) {
 			case HelpManager.HELP_THANKS_IDENTIFIER ->
@@ -285,20 +304,18 @@ public class HelpListener extends ListenerAdapter implements ButtonHandler {
 	}
 
 	private void handleThanksCloseButton(@NotNull ButtonInteractionEvent event, HelpManager manager, ThreadChannel post, String additionalButtonId) {
+		// award experience before closing, as the activity of the post is forgotten once it is archived
+		experienceService.addMessageBasedHelpXP(post, true);
 		// close post
 		manager.close(event, false, null);
 		// delete the message
 		event.getMessage().delete().queue(s -> {
-			experienceService.addMessageBasedHelpXP(post, true);
 			// thank all helpers
-			getButtonStream(event.getMessage())
+			manager.thankHelpers(event.getGuild(), post, getButtonStream(event.getMessage())
 					.filter(b -> b.getCustomId() != null)
 					.filter(b -> b.isDisabled() || (b.getCustomId().equals(additionalButtonId)))
-					.forEach(b -> manager.thankHelper(
-							event.getGuild(),
-							post,
-							Long.parseLong(ComponentIdBuilder.split(b.getCustomId())[2])
-					));
+					.map(b -> Long.parseLong(ComponentIdBuilder.split(b.getCustomId())[2]))
+					.toList());
 		});
 	}
 
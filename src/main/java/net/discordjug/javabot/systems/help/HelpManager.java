@@ -5,8 +5,8 @@ import lombok.RequiredArgsConstructor;
 import net.discordjug.javabot.data.config.BotConfig;
 import net.discordjug.javabot.data.config.guild.HelpConfig;
 import net.discordjug.javabot.data.h2db.DbActions;
-import net.discordjug.javabot.systems.help.dao.HelpAccountRepository;
-import net.discordjug.javabot.systems.help.dao.HelpTransactionRepository;
+import net.discordjug.javabot.systems.help.model.HelpTransaction;
+import net.discordjug.javabot.systems.help.model.HelperActivity;
 import net.discordjug.javabot.systems.user_preferences.UserPreferenceService;
 import net.discordjug.javabot.systems.user_preferences.model.Preference;
 import net.discordjug.javabot.util.ExceptionLogger;
@@ -30,18 +30,20 @@ import net.dv8tion.jda.api.interactions.Interaction;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import net.dv8tion.jda.api.utils.Result;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.dao.DataAccessException;
 
 import xyz.dynxsty.dih4jda.util.ComponentIdBuilder;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Manages all interactions regarding the help forum system.
@@ -67,10 +69,9 @@ public class HelpManager {
 	private final ThreadChannel postThread;
 	private final DbActions dbActions;
 	private final BotConfig botConfig;
-	private final HelpAccountRepository helpAccountRepository;
-
-	private final HelpTransactionRepository helpTransactionRepository;
+	private final HelpExperienceService experienceService;
 	private final UserPreferenceService preferenceService;
+	private final HelpPostActivity helpPostActivity;
 
 	/**
 	 * Builds and replies {@link ActionRow}s with all members which helped the
@@ -80,11 +81,11 @@ public class HelpManager {
 	 * @param helpers  The list of helpers to thank.
 	 * @return The {@link ReplyCallbackAction}.
 	 */
-	public ReplyCallbackAction replyHelpThanks(IReplyCallback callback, @NotNull List<Member> helpers) {
+	public ReplyCallbackAction replyHelpThanks(IReplyCallback callback, @NotNull List<HelperActivity> helpers) {
 		HelpConfig config = botConfig.get(callback.getGuild()).getHelpConfig();
 		List<ActionRowChildComponent> helperThanksButtons = new ArrayList<>(20);
-		for (Member helper : helpers.subList(0, Math.min(helpers.size(), 20))) {
-			helperThanksButtons.add(Button.success(ComponentIdBuilder.build(HELP_THANKS_IDENTIFIER, postThread.getId(), helper.getId()), helper.getEffectiveName())
+		for (HelperActivity helper : helpers.subList(0, Math.min(helpers.size(), 20))) {
+			helperThanksButtons.add(Button.success(ComponentIdBuilder.build(HELP_THANKS_IDENTIFIER, postThread.getId(), helper.userId()), helper.name())
 					.withEmoji(Emoji.fromUnicode("❤"))
 			);
 		}
@@ -107,7 +108,7 @@ public class HelpManager {
 	 * @param reason      The reason for closing this post.
 	 */
 	public void close(IReplyCallback callback, boolean withHelpers, @Nullable String reason) {
-		List<Member> helpers = getPostHelpers();
+		List<HelperActivity> helpers = getPostHelpers();
 		if (withHelpers && !helpers.isEmpty()) {
 			replyHelpThanks(callback, helpers).queue();
 			return;
@@ -169,39 +170,46 @@ public class HelpManager {
 	}
 	
 	/**
-	 * Thanks a single user.
+	 * Thanks multiple users, awarding the experience of all of them in a single transaction.
 	 *
-	 * @param guild The {@link Guild} the helper is thanked in
+	 * @param guild The {@link Guild} the helpers are thanked in
 	 * @param postThread The {@link ThreadChannel} post.
-	 * @param helperId   The helpers' discord id.
+	 * @param helperIds  The helpers' discord ids.
 	 */
-	public void thankHelper(@NotNull Guild guild, ThreadChannel postThread, long helperId) {
-		guild.getJDA().retrieveUserById(helperId).queue(helper -> {
-			// First insert the new thanks data.
-			try {
-				dbActions.update(
-						"INSERT INTO help_channel_thanks (reservation_id, user_id, channel_id, helper_id) VALUES (?, ?, ?, ?)",
-						postThread.getIdLong(),
-						postThread.getOwnerIdLong(),
-						postThread.getIdLong(),
-						helper.getIdLong()
-				);
-				HelpConfig config = botConfig.get(guild).getHelpConfig();
-				HelpExperienceService service = new HelpExperienceService(botConfig, helpAccountRepository, helpTransactionRepository);
-				// Perform experience transactions
-				service.performTransaction(helper.getIdLong(), config.getThankedExperience(), guild, postThread.getIdLong());
-			} catch (SQLException e) {
-				ExceptionLogger.capture(e, getClass().getSimpleName());
-				guild.getJDA().retrieveUserById(postThread.getOwnerIdLong()).queue(owner -> {
-					botConfig.get(guild).getModerationConfig().getLogChannel().sendMessageFormat(
-							"Could not record user %s thanking %s for help in post %s: %s",
-							UserUtils.getUserTag(owner),
-							UserUtils.getUserTag(helper),
-							postThread.getAsMention(),
-							e.getMessage()
-							).queue();
-				});
+	public void thankHelpers(@NotNull Guild guild, ThreadChannel postThread, List<Long> helperIds) {
+		if (helperIds.isEmpty()) {
+			return;
+		}
+		// helpers that cannot be retrieved are skipped without affecting the others
+		RestAction.allOf(helperIds.stream().map(id -> guild.getJDA().retrieveUserById(id).mapToResult()).toList()).queue(results -> {
+			HelpConfig config = botConfig.get(guild).getHelpConfig();
+			List<HelpTransaction> transactions = new ArrayList<>();
+			for (User helper : results.stream().filter(Result::isSuccess).map(Result::get).toList()) {
+				// First insert the new thanks data.
+				try {
+					dbActions.update(
+							"INSERT INTO help_channel_thanks (reservation_id, user_id, channel_id, helper_id) VALUES (?, ?, ?, ?)",
+							postThread.getIdLong(),
+							postThread.getOwnerIdLong(),
+							postThread.getIdLong(),
+							helper.getIdLong()
+					);
+					transactions.add(HelpExperienceService.createTransaction(helper.getIdLong(), config.getThankedExperience(), postThread.getIdLong()));
+				} catch (SQLException e) {
+					ExceptionLogger.capture(e, getClass().getSimpleName());
+					guild.getJDA().retrieveUserById(postThread.getOwnerIdLong()).queue(owner -> {
+						botConfig.get(guild).getModerationConfig().getLogChannel().sendMessageFormat(
+								"Could not record user %s thanking %s for help in post %s: %s",
+								UserUtils.getUserTag(owner),
+								UserUtils.getUserTag(helper),
+								postThread.getAsMention(),
+								e.getMessage()
+								).queue();
+					});
+				}
 			}
+			// Perform experience transactions
+			experienceService.performTransactions(transactions, guild);
 		});
 	}
 
@@ -233,35 +241,37 @@ public class HelpManager {
 		return member != null && member.getRoles().contains(botConfig.get(guild).getHelpConfig().getHelperRole());
 	}
 
-	private @NotNull List<Member> getPostHelpers() {
-		List<Message> messages = HelpListener.HELP_POST_MESSAGES.get(postThread.getIdLong());
-		if (messages == null) return List.of();
-		return messages.stream()
-				.filter(m -> m.getMember() != null && m.getAuthor().getIdLong() != postThread.getOwnerIdLong())
-				.map(Message::getMember)
-				.distinct()
-				.toList();
+	private @NotNull List<HelperActivity> getPostHelpers() {
+		try {
+			return helpPostActivity.getHelpers(postThread.getIdLong(), postThread.getOwnerIdLong());
+		} catch (DataAccessException e) {
+			// the post can still be closed without thanking helpers
+			ExceptionLogger.capture(e, getClass().getSimpleName());
+			return List.of();
+		}
 	}
 
 	/**
 	 * Calculates the experience for each user, based on the messages they sent.
+	 * Messages count towards the experience if they were longer than the minimum message length when they were sent.
 	 *
-	 * @param messages The list of {@link Message}s.
+	 * @param activity The running totals of the authors of the post, as remembered by {@link HelpPostActivity}.
 	 * @param ownerId The owner id.
 	 * @param config The {@link HelpConfig}, containing some static info for the calculation.
 	 * @return A {@link Map}, containing the users' id as the key, and the amount of xp as the value.
 	 */
-	public static Map<Long, Double> calculateExperience(List<Message> messages, long ownerId, HelpConfig config) {
+	public static Map<Long, Double> calculateExperience(Collection<HelperActivity> activity, long ownerId, HelpConfig config) {
+		if (activity == null || activity.isEmpty()) return Map.of();
+		double xp = 0;
+		for (HelperActivity helper : activity) {
+			if (helper.userId() == ownerId) continue;
+			xp += config.getBaseExperience() * helper.experienceMessageCount() + config.getPerCharacterExperience() * helper.experienceLengthLogSum();
+		}
 		Map<Long, Double> experience = new HashMap<>();
-		if (messages == null || messages.isEmpty()) return Map.of();
-		for (User user : messages.stream().map(Message::getAuthor).collect(Collectors.toSet())) {
-			if (user.getIdLong() == ownerId) continue;
-			double xp = 0;
-			for (Message message : messages.stream()
-					.filter(f -> f.getAuthor().getIdLong() != ownerId && f.getContentDisplay().length() > config.getMinimumMessageLength()).toList()) {
-				xp += config.getBaseExperience() + config.getPerCharacterExperience() * (Math.log(message.getContentDisplay().trim().length()) / Math.log(2));
+		for (HelperActivity helper : activity) {
+			if (helper.userId() != ownerId) {
+				experience.put(helper.userId(), Math.min(xp, config.getMaxExperiencePerChannel()));
 			}
-			experience.put(user.getIdLong(), Math.min(xp, config.getMaxExperiencePerChannel()));
 		}
 		return experience;
 	}
@@ -0,0 +1,208 @@
+package net.discordjug.javabot.systems.help;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import net.discordjug.javabot.systems.help.dao.HelpPostActivityRepository;
+import net.discordjug.javabot.systems.help.model.HelperActivity;
+import net.discordjug.javabot.util.ExceptionLogger;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Remembers who wrote how much in which help forum post, which is needed for thanking helpers and awarding help experience when a post is closed.
+ * <p>
+ * Instead of the received {@link Message}s, only running totals per post and author are kept as {@link HelperActivity},
+ * so recording a message takes constant time and calculating the experience of a post only depends on the amount of its authors.
+ * Changed totals are written to the database every few seconds and when the bot shuts down, and posts are loaded from the database
+ * the first time they are used, so the same experience is awarded whether or not the bot restarted while a post was open.
+ * If loading a post fails, nothing is remembered about it and it is loaded again the next time it is used.
+ * <p>
+ * Posts without new messages for {@link #RETENTION} are forgotten, both in memory and, once per hour, in the database.
+ * At most {@link #MAX_POSTS} posts are kept in memory, the least recently active ones are reloaded from the database when needed.
+ */
+@RequiredArgsConstructor
+@Service
+public class HelpPostActivity {
+	/**
+	 * The maximum amount of posts kept in memory at the same time.
+	 */
+	static final int MAX_POSTS = 2000;
+	/**
+	 * How long posts without new messages are remembered.
+	 */
+	static final Duration RETENTION = Duration.ofDays(7);
+
+	private final HelpPostActivityRepository repository;
+	private final Cache<Long, Map<Long, HelperActivity>> posts = Caffeine.newBuilder()
+			.maximumSize(MAX_POSTS)
+			.expireAfterWrite(RETENTION)
+			.build();
+	/**
+	 * The totals that changed since they have last been written to the database.
+	 */
+	private final Map<ActivityKey, HelperActivity> pending = new ConcurrentHashMap<>();
+	private final Object flushLock = new Object();
+
+	/**
+	 * Records a message sent in a help post.
+	 *
+	 * @param postId The id of the post.
+	 * @param message The received message.
+	 * @param minimumMessageLength The length a message must exceed to be awarded experience.
+	 * @throws DataAccessException If the post is not known yet and could not be loaded from the database.
+	 */
+	public void recordMessage(long postId, Message message, int minimumMessageLength) {
+		Member member = message.getMember();
+		String content = message.getContentDisplay();
+		record(postId, message.getAuthor().getIdLong(), member == null ? null : member.getEffectiveName(),
+				message.getTimeCreated().toInstant().toEpochMilli(), content.length(), content.trim().length(), minimumMessageLength);
+	}
+
+	/**
+	 * Records a message sent in a help post.
+	 *
+	 * @param postId The id of the post.
+	 * @param authorId The id of the author of the message.
+	 * @param authorName The name of the author in the guild or {@code null} if the author is not a member, e.g. because the message was sent by a webhook.
+	 * @param timestamp The creation time of the message in epoch milliseconds.
+	 * @param length The length of the displayed content of the message.
+	 * @param trimmedLength The length of the displayed content without leading and trailing whitespace.
+	 * @param minimumMessageLength The length a message must exceed to be awarded experience.
+	 * @throws DataAccessException If the post is not known yet and could not be loaded from the database.
+	 */
+	public void record(long postId, long authorId, @Nullable String authorName, long timestamp, int length, int trimmedLength, int minimumMessageLength) {
+		// the post is updated while holding its lock, so it can't be removed concurrently
+		// writing the post again also refreshes its expiration
+		posts.asMap().compute(postId, (_, existing) -> {
+			Map<Long, HelperActivity> post = existing == null ? load(postId) : existing;
+			post.compute(authorId, (_, activity) -> {
+				HelperActivity updated = (activity == null ? HelperActivity.empty(postId, authorId) : activity)
+						.withMessage(authorName, timestamp, length, trimmedLength, minimumMessageLength);
+				pending.put(new ActivityKey(postId, authorId), updated);
+				return updated;
+			});
+			return post;
+		});
+	}
+
+	/**
+	 * Gets the activity of all authors of a post.
+	 *
+	 * @param postId The id of the post.
+	 * @return The {@link HelperActivity} of each author, empty if no messages of the post are known.
+	 * @throws DataAccessException If the post is not known yet and could not be loaded from the database.
+	 */
+	public Collection<HelperActivity> getActivity(long postId) {
+		return List.copyOf(getPost(postId).values());
+	}
+
+	/**
+	 * Gets the members who wrote messages in a post, excluding its owner.
+	 *
+	 * @param postId The id of the post.
+	 * @param ownerId The id of the user who created the post.
+	 * @return The {@link HelperActivity} of the helpers, starting with the one who wrote the newest message.
+	 * @throws DataAccessException If the post is not known yet and could not be loaded from the database.
+	 */
+	public List<HelperActivity> getHelpers(long postId, long ownerId) {
+		return getPost(postId).values().stream()
+				.filter(activity -> activity.userId() != ownerId && activity.name() != null)
+				.sorted(Comparator.comparingLong(HelperActivity::lastMessageAt).reversed())
+				.toList();
+	}
+
+	/**
+	 * Forgets all messages of a post.
+	 *
+	 * @param postId The id of the post.
+	 */
+	public void remove(long postId) {
+		// holding the lock of the post, so it can't be recorded and loaded again before it is deleted
+		posts.asMap().compute(postId, (_, _) -> {
+			synchronized (flushLock) {
+				pending.keySet().removeIf(key -> key.postId() == postId);
+				try {
+					repository.deletePost(postId);
+				} catch (DataAccessException e) {
+					ExceptionLogger.capture(e, getClass().getSimpleName());
+				}
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Writes all changed totals to the database.
+	 * Totals that could not be written are kept and written the next time.
+	 */
+	@PreDestroy
+	@Scheduled(fixedDelay = 10, timeUnit = TimeUnit.SECONDS)
+	public void flush() {
+		// a post removed while writing could otherwise be written again after it has been deleted
+		synchronized (flushLock) {
+			List<Map.Entry<ActivityKey, HelperActivity>> changed = new ArrayList<>(pending.entrySet());
+			if (changed.isEmpty()) {
+				return;
+			}
+			try {
+				repository.saveAll(changed.stream().map(Map.Entry::getValue).toList());
+				// totals that changed again in the meantime stay pending
+				changed.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+			} catch (DataAccessException e) {
+				ExceptionLogger.capture(e, getClass().getSimpleName());
+			}
+		}
+	}
+
+	/**
+	 * Deletes posts that have been inactive for longer than {@link #RETENTION} from the database.
+	 */
+	@Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+	public void deleteInactivePosts() {
+		try {
+			repository.deletePostsInactiveSince(Instant.now().minus(RETENTION));
+		} catch (DataAccessException e) {
+			ExceptionLogger.capture(e, getClass().getSimpleName());
+		}
+	}
+
+	private Map<Long, HelperActivity> getPost(long postId) {
+		return posts.get(postId, this::load);
+	}
+
+	/**
+	 * Loads the activity of a post from the database, including totals that have not been written yet.
+	 * If loading fails, the exception is propagated, so the post isn't cached and loaded again the next time it is used.
+	 */
+	private Map<Long, HelperActivity> load(long postId) {
+		Map<Long, HelperActivity> post = new ConcurrentHashMap<>();
+		repository.getActivityInPost(postId).forEach(activity -> post.put(activity.userId(), activity));
+		pending.forEach((key, activity) -> {
+			if (key.postId() == postId) {
+				post.put(key.userId(), activity);
+			}
+		});
+		return post;
+	}
+
+	private record ActivityKey(long postId, long userId) {
+	}
+}
@@ -0,0 +1,103 @@
+package net.discordjug.javabot.systems.help;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps a single deadline per help post and hands out the posts whose deadlines passed, earliest first.
+ * <p>
+ * Deadlines are kept in a {@link PriorityQueue}, so scheduling a deadline takes logarithmic time
+ * and finding the expired posts only looks at the posts that actually expired.
+ * Moving the deadline of a post doesn't search the queue for the old entry; outdated entries are skipped once they reach the head of the queue
+ * and dropped all at once if they make up most of the queue.
+ * <p>
+ * All methods are thread-safe.
+ */
+public class PostDeadlineQueue {
+	private final PriorityQueue<Deadline> queue = new PriorityQueue<>();
+	/**
+	 * The current deadline of each post.
+	 */
+	private final Map<Long, Long> deadlines = new HashMap<>();
+
+	/**
+	 * Sets the deadline of a post, replacing its previous deadline.
+	 *
+	 * @param postId The id of the post.
+	 * @param deadline The deadline in epoch milliseconds.
+	 */
+	public synchronized void schedule(long postId, long deadline) {
+		Long previous = deadlines.put(postId, deadline);
+		if (previous != null && previous == deadline) {
+			return;
+		}
+		queue.add(new Deadline(deadline, postId));
+		if (queue.size() > 2 * deadlines.size() + 16) {
+			queue.removeIf(entry -> !isCurrent(entry));
+		}
+	}
+
+	/**
+	 * Removes the deadline of a post.
+	 *
+	 * @param postId The id of the post.
+	 */
+	public synchronized void remove(long postId) {
+		deadlines.remove(postId);
+	}
+
+	/**
+	 * Checks whether a post has a deadline.
+	 *
+	 * @param postId The id of the post.
+	 * @return {@code true} if a deadline is scheduled for the post, else {@code false}
+	 */
+	public synchronized boolean contains(long postId) {
+		return deadlines.containsKey(postId);
+	}
+
+	/**
+	 * Gets the earliest deadline.
+	 *
+	 * @return The earliest deadline in epoch milliseconds or {@link Long#MAX_VALUE} if no deadlines are scheduled.
+	 */
+	public synchronized long nextDeadline() {
+		while (!queue.isEmpty() && !isCurrent(queue.peek())) {
+			queue.remove();
+		}
+		return queue.isEmpty() ? Long.MAX_VALUE : queue.peek().deadline();
+	}
+
+	/**
+	 * Removes all posts whose deadline is at or before the given time.
+	 *
+	 * @param now The current time in epoch milliseconds.
+	 * @return The ids of the expired posts, ordered by their deadlines.
+	 */
+	public synchronized List<Long> pollExpired(long now) {
+		List<Long> expired = new ArrayList<>();
+		while (!queue.isEmpty() && queue.peek().deadline() <= now) {
+			Deadline entry = queue.remove();
+			if (isCurrent(entry)) {
+				deadlines.remove(entry.postId());
+				expired.add(entry.postId());
+			}
+		}
+		return expired;
+	}
+
+	private boolean isCurrent(Deadline entry) {
+		Long deadline = deadlines.get(entry.postId());
+		return deadline != null && deadline == entry.deadline();
+	}
+
+	private record Deadline(long deadline, long postId) implements Comparable<Deadline> {
+		@Override
+		public int compareTo(Deadline other) {
+			return Long.compare(deadline, other.deadline);
+		}
+	}
+}
@@ -7,9 +7,9 @@ import org.jetbrains.annotations.NotNull;
 import net.discordjug.javabot.annotations.AutoDetectableComponentHandler;
 import net.discordjug.javabot.data.config.BotConfig;
 import net.discordjug.javabot.data.h2db.DbActions;
+import net.discordjug.javabot.systems.help.HelpExperienceService;
 import net.discordjug.javabot.systems.help.HelpManager;
-import net.discordjug.javabot.systems.help.dao.HelpAccountRepository;
-import net.discordjug.javabot.systems.help.dao.HelpTransactionRepository;
+import net.discordjug.javabot.systems.help.HelpPostActivity;
 import net.discordjug.javabot.systems.user_preferences.UserPreferenceService;
 import net.discordjug.javabot.util.ExceptionLogger;
 import net.discordjug.javabot.util.Responses;
@@ -44,24 +44,24 @@ public class UnreserveCommand extends SlashCommand implements ModalHandler {
 	private static final String REASON_ID = "reason";
 	private final BotConfig botConfig;
 	private final DbActions dbActions;
-	private final HelpAccountRepository helpAccountRepository;
-	private final HelpTransactionRepository helpTransactionRepository;
+	private final HelpExperienceService experienceService;
 	private final UserPreferenceService preferenceService;
+	private final HelpPostActivity helpPostActivity;
 
 	/**
 	 * The constructor of this class, which sets the corresponding {@link net.dv8tion.jda.api.interactions.commands.build.SlashCommandData}.
 	 * @param botConfig The main configuration of the bot
 	 * @param dbActions A utility object providing various operations on the main database
-	 * @param helpTransactionRepository Dao object that represents the HELP_TRANSACTION SQL Table
-	 * @param helpAccountRepository Dao object that represents the HELP_ACCOUNT SQL Table
+	 * @param experienceService Service for awarding help experience
 	 * @param preferenceService Service for user preferences
+	 * @param helpPostActivity Remembers who wrote how much in help posts
 	 */
-	public UnreserveCommand(BotConfig botConfig, DbActions dbActions, HelpTransactionRepository helpTransactionRepository, HelpAccountRepository helpAccountRepository, UserPreferenceService preferenceService) {
+	public UnreserveCommand(BotConfig botConfig, DbActions dbActions, HelpExperienceService experienceService, UserPreferenceService preferenceService, HelpPostActivity helpPostActivity) {
 		this.botConfig = botConfig;
 		this.dbActions = dbActions;
-		this.helpAccountRepository = helpAccountRepository;
-		this.helpTransactionRepository = helpTransactionRepository;
+		this.experienceService = experienceService;
 		this.preferenceService = preferenceService;
+		this.helpPostActivity = helpPostActivity;
 		setCommandData(Commands.slash(UNRESERVE_ID, "Unreserves this post marking your question/issue as resolved.")
 				.setContexts(InteractionContextType.GUILD)
 				.addOption(OptionType.STRING, REASON_ID, "The reason why you're unreserving this channel", false)
@@ -115,7 +115,7 @@ public class UnreserveCommand extends SlashCommand implements ModalHandler {
 			replyInvalidChannel(replyCallback);
 			return;
 		}
-		HelpManager manager = new HelpManager(postThread, dbActions, botConfig, helpAccountRepository, helpTransactionRepository, preferenceService);
+		HelpManager manager = new HelpManager(postThread, dbActions, botConfig, experienceService, preferenceService, helpPostActivity);
 		if (manager.isForumEligibleToBeUnreserved(interaction)) {
 			if (replyCallback.getUser().getIdLong() != postThread.getOwnerIdLong() && isReasonInvalid(reason)) {
 				noReasonHandler.run();
@@ -14,7 +14,10 @@ import org.springframework.stereotype.Repository;
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -52,6 +55,47 @@ public class HelpAccountRepository {
 				account.getUserId());
 	}
 
+	/**
+	 * Adds experience to multiple {@link HelpAccount}s in a single batch, creating accounts that don't exist yet.
+	 *
+	 * @param changes The experience to add, mapped by the ids of the users.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	public void addExperience(Map<Long, Double> changes) throws DataAccessException {
+		if (changes.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate("""
+				MERGE INTO help_account account
+				USING (SELECT CAST(? AS BIGINT) AS user_id, CAST(? AS DOUBLE) AS experience) delta
+				ON account.user_id = delta.user_id
+				WHEN MATCHED THEN UPDATE SET experience = account.experience + delta.experience
+				WHEN NOT MATCHED THEN INSERT (user_id, experience) VALUES (delta.user_id, delta.experience)
+				""",
+				changes.entrySet(),
+				changes.size(),
+				(stmt, change) -> {
+					stmt.setLong(1, change.getKey());
+					stmt.setDouble(2, change.getValue());
+				});
+	}
+
+	/**
+	 * Retrieves the {@link HelpAccount}s of multiple users.
+	 *
+	 * @param userIds The users' ids.
+	 * @return The accounts of all users who have one.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	public List<HelpAccount> getByUserIds(Collection<Long> userIds) throws DataAccessException {
+		if (userIds.isEmpty()) {
+			return List.of();
+		}
+		String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+		return jdbcTemplate.query("SELECT * FROM help_account WHERE user_id IN (" + placeholders + ")", (rs, row)->this.read(rs),
+				userIds.toArray());
+	}
+
 	/**
 	 * Tries to retrieve a {@link HelpAccount}, based on the given id.
 	 *
@@ -0,0 +1,99 @@
+package net.discordjug.javabot.systems.help.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import net.discordjug.javabot.systems.help.model.HelperActivity;
+
+/**
+ * Dao class that represents the HELP_POST_ACTIVITY SQL Table.
+ */
+@RequiredArgsConstructor
+@Repository
+public class HelpPostActivityRepository {
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Inserts or replaces the activity of users in help posts.
+	 *
+	 * @param activity The {@link HelperActivity} of each user and post.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	public void saveAll(Collection<HelperActivity> activity) throws DataAccessException {
+		jdbcTemplate.batchUpdate("""
+				MERGE INTO help_post_activity
+					(post_id, user_id, name, message_count, experience_message_count, experience_length_log_sum, last_message_at)
+				KEY (post_id, user_id)
+				VALUES
+					(?, ?, ?, ?, ?, ?, ?)
+				""",
+				activity,
+				activity.size(),
+				(stmt, helper) -> {
+					stmt.setLong(1, helper.postId());
+					stmt.setLong(2, helper.userId());
+					stmt.setString(3, helper.name());
+					stmt.setInt(4, helper.messageCount());
+					stmt.setInt(5, helper.experienceMessageCount());
+					stmt.setDouble(6, helper.experienceLengthLogSum());
+					stmt.setTimestamp(7, Timestamp.from(Instant.ofEpochMilli(helper.lastMessageAt())));
+				});
+	}
+
+	/**
+	 * Gets the activity of all users in a post.
+	 *
+	 * @param postId The id of the post.
+	 * @return The {@link HelperActivity} of each user who wrote in the post.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	public List<HelperActivity> getActivityInPost(long postId) throws DataAccessException {
+		return jdbcTemplate.query("SELECT * FROM help_post_activity WHERE post_id = ?", (rs, row) -> read(rs), postId);
+	}
+
+	/**
+	 * Deletes the activity in a post.
+	 *
+	 * @param postId The id of the post.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	public void deletePost(long postId) throws DataAccessException {
+		jdbcTemplate.update("DELETE FROM help_post_activity WHERE post_id = ?", postId);
+	}
+
+	/**
+	 * Deletes the activity in all posts without new messages since a given time.
+	 *
+	 * @param cutoff The time posts must have been active after to be kept.
+	 * @return The amount of deleted rows.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	public int deletePostsInactiveSince(Instant cutoff) throws DataAccessException {
+		return jdbcTemplate.update("""
+				DELETE FROM help_post_activity WHERE post_id IN
+					(SELECT post_id FROM help_post_activity GROUP BY post_id HAVING MAX(last_message_at) <= ?)
+				""",
+				Timestamp.from(cutoff));
+	}
+
+	private HelperActivity read(ResultSet rs) throws SQLException {
+		return new HelperActivity(
+				rs.getLong("post_id"),
+				rs.getLong("user_id"),
+				rs.getString("name"),
+				rs.getInt("message_count"),
+				rs.getInt("experience_message_count"),
+				rs.getDouble("experience_length_log_sum"),
+				rs.getTimestamp("last_message_at").toInstant().toEpochMilli()
+		);
+	}
+}
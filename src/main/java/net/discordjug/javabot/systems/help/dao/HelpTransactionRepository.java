@@ -1,6 +1,5 @@
 package net.discordjug.javabot.systems.help.dao;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.discordjug.javabot.systems.help.model.HelpAccount;
 import net.discordjug.javabot.systems.help.model.HelpTransaction;
@@ -9,24 +8,45 @@ import net.discordjug.javabot.util.Pair;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Dao class that represents the HELP_TRANSACTION SQL Table.
  */
 @Slf4j
-@RequiredArgsConstructor
 @Repository
 public class HelpTransactionRepository {
 	private final JdbcTemplate jdbcTemplate;
+	/**
+	 * Shared by all inserts, so the metadata of the table is only looked up once.
+	 */
+	private final SimpleJdbcInsert insert;
+
+	/**
+	 * Creates the repository.
+	 *
+	 * @param jdbcTemplate The {@link JdbcTemplate} used for accessing the database.
+	 */
+	public HelpTransactionRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.insert = new SimpleJdbcInsert(jdbcTemplate)
+				.withTableName("help_transaction")
+				.usingColumns("recipient","weight","messageType", "channel")
+				.usingGeneratedKeyColumns("id");
+	}
 
 	/**
 	 * Inserts a new {@link HelpTransaction}.
@@ -36,21 +56,37 @@ public class HelpTransactionRepository {
 	 * @throws DataAccessException If an error occurs.
 	 */
 	public HelpTransaction save(HelpTransaction transaction) throws DataAccessException {
-		SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-		.withTableName("help_transaction")
-		.usingColumns("recipient","weight","messageType", "channel")
-		.usingGeneratedKeyColumns("id");
-		Number key = simpleJdbcInsert.executeAndReturnKey(Map.of(
-					"recipient",transaction.getRecipient(),
-					"weight",transaction.getWeight(),
-					"messageType",transaction.getMessageType(),
-					"channel",transaction.getChannelId())
-				);
+		Number key = insert.executeAndReturnKey(toParameters(transaction));
 		transaction.setId(key.longValue());
 		log.debug("Inserted new Help Transaction: {}", transaction);
 		return transaction;
 	}
 
+	/**
+	 * Inserts multiple {@link HelpTransaction}s in a single batch.
+	 * The ids of the inserted transactions are not set.
+	 *
+	 * @param transactions The transactions that should be inserted.
+	 * @throws DataAccessException If an error occurs.
+	 */
+	public void saveAll(Collection<HelpTransaction> transactions) throws DataAccessException {
+		if (transactions.isEmpty()) {
+			return;
+		}
+		insert.executeBatch(transactions.stream()
+				.map(transaction -> new MapSqlParameterSource(toParameters(transaction)))
+				.toArray(SqlParameterSource[]::new));
+		log.debug("Inserted {} new Help Transactions", transactions.size());
+	}
+
+	private Map<String, Object> toParameters(HelpTransaction transaction) {
+		return Map.of(
+				"recipient",transaction.getRecipient(),
+				"weight",transaction.getWeight(),
+				"messageType",transaction.getMessageType(),
+				"channel",transaction.getChannelId());
+	}
+
 	/**
 	 * Retrieves a transaction based on the id.
 	 *
@@ -138,16 +174,15 @@ public class HelpTransactionRepository {
 	}
 
 	/**
-	 * Checks whether a transaction with a specific recipient exists in a specific channel.
-	 * @param recipient The ID of the recipient
+	 * Gets all recipients of transactions in a specific channel.
 	 * @param channelId The ID of the channel
-	 * @return {@code true} if it exists, else {@code false}
+	 * @return The IDs of the recipients
 	 */
-	public boolean existsTransactionWithRecipientInChannel(long recipient, long channelId) {
-		return jdbcTemplate.queryForObject(
-				"SELECT count(*) FROM help_transaction WHERE recipient=? AND channel = ?",
-				Integer.class,
-				recipient, channelId) > 0;
+	public Set<Long> getRecipientsInChannel(long channelId) {
+		return new HashSet<>(jdbcTemplate.queryForList(
+				"SELECT DISTINCT recipient FROM help_transaction WHERE channel = ?",
+				Long.class,
+				channelId));
 	}
 
 	/**
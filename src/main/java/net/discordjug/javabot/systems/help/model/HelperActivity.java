@@ -0,0 +1,51 @@
+package net.discordjug.javabot.systems.help.model;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The running totals of the messages a single user wrote in a help post, from which their help experience is calculated.
+ *
+ * @param postId The id of the post.
+ * @param userId The id of the user.
+ * @param name The name of the user in the guild when they last wrote in the post or {@code null} if they are not a member, e.g. because they wrote using a webhook.
+ * @param messageCount The amount of messages the user wrote in the post.
+ * @param experienceMessageCount The amount of messages that were longer than the minimum length for awarding experience when they were sent.
+ * @param experienceLengthLogSum The sum of the binary logarithms of the trimmed lengths of these messages.
+ * @param lastMessageAt The creation time of the newest message of the user in epoch milliseconds.
+ */
+public record HelperActivity(long postId, long userId, @Nullable String name, int messageCount, int experienceMessageCount, double experienceLengthLogSum, long lastMessageAt) {
+
+	/**
+	 * Creates the activity of a user who didn't write in a post yet.
+	 *
+	 * @param postId The id of the post.
+	 * @param userId The id of the user.
+	 * @return The created {@link HelperActivity}.
+	 */
+	public static HelperActivity empty(long postId, long userId) {
+		return new HelperActivity(postId, userId, null, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Adds a message to the running totals.
+	 *
+	 * @param authorName The name of the author in the guild or {@code null} if the author is not a member.
+	 * @param timestamp The creation time of the message in epoch milliseconds.
+	 * @param length The length of the displayed content of the message.
+	 * @param trimmedLength The length of the displayed content without leading and trailing whitespace.
+	 * @param minimumMessageLength The length a message must exceed to be awarded experience.
+	 * @return The activity including the message.
+	 */
+	public HelperActivity withMessage(@Nullable String authorName, long timestamp, int length, int trimmedLength, int minimumMessageLength) {
+		boolean awardsExperience = length > minimumMessageLength;
+		return new HelperActivity(
+				postId,
+				userId,
+				authorName == null ? name : authorName,
+				messageCount + 1,
+				awardsExperience ? experienceMessageCount + 1 : experienceMessageCount,
+				awardsExperience ? experienceLengthLogSum + Math.log(trimmedLength) / Math.log(2) : experienceLengthLogSum,
+				Math.max(lastMessageAt, timestamp)
+		);
+	}
+}
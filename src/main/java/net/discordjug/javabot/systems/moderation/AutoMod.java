@@ -2,33 +2,36 @@ package net.discordjug.javabot.systems.moderation;
 
 import lombok.extern.slf4j.Slf4j;
 import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.data.config.guild.ModerationConfig;
 import net.discordjug.javabot.data.h2db.message_cache.MessageCache;
-import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
+import net.discordjug.javabot.listener.analysis.MessageAnalysis;
+import net.discordjug.javabot.listener.analysis.MessageAnalyzer;
 import net.discordjug.javabot.systems.moderation.warn.model.WarnSeverity;
 import net.discordjug.javabot.systems.notification.NotificationService;
-import net.discordjug.javabot.util.ExceptionLogger;
-import net.discordjug.javabot.util.MessageUtils;
+import net.discordjug.javabot.util.ContentFingerprint;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
 import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.utils.TimeUtil;
 
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
-import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
 import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * This class checks all incoming messages for potential spam/advertising and warns or mutes the potential offender.
@@ -36,53 +39,44 @@ import java.util.regex.Pattern;
 @Slf4j
 public class AutoMod extends ListenerAdapter {
 
-	private static final Pattern INVITE_URL = Pattern.compile("discord(?:(\\.(?:me|io|gg)|sites\\.com)/.{0,4}|(?:app)?\\.com.{1,4}(?:invite|oauth2).{0,5}/)\\w+");
-	private static final Pattern URL_PATTERN = Pattern.compile(
-			"(?:^|[\\W])((ht|f)tp(s?)://|www\\.)"
-					+ "(([\\w\\-]+\\.)+?([\\w\\-.~]+/?)*"
-					+ "[\\p{Alnum}.,%_=?&#\\-+()\\[\\]*$~@!:/{};']*)",
-			Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
 	private final NotificationService notificationService;
 	private final BotConfig botConfig;
-	private List<String> spamUrls;
+	private final ScamDomainList scamDomainList;
 	private final ModerationService moderationService;
 	private final MessageCache messageCache;
+	private final MessageAnalyzer messageAnalyzer;
 
 	/**
-	 * Constructor of the class, that creates a list of strings with potential spam/scam URLs.
+	 * Constructor of the class.
 	 *
 	 * @param notificationService The {@link QOTWPointsService}
 	 * @param botConfig           The main configuration of the bot
 	 * @param moderationService   Service object for moderating members
 	 * @param messageCache        service for retrieving cached messages
+	 * @param scamDomainList      The list of potential spam/scam domains
+	 * @param messageAnalyzer     Provides the analysis of messages shared with other listeners
 	 */
-	public AutoMod(NotificationService notificationService, BotConfig botConfig, ModerationService moderationService, MessageCache messageCache) {
+	public AutoMod(NotificationService notificationService, BotConfig botConfig, ModerationService moderationService, MessageCache messageCache, ScamDomainList scamDomainList, MessageAnalyzer messageAnalyzer) {
 		this.notificationService = notificationService;
 		this.botConfig = botConfig;
 		this.moderationService = moderationService;
 		this.messageCache = messageCache;
-		try (Scanner scan = new Scanner(new URL("https://raw.githubusercontent.com/DevSpen/scam-links/master/src/links.txt").openStream()).useDelimiter("\\A")) {
-			String response = scan.next();
-			spamUrls = List.of(response.split("\n"));
-		} catch (IOException e) {
-			ExceptionLogger.capture(e, getClass().getSimpleName());
-			spamUrls = Collections.emptyList();
-		}
-		log.info("Loaded {} spam URLs!", spamUrls.size());
+		this.scamDomainList = scamDomainList;
+		this.messageAnalyzer = messageAnalyzer;
 	}
 
 	@Override
 	public void onMessageReceived(@Nonnull MessageReceivedEvent event) {
 		Member member = event.getMember();
 		if (canBypassAutomod(member)) return;
-		checkNewMessageAutomod(event.getMessage());
+		checkNewMessageAutomod(messageAnalyzer.analyze(event.getMessage()));
 	}
 
 	@Override
 	public void onMessageUpdate(@Nonnull MessageUpdateEvent event) {
 		Member member = event.getMember();
 		if (canBypassAutomod(member)) return;
-		checkContentAutomod(event.getMessage());
+		checkContentAutomod(messageAnalyzer.analyze(event.getMessage()));
 	}
 
 	/**
@@ -100,72 +94,173 @@ public class AutoMod extends ListenerAdapter {
 	/**
 	 * Runs all automod checks that should be run when a message is sent.
 	 *
-	 * @param message the {@link Message} that should be checked
+	 * @param analysis the {@link MessageAnalysis} of the message that should be checked
 	 */
-	private void checkNewMessageAutomod(@Nonnull Message message) {
+	private void checkNewMessageAutomod(@Nonnull MessageAnalysis analysis) {
+		Message message = analysis.getMessage();
 		// spam
-		long spamCount = messageCache.getMessagesAfter(message.getTimeCreated().minusSeconds(6))
-				.stream()
-				.filter(cached -> cached.getMessageId() != message.getIdLong()) // exclude new/current message
-				.filter(cached -> cached.getAuthorId() == message.getAuthor().getIdLong())
-				.filter(cached ->
-						// only java files -> not spam
-						cached.getAttachments().isEmpty() ||
-								cached.getAttachments().stream()
-										.anyMatch(attachment -> !attachment.contains(".java?")))
-				.count() + 1; // include new message
+		// messages only consisting of java files are not counted as spam
+		// while the message cache is still loading, only messages received since startup are known,
+		// which is fine as messages from before the restart are older than the spam windows anyway
+		int spamCount = messageCache.countMessagesByAuthorAfter(
+				message.getGuild().getIdLong(),
+				message.getAuthor().getIdLong(),
+				message.getTimeCreated().minusSeconds(6),
+				message.getIdLong() // exclude new/current message
+		) + 1; // include new message
 
 		if (spamCount >= 5) {
 			handleSpam(message);
 		}
-		checkContentAutomod(message);
-		checkCrossChannelSpam(message);
+		checkContentAutomod(analysis);
+		checkCrossChannelSpam(analysis);
+		checkNearDuplicateSpam(analysis);
 	}
 
-	private void checkCrossChannelSpam(@Nonnull Message message) {
-		int spamWindowSeconds = (botConfig.get(message.getGuild()).getModerationConfig()).getCrossChannelSpamWindowSeconds();
-		Set<Long> channelIds = new HashSet<>();
-		List<CachedMessage> spamMessages = new ArrayList<>();
+	private void checkCrossChannelSpam(@Nonnull MessageAnalysis analysis) {
+		Message message = analysis.getMessage();
+		ModerationConfig moderationConfig = analysis.getGuildConfig().getModerationConfig();
+		int spamWindowSeconds = moderationConfig.getCrossChannelSpamWindowSeconds();
 
 		if (spamWindowSeconds <= 0) {
 			return;
 		}
 
-		for (CachedMessage cachedMessage : messageCache.getMessagesAfter(message.getTimeCreated().minusSeconds(spamWindowSeconds))) {
-			if (cachedMessage.getMessageId() == message.getIdLong()) {
-				continue;
-			}
-			if (cachedMessage.getAuthorId() != message.getAuthor().getIdLong()) {
+		OffsetDateTime windowStart = message.getTimeCreated().minusSeconds(spamWindowSeconds);
+		long guildId = message.getGuild().getIdLong();
+		long authorId = message.getAuthor().getIdLong();
+		int channelCount = messageCache.countChannelsByAuthorAfter(guildId, authorId, windowStart, message.getIdLong());
+		if (channelCount >= moderationConfig.getCrossChannelSpamMinChannels()) {
+			timeoutForSpam(message);
+			messageCache.forEachMessageByAuthorAfter(guildId, authorId, windowStart, message.getIdLong(), (messageId, channelId) ->
+					message.getGuild().getTextChannelById(channelId).deleteMessageById(messageId).queue());
+		}
+	}
+
+	/**
+	 * Checks whether the author or multiple fresh accounts recently sent messages with almost the same content as the given message.
+	 * Only the {@link ContentFingerprint fingerprints} of the last messages of the guild are compared, so this takes constant time.
+	 *
+	 * @param analysis the {@link MessageAnalysis} of the message that should be checked
+	 */
+	private void checkNearDuplicateSpam(@Nonnull MessageAnalysis analysis) {
+		Message message = analysis.getMessage();
+		ModerationConfig moderationConfig = analysis.getGuildConfig().getModerationConfig();
+		int windowSeconds = moderationConfig.getNearDuplicateWindowSeconds();
+		if (windowSeconds <= 0 || analysis.getContent().length() < moderationConfig.getNearDuplicateMinLength()) {
+			return;
+		}
+		long fingerprint = analysis.getFingerprint();
+		if (fingerprint == ContentFingerprint.NONE) {
+			return;
+		}
+		long authorId = message.getAuthor().getIdLong();
+		List<SimilarMessage> similarMessages = new ArrayList<>();
+		messageCache.forEachSimilarMessageAfter(
+				message.getGuild().getIdLong(),
+				message.getTimeCreated().minusSeconds(windowSeconds),
+				message.getIdLong(),
+				fingerprint,
+				moderationConfig.getNearDuplicateMaxDistance(),
+				(messageId, channelId, similarAuthorId) -> similarMessages.add(new SimilarMessage(messageId, channelId, similarAuthorId)));
+
+		List<SimilarMessage> byAuthor = similarMessages.stream().filter(similar -> similar.authorId() == authorId).toList();
+		if (byAuthor.size() + 1 >= moderationConfig.getNearDuplicateMinMessages()) {
+			timeoutForSpam(message);
+			message.delete().queue();
+			deleteMessages(message, byAuthor);
+			return;
+		}
+
+		OffsetDateTime freshAccountCreation = message.getTimeCreated().minusDays(moderationConfig.getNearDuplicateFreshAccountDays());
+		if (moderationConfig.getNearDuplicateMinFreshAccounts() <= 0 || !isFreshAccount(authorId, freshAccountCreation)) {
+			return;
+		}
+		List<SimilarMessage> byFreshAccounts = similarMessages.stream().filter(similar -> isFreshAccount(similar.authorId(), freshAccountCreation)).toList();
+		Set<Long> freshAuthorIds = new LinkedHashSet<>();
+		freshAuthorIds.add(authorId);
+		byFreshAccounts.forEach(similar -> freshAuthorIds.add(similar.authorId()));
+		if (freshAuthorIds.size() >= moderationConfig.getNearDuplicateMinFreshAccounts()) {
+			handleFreshAccountSpam(message, freshAuthorIds, byFreshAccounts);
+		}
+	}
+
+	/**
+	 * Handles near-identical messages sent by multiple fresh accounts, e.g. during a raid.
+	 *
+	 * @param message the (last) spam message
+	 * @param authorIds the ids of all accounts that sent one of the messages, including the author of {@code message}
+	 * @param similarMessages the other messages near-identical to {@code message}
+	 */
+	private void handleFreshAccountSpam(@Nonnull Message message, Set<Long> authorIds, List<SimilarMessage> similarMessages) {
+		notificationService.withGuild(message.getGuild()).sendToModerationLog(c -> c.sendMessageFormat(
+				"%d fresh accounts sent near-identical messages, timing them out. Last message by %s: `%s`",
+				authorIds.size(), message.getAuthor().getAsMention(), message.getContentRaw()));
+		timeoutForSpam(message);
+		message.delete().queue();
+		Map<Long, List<SimilarMessage>> messagesByAuthor = similarMessages.stream()
+				.collect(Collectors.groupingBy(SimilarMessage::authorId));
+		deleteMessages(message, messagesByAuthor.getOrDefault(message.getAuthor().getIdLong(), List.of()));
+		for (long otherAuthorId : authorIds) {
+			if (otherAuthorId == message.getAuthor().getIdLong()) {
 				continue;
 			}
-			channelIds.add(cachedMessage.getChannelId());
-			spamMessages.add(cachedMessage);
+			List<SimilarMessage> otherMessages = messagesByAuthor.getOrDefault(otherAuthorId, List.of());
+			message.getGuild().retrieveMemberById(otherAuthorId).queue(member -> {
+				// the messages of exempt members are neither punished nor deleted
+				if (canBypassAutomod(member)) {
+					return;
+				}
+				moderationService.timeout(
+						member.getUser(),
+						"Automod: Spam",
+						message.getGuild().getSelfMember(),
+						Duration.of(6, ChronoUnit.HOURS),
+						message.getChannel(),
+						true
+				);
+				deleteMessages(message, otherMessages);
+			}, error -> {
+				log.info("Member {} left before Automod was able to handle their messages.", otherAuthorId);
+				deleteMessages(message, otherMessages);
+			});
 		}
+	}
+
+	private boolean isFreshAccount(long userId, OffsetDateTime freshAccountCreation) {
+		return TimeUtil.getTimeCreated(userId).isAfter(freshAccountCreation);
+	}
 
-		if (channelIds.size() >= (botConfig.get(message.getGuild()).getModerationConfig()).getCrossChannelSpamMinChannels()) {
-			handleSpam(spamMessages, message);
+	private void deleteMessages(@Nonnull Message message, List<SimilarMessage> messages) {
+		for (SimilarMessage similar : messages) {
+			GuildMessageChannel channel = message.getGuild().getChannelById(GuildMessageChannel.class, similar.channelId());
+			if (channel != null) {
+				channel.deleteMessageById(similar.messageId()).queue(success -> {
+				}, error -> log.info("Message was deleted before Automod was able to handle it."));
+			}
 		}
 	}
 
 	/**
 	 * Runs all automod checks only depend on the message content.
 	 *
-	 * @param message the {@link Message} that should be checked
+	 * @param analysis the {@link MessageAnalysis} of the message that should be checked
 	 */
-	private void checkContentAutomod(@Nonnull Message message) {
+	private void checkContentAutomod(@Nonnull MessageAnalysis analysis) {
 		//Check for Advertising Links
-		if (hasAdvertisingLink(message)) {
-			doAutomodActions(message, "Advertising");
+		if (hasAdvertisingLink(analysis)) {
+			doAutomodActions(analysis, "Advertising");
 		}
 
 		//Check for suspicious Links
-		if (hasSuspiciousLink(message)) {
-			doAutomodActions(message, "Suspicious Link");
+		if (hasSuspiciousLink(analysis)) {
+			doAutomodActions(analysis, "Suspicious Link");
 		}
 	}
 
-	private void doAutomodActions(Message message, String reason) {
-		notificationService.withGuild(message.getGuild()).sendToModerationLog(c -> c.sendMessageFormat("Message by %s: `%s`", message.getAuthor().getAsMention(), MessageUtils.getMessageContent(message)));
+	private void doAutomodActions(MessageAnalysis analysis, String reason) {
+		Message message = analysis.getMessage();
+		notificationService.withGuild(message.getGuild()).sendToModerationLog(c -> c.sendMessageFormat("Message by %s: `%s`", message.getAuthor().getAsMention(), analysis.getContent()));
 		moderationService
 				.warn(
 						message.getAuthor(),
@@ -190,12 +285,6 @@ public class AutoMod extends ListenerAdapter {
 		msg.delete().queue();
 	}
 
-	private void handleSpam(@Nonnull List<CachedMessage> cachedMessages, Message message) {
-		timeoutForSpam(message);
-		cachedMessages.forEach(cachedMessage -> message.getGuild().getTextChannelById(cachedMessage.getChannelId())
-				.deleteMessageById(cachedMessage.getMessageId()).queue());
-	}
-
 	private void timeoutForSpam(@Nonnull Message message) {
 		moderationService
 				.timeout(
@@ -208,40 +297,19 @@ public class AutoMod extends ListenerAdapter {
 				);
 	}
 
-	/**
-	 * returns the original String cleaned up of unused code points and spaces.
-	 *
-	 * @param input the input String.
-	 * @return the cleaned-up String.
-	 */
-	private @NotNull String cleanString(String input) {
-		input = input.replaceAll("\\p{C}", "");
-		input = input.replace(" ", "");
-		return input;
-	}
-
 	/**
 	 * Checks whether the given message contains a link that might be used to scam people.
 	 *
-	 * @param message The message to check.
+	 * @param analysis The {@link MessageAnalysis} of the message to check.
 	 * @return True if a link is found and False if not.
 	 */
-	public boolean hasSuspiciousLink(@NotNull Message message) {
-		final String messageRaw = MessageUtils.getMessageContent(message);
-		Matcher urlMatcher = URL_PATTERN.matcher(messageRaw);
+	public boolean hasSuspiciousLink(@NotNull MessageAnalysis analysis) {
+		final String messageRaw = analysis.getContent();
 		if (messageRaw.contains("http://") || messageRaw.contains("https://")) {
 			// only do it for a links, so it won't iterate for each message
-			while (urlMatcher.find()) {
-				String url = urlMatcher.group(0).trim();
-				if (url.startsWith("http://") || url.startsWith("https://")) {
-					try {
-						URI uri = new URI(url);
-						if (uri.getHost() != null && spamUrls.contains(uri.getHost())) {
-							return true;
-						}
-					} catch (URISyntaxException e) {
-						ExceptionLogger.capture(e, getClass().getSimpleName());
-					}
+			for (String host : analysis.getHosts()) {
+				if (scamDomainList.matches(host)) {
+					return true;
 				}
 			}
 		}
@@ -251,18 +319,20 @@ public class AutoMod extends ListenerAdapter {
 	/**
 	 * Checks whether the given message contains a discord invite link.
 	 *
-	 * @param message The Message to check.
+	 * @param analysis The {@link MessageAnalysis} of the message to check.
 	 * @return True if an invite is found and False if not.
 	 */
-	public boolean hasAdvertisingLink(@NotNull Message message) {
+	public boolean hasAdvertisingLink(@NotNull MessageAnalysis analysis) {
 		// Advertising
-		Matcher matcher = INVITE_URL.matcher(cleanString(MessageUtils.getMessageContent(message)));
-		int start = 0;
-		while (matcher.find(start)) {
-			if (botConfig.get(message.getGuild()).getModerationConfig().getAutomodInviteExcludes().stream().noneMatch(matcher.group()::contains)) {
+		List<String> inviteUrls = analysis.getInviteUrls();
+		if (inviteUrls.isEmpty()) {
+			return false;
+		}
+		List<String> excludes = analysis.getGuildConfig().getModerationConfig().getAutomodInviteExcludes();
+		for (String inviteUrl : inviteUrls) {
+			if (excludes.stream().noneMatch(inviteUrl::contains)) {
 				return true;
 			}
-			start = matcher.start() + 1;
 		}
 		return false;
 	}
@@ -272,4 +342,13 @@ public class AutoMod extends ListenerAdapter {
 				channel.getIdLong() == botConfig.get(channel.asGuildMessageChannel().getGuild()).getModerationConfig().getSuggestionChannel().getIdLong();
 	}
 
+	/**
+	 * A cached message near-identical to a message checked by AutoMod.
+	 *
+	 * @param messageId the id of the message
+	 * @param channelId the id of the channel the message was sent in
+	 * @param authorId the id of the author of the message
+	 */
+	private record SimilarMessage(long messageId, long channelId, long authorId) {
+	}
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package net.discordjug.javabot.systems.moderation;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.discordjug.javabot.data.config.SystemsConfig;
+import net.discordjug.javabot.util.DomainSet;
+import net.discordjug.javabot.util.ExceptionLogger;
+
+/**
+ * Keeps the list of potential spam/scam domains up to date.
+ * <p>
+ * The list is periodically downloaded in the background from {@link SystemsConfig#getScamLinkListUrl()}.
+ * Every successfully downloaded list is stored in {@link SystemsConfig#getScamLinkListCacheFile()}, which is loaded on startup
+ * so links can be checked before the first download finishes or if downloading fails.
+ * A new list replaces the previous one atomically, so lookups never see a partially loaded list.
+ */
+@Slf4j
+@Service
+public class ScamDomainList {
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient httpClient;
+	private final URI source;
+	private final Path cacheFile;
+	private volatile DomainSet domains = new DomainSet();
+
+	/**
+	 * Creates the list and loads the domains stored on disk.
+	 *
+	 * @param httpClient The shared {@link HttpClient} used for downloading the list
+	 * @param systemsConfig Configuration containing the URL of the list and the location of the local copy
+	 */
+	public ScamDomainList(HttpClient httpClient, SystemsConfig systemsConfig) {
+		this.httpClient = httpClient;
+		this.source = URI.create(systemsConfig.getScamLinkListUrl());
+		this.cacheFile = Path.of(systemsConfig.getScamLinkListCacheFile());
+		loadCacheFile();
+	}
+
+	/**
+	 * Checks whether a host is a listed scam domain or a subdomain of one.
+	 *
+	 * @param host The host of a URL.
+	 * @return {@code true} if the host is listed, else {@code false}
+	 */
+	public boolean matches(String host) {
+		return domains.matches(host);
+	}
+
+	/**
+	 * Gets the amount of listed domains.
+	 *
+	 * @return The amount of domains.
+	 */
+	public int size() {
+		return domains.size();
+	}
+
+	/**
+	 * Downloads the current list and replaces the domains with it.
+	 * If the download fails or the downloaded list is empty, the previous domains are kept.
+	 */
+	@Scheduled(initialDelay = 0, fixedDelay = 6, timeUnit = TimeUnit.HOURS)
+	public void refresh() {
+		HttpRequest request = HttpRequest.newBuilder(source).timeout(REQUEST_TIMEOUT).build();
+		String list;
+		try {
+			HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				log.warn("Could not download scam link list, received status {}. Keeping {} domains.", response.statusCode(), domains.size());
+				return;
+			}
+			list = response.body();
+		} catch (IOException e) {
+			ExceptionLogger.capture(e, getClass().getSimpleName());
+			log.warn("Could not download scam link list. Keeping {} domains.", domains.size());
+			return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		DomainSet downloaded = DomainSet.of(list.lines()::iterator);
+		if (downloaded.size() == 0) {
+			log.warn("Downloaded scam link list is empty. Keeping {} domains.", domains.size());
+			return;
+		}
+		domains = downloaded;
+		log.info("Loaded {} spam URLs!", downloaded.size());
+		writeCacheFile(list);
+	}
+
+	private void loadCacheFile() {
+		if (!Files.exists(cacheFile)) {
+			return;
+		}
+		try {
+			domains = DomainSet.of(Files.readAllLines(cacheFile, StandardCharsets.UTF_8));
+			log.info("Loaded {} spam URLs from {}", domains.size(), cacheFile);
+		} catch (IOException e) {
+			ExceptionLogger.capture(e, getClass().getSimpleName());
+		}
+	}
+
+	private void writeCacheFile(String list) {
+		Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+		try {
+			Files.writeString(tempFile, list, StandardCharsets.UTF_8);
+			Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			ExceptionLogger.capture(e, getClass().getSimpleName());
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package net.discordjug.javabot.util;
+
+/**
+ * Computes 64 bit SimHash fingerprints of message contents for detecting near-duplicate messages.
+ * <p>
+ * The content is normalized by lower-casing it and dropping everything except letters and digits, so
+ * changing whitespace, punctuation, invisible characters or the case doesn't change the fingerprint at all.
+ * Every four consecutive normalized characters are hashed and each bit of the fingerprint is set if the majority of these hashes has it set.
+ * Changing a few characters only changes a few of these hashes, so similar contents have fingerprints that only differ in a few bits.
+ * Computing a fingerprint doesn't allocate anything apart from the bit counters and only looks at the first {@link #MAX_LENGTH} characters.
+ */
+public final class ContentFingerprint {
+	/**
+	 * The fingerprint of contents that are too short to compute a meaningful fingerprint.
+	 */
+	public static final long NONE = 0;
+	/**
+	 * The maximum amount of characters of a content considered when computing its fingerprint.
+	 */
+	public static final int MAX_LENGTH = 4000;
+	private static final int SHINGLE_LENGTH = 4;
+
+	private ContentFingerprint() {
+	}
+
+	/**
+	 * Computes the fingerprint of a content.
+	 *
+	 * @param content The content of a message.
+	 * @return The fingerprint or {@link #NONE} if the content has less than four letters and digits.
+	 */
+	public static long of(CharSequence content) {
+		int[] weights = new int[Long.SIZE];
+		long shingle = 0;
+		int characters = 0;
+		int end = Math.min(content.length(), MAX_LENGTH);
+		for (int i = 0; i < end; i++) {
+			char c = content.charAt(i);
+			if (!Character.isLetterOrDigit(c)) {
+				continue;
+			}
+			shingle = (shingle << Character.SIZE) | Character.toLowerCase(c);
+			characters++;
+			if (characters >= SHINGLE_LENGTH) {
+				long hash = mix(shingle);
+				for (int bit = 0; bit < Long.SIZE; bit++) {
+					weights[bit] += (int) ((hash >>> bit) & 1) * 2 - 1;
+				}
+			}
+		}
+		if (characters < SHINGLE_LENGTH) {
+			return NONE;
+		}
+		long fingerprint = 0;
+		for (int bit = 0; bit < Long.SIZE; bit++) {
+			if (weights[bit] > 0) {
+				fingerprint |= 1L << bit;
+			}
+		}
+		// a valid fingerprint must never be mistaken for NONE
+		return fingerprint == NONE ? 1 : fingerprint;
+	}
+
+	/**
+	 * Computes the amount of bits two fingerprints differ in.
+	 *
+	 * @param first The first fingerprint.
+	 * @param second The second fingerprint.
+	 * @return The hamming distance, between {@code 0} for identical and {@code 64} for completely different fingerprints.
+	 */
+	public static int distance(long first, long second) {
+		return Long.bitCount(first ^ second);
+	}
+
+	/**
+	 * Checks whether two fingerprints belong to near-identical contents.
+	 *
+	 * @param first The first fingerprint.
+	 * @param second The second fingerprint.
+	 * @param maxDistance The maximum amount of bits the fingerprints may differ in.
+	 * @return {@code true} if both fingerprints are not {@link #NONE} and differ in at most {@code maxDistance} bits, else {@code false}
+	 */
+	public static boolean isSimilar(long first, long second, int maxDistance) {
+		return first != NONE && second != NONE && distance(first, second) <= maxDistance;
+	}
+
+	/**
+	 * Scrambles the bits of a shingle (the finalizer of MurmurHash3), so every bit of the result depends on every character.
+	 */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+}
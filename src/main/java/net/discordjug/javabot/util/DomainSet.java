@@ -0,0 +1,117 @@
+package net.discordjug.javabot.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A set of domains which also matches all subdomains of the contained domains.
+ * <p>
+ * Domains are stored in a trie of their labels in reverse order ({@code scam.example.com} is stored as {@code com -> example -> scam}),
+ * so looking up a host only requires walking its labels once, which takes time proportional to the length of the host
+ * independent of the amount of domains in the set.
+ * <p>
+ * This class is not thread-safe. It can be shared between threads once it is no longer modified.
+ */
+public class DomainSet {
+	private final Node root = new Node();
+	private int size = 0;
+
+	/**
+	 * Creates a {@link DomainSet} containing the given domains.
+	 * Blank entries are ignored.
+	 *
+	 * @param domains The domains.
+	 * @return The created {@link DomainSet}.
+	 */
+	public static DomainSet of(Iterable<String> domains) {
+		DomainSet set = new DomainSet();
+		for (String domain : domains) {
+			set.add(domain);
+		}
+		return set;
+	}
+
+	/**
+	 * Adds a domain to this set. Domains are compared case-insensitively and a trailing dot is ignored.
+	 *
+	 * @param domain The domain to add.
+	 * @return {@code true} if the domain has been added, {@code false} if it is blank or was already contained.
+	 */
+	public boolean add(String domain) {
+		String normalized = normalize(domain.strip());
+		if (normalized.isEmpty()) {
+			return false;
+		}
+		Node node = root;
+		int end = normalized.length();
+		while (end >= 0) {
+			int dot = normalized.lastIndexOf('.', end - 1);
+			node = node.getOrCreateChild(normalized.substring(dot + 1, end));
+			end = dot;
+		}
+		if (node.terminal) {
+			return false;
+		}
+		node.terminal = true;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Checks whether a host is contained in this set or is a subdomain of a domain in this set.
+	 *
+	 * @param host The host, e.g. taken from {@link java.net.URI#getHost()}.
+	 * @return {@code true} if the host or one of its parent domains is contained, else {@code false}
+	 */
+	public boolean matches(String host) {
+		String normalized = normalize(host);
+		Node node = root;
+		int end = normalized.length();
+		while (end >= 0) {
+			int dot = normalized.lastIndexOf('.', end - 1);
+			node = node.getChild(normalized.substring(dot + 1, end));
+			if (node == null) {
+				return false;
+			}
+			if (node.terminal) {
+				return true;
+			}
+			end = dot;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the amount of domains in this set.
+	 *
+	 * @return The amount of domains.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private static String normalize(String domain) {
+		String lowerCase = domain.toLowerCase(Locale.ROOT);
+		return lowerCase.endsWith(".") ? lowerCase.substring(0, lowerCase.length() - 1) : lowerCase;
+	}
+
+	/**
+	 * A label in the trie. Most nodes are leaves, so their children are only allocated when needed.
+	 */
+	private static class Node {
+		private Map<String, Node> children;
+		private boolean terminal;
+
+		Node getChild(String label) {
+			return children == null ? null : children.get(label);
+		}
+
+		Node getOrCreateChild(String label) {
+			if (children == null) {
+				children = new HashMap<>(4);
+			}
+			return children.computeIfAbsent(label, _ -> new Node());
+		}
+	}
+}
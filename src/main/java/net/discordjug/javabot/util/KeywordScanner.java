@@ -0,0 +1,263 @@
+package net.discordjug.javabot.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds all occurrences of multiple keywords in a text in a single pass, ignoring the case of the text.
+ * <p>
+ * The keywords are compiled into an Aho-Corasick automaton with a dense transition table,
+ * so scanning a text looks at every character exactly once, independent of the amount and length of the keywords,
+ * and never creates lower-cased copies of the text. Characters are compared using {@link Character#toLowerCase(char)}.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class KeywordScanner {
+	private static final int[] NO_KEYWORDS = {};
+	/**
+	 * Set in {@link #transitions} if at least one keyword ends in the target state.
+	 */
+	private static final int MATCH_FLAG = Integer.MIN_VALUE;
+
+	private final List<String> keywords;
+	/**
+	 * Maps lower-case characters occurring in any keyword to their column in {@link #transitions}.
+	 * Column {@code 0} is used for all other characters.
+	 */
+	private final Map<Character, Integer> columns;
+	/**
+	 * The columns of the ASCII characters in both cases, so common characters don't need to be converted to lower case
+	 * and looked up in {@link #columns}.
+	 */
+	private final int[] asciiColumns = new int[128];
+	private final int columnCount;
+	/**
+	 * The transition table of the automaton.
+	 * The transition of state {@code s} for a character of column {@code c} is stored at {@code s * columnCount + c}.
+	 * It contains the offset of the row of the target state (i.e. {@code target * columnCount}), so no multiplication is needed while scanning,
+	 * combined with {@link #MATCH_FLAG} if keywords end in the target state.
+	 */
+	private final int[] transitions;
+	/**
+	 * The indices of all keywords ending in a state, including those found using suffix links.
+	 */
+	private final int[][] matches;
+	private final int[] keywordLengths;
+
+	/**
+	 * Compiles a scanner for the given keywords.
+	 *
+	 * @param keywords The keywords to search for. The index of a keyword in this list is used to identify it in matches.
+	 * @throws IllegalArgumentException if a keyword is empty
+	 */
+	public KeywordScanner(List<String> keywords) {
+		this.keywords = List.copyOf(keywords);
+		this.columns = new HashMap<>();
+		for (String keyword : this.keywords) {
+			if (keyword.isEmpty()) {
+				throw new IllegalArgumentException("Keywords must not be empty");
+			}
+			for (int i = 0; i < keyword.length(); i++) {
+				char c = Character.toLowerCase(keyword.charAt(i));
+				if (!columns.containsKey(c)) {
+					columns.put(c, columns.size() + 1);
+				}
+			}
+		}
+		for (char c = 0; c < asciiColumns.length; c++) {
+			asciiColumns[c] = columns.getOrDefault(Character.toLowerCase(c), 0);
+		}
+		this.columnCount = columns.size() + 1;
+		this.keywordLengths = this.keywords.stream().mapToInt(String::length).toArray();
+
+		List<int[]> trie = new ArrayList<>();
+		List<int[]> keywordsEndingAt = new ArrayList<>();
+		trie.add(new int[columnCount]);
+		keywordsEndingAt.add(NO_KEYWORDS);
+		for (int index = 0; index < this.keywords.size(); index++) {
+			String keyword = this.keywords.get(index);
+			int state = 0;
+			for (int i = 0; i < keyword.length(); i++) {
+				int column = column(keyword.charAt(i));
+				if (trie.get(state)[column] == 0) {
+					trie.get(state)[column] = trie.size();
+					trie.add(new int[columnCount]);
+					keywordsEndingAt.add(NO_KEYWORDS);
+				}
+				state = trie.get(state)[column];
+			}
+			keywordsEndingAt.set(state, append(keywordsEndingAt.get(state), index));
+		}
+		this.transitions = new int[trie.size() * columnCount];
+		this.matches = keywordsEndingAt.toArray(int[][]::new);
+		buildAutomaton(trie);
+	}
+
+	/**
+	 * Compiles a scanner for the given keywords.
+	 *
+	 * @param keywords The keywords to search for. The index of a keyword is used to identify it in matches.
+	 * @return The created {@link KeywordScanner}.
+	 * @throws IllegalArgumentException if a keyword is empty
+	 */
+	public static KeywordScanner of(String... keywords) {
+		return new KeywordScanner(List.of(keywords));
+	}
+
+	/**
+	 * Gets the keywords this scanner searches for.
+	 *
+	 * @return The keywords, in the order they have been passed when creating this scanner.
+	 */
+	public List<String> getKeywords() {
+		return keywords;
+	}
+
+	/**
+	 * Passes every occurrence of a keyword in a text to a handler, ordered by the position the occurrence ends at.
+	 * Occurrences of different keywords may overlap.
+	 *
+	 * @param text The text to search.
+	 * @param handler The handler accepting the occurrences.
+	 */
+	public void scan(CharSequence text, MatchHandler handler) {
+		// the JIT doesn't trust final fields to stay the same across calls of the handler, so they are read only once
+		int[] transitions = this.transitions;
+		int[] asciiColumns = this.asciiColumns;
+		int row = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			int transition = transitions[row + (c < asciiColumns.length ? asciiColumns[c] : nonAsciiColumn(c))];
+			row = transition & ~MATCH_FLAG;
+			if ((transition & MATCH_FLAG) == 0) {
+				continue;
+			}
+			for (int keyword : matches[row / columnCount]) {
+				if (!handler.onMatch(keyword, i + 1 - keywordLengths[keyword], i + 1)) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds all occurrences of keywords in a text.
+	 *
+	 * @param text The text to search.
+	 * @return The occurrences, ordered by the position they end at.
+	 */
+	public List<Match> findAll(CharSequence text) {
+		List<Match> found = new ArrayList<>();
+		scan(text, (keyword, start, end) -> found.add(new Match(keyword, start, end)));
+		return found;
+	}
+
+	/**
+	 * Finds the keywords occurring in a text.
+	 *
+	 * @param text The text to search.
+	 * @return A {@link BitSet} containing the indices of all keywords occurring at least once.
+	 */
+	public BitSet findKeywords(CharSequence text) {
+		BitSet found = new BitSet(keywords.size());
+		scan(text, (keyword, _, _) -> {
+			found.set(keyword);
+			return found.cardinality() < keywords.size();
+		});
+		return found;
+	}
+
+	/**
+	 * Computes the transitions of all states, following the failure links of the trie where it has no edge.
+	 * States are visited in breadth-first order, so the failure state of a state has always been computed before.
+	 * Afterwards, the target states are replaced by the offsets of their rows.
+	 *
+	 * @param trie The edges of the trie, {@code 0} meaning there is no edge.
+	 */
+	private void buildAutomaton(List<int[]> trie) {
+		int[] failures = new int[trie.size()];
+		Queue<Integer> queue = new ArrayDeque<>();
+		for (int column = 0; column < columnCount; column++) {
+			int child = trie.get(0)[column];
+			transitions[column] = child;
+			if (child != 0) {
+				queue.add(child);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.remove();
+			matches[state] = concat(matches[state], matches[failures[state]]);
+			for (int column = 0; column < columnCount; column++) {
+				int child = trie.get(state)[column];
+				int fallback = transitions[failures[state] * columnCount + column];
+				if (child == 0) {
+					transitions[state * columnCount + column] = fallback;
+				} else {
+					transitions[state * columnCount + column] = child;
+					failures[child] = fallback;
+					queue.add(child);
+				}
+			}
+		}
+		for (int i = 0; i < transitions.length; i++) {
+			int target = transitions[i];
+			transitions[i] = target * columnCount | (matches[target].length == 0 ? 0 : MATCH_FLAG);
+		}
+	}
+
+	private int column(char c) {
+		return c < asciiColumns.length ? asciiColumns[c] : nonAsciiColumn(c);
+	}
+
+	private int nonAsciiColumn(char c) {
+		Integer column = columns.get(Character.toLowerCase(c));
+		return column == null ? 0 : column;
+	}
+
+	private static int[] append(int[] array, int value) {
+		int[] result = Arrays.copyOf(array, array.length + 1);
+		result[array.length] = value;
+		return result;
+	}
+
+	private static int[] concat(int[] first, int[] second) {
+		if (second.length == 0) {
+			return first;
+		}
+		int[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
+	/**
+	 * An occurrence of a keyword in a text.
+	 *
+	 * @param keyword The index of the keyword.
+	 * @param start The index of the first character of the occurrence.
+	 * @param end The index after the last character of the occurrence.
+	 */
+	public record Match(int keyword, int start, int end) {
+	}
+
+	/**
+	 * Accepts occurrences of keywords found by a {@link KeywordScanner}.
+	 */
+	@FunctionalInterface
+	public interface MatchHandler {
+		/**
+		 * Accepts a single occurrence.
+		 *
+		 * @param keyword The index of the keyword.
+		 * @param start The index of the first character of the occurrence.
+		 * @param end The index after the last character of the occurrence.
+		 * @return {@code true} if scanning should continue, {@code false} if it should stop
+		 */
+		boolean onMatch(int keyword, int start, int end);
+	}
+}
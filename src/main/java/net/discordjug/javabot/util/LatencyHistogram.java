@@ -0,0 +1,99 @@
+package net.discordjug.javabot.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of latencies with fixed buckets.
+ * Recording a latency only increments a few counters, so it can be used on hot paths.
+ */
+public class LatencyHistogram {
+	/**
+	 * The (inclusive) upper bounds of all buckets except the last one in milliseconds.
+	 * The last bucket contains all latencies exceeding the last bound.
+	 */
+	private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000};
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Records a single latency.
+	 *
+	 * @param nanos The latency in nanoseconds.
+	 */
+	public void record(long nanos) {
+		buckets.incrementAndGet(bucketOf(nanos));
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	private static int bucketOf(long nanos) {
+		for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+			if (nanos <= TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[i])) {
+				return i;
+			}
+		}
+		return BUCKET_BOUNDS_MILLIS.length;
+	}
+
+	/**
+	 * Creates a snapshot of the recorded latencies.
+	 * Latencies recorded while creating the snapshot may be partially included.
+	 *
+	 * @return The {@link Snapshot}.
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[buckets.length()];
+		long total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		Map<String, Long> bucketsByBound = new LinkedHashMap<>();
+		for (int i = 0; i < counts.length; i++) {
+			bucketsByBound.put(i < BUCKET_BOUNDS_MILLIS.length ? "<=" + BUCKET_BOUNDS_MILLIS[i] + "ms" : ">" + BUCKET_BOUNDS_MILLIS[i - 1] + "ms", counts[i]);
+		}
+		double maxMillis = maxNanos.get() / 1_000_000.0;
+		return new Snapshot(
+				total,
+				total == 0 ? 0 : totalNanos.get() / 1_000_000.0 / total,
+				maxMillis,
+				percentile(counts, total, 0.5, maxMillis),
+				percentile(counts, total, 0.99, maxMillis),
+				bucketsByBound
+		);
+	}
+
+	/**
+	 * Estimates a percentile as the upper bound of the bucket containing it.
+	 */
+	private static double percentile(long[] counts, long total, double percentile, double maxMillis) {
+		long rank = (long) Math.ceil(total * percentile);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(BUCKET_BOUNDS_MILLIS[i], maxMillis);
+			}
+		}
+		return maxMillis;
+	}
+
+	/**
+	 * The recorded latencies at a point in time.
+	 *
+	 * @param count The amount of recorded latencies.
+	 * @param averageMillis The average latency in milliseconds.
+	 * @param maxMillis The highest latency in milliseconds.
+	 * @param p50Millis An upper bound of the median latency in milliseconds.
+	 * @param p99Millis An upper bound of the 99th percentile of latencies in milliseconds.
+	 * @param buckets The amount of latencies in each bucket, keyed by the bounds of the bucket.
+	 */
+	public record Snapshot(long count, double averageMillis, double maxMillis, double p50Millis, double p99Millis, Map<String, Long> buckets) {
+	}
+}
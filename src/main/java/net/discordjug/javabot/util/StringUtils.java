@@ -109,6 +109,41 @@ public class StringUtils {
 		return sb.toString();
 	}
 
+	/**
+	 * Removes all spaces and all characters of the Unicode category "Other" (control and format characters, private use,
+	 * surrogate and unassigned code points) from a text in a single pass.
+	 * This is equivalent to {@code text.replaceAll("\\p{C}", "").replace(" ", "")} without compiling a regular expression
+	 * or copying the text if there is nothing to remove.
+	 *
+	 * @param text The text.
+	 * @return The text without control characters and spaces.
+	 */
+	public static String removeControlCharactersAndSpaces(String text) {
+		StringBuilder sb = null;
+		int copied = 0;
+		int i = 0;
+		while (i < text.length()) {
+			int codePoint = text.codePointAt(i);
+			int next = i + Character.charCount(codePoint);
+			if (codePoint == ' ' || isOtherCharacter(codePoint)) {
+				if (sb == null) {
+					sb = new StringBuilder(text.length());
+				}
+				sb.append(text, copied, i);
+				copied = next;
+			}
+			i = next;
+		}
+		return sb == null ? text : sb.append(text, copied, text.length()).toString();
+	}
+
+	private static boolean isOtherCharacter(int codePoint) {
+		return switch (Character.getType(codePoint)) {
+			case Character.CONTROL, Character.FORMAT, Character.PRIVATE_USE, Character.SURROGATE, Character.UNASSIGNED -> true;
+			default -> false;
+		};
+	}
+
 	/**
 	 * Capitalizes the given word.
 	 *
@@ -0,0 +1 @@
+ALTER TABLE message_cache ADD COLUMN guild_id BIGINT DEFAULT -1;
@@ -0,0 +1,10 @@
+CREATE TABLE help_post_activity (
+	post_id                   BIGINT       NOT NULL,
+	user_id                   BIGINT       NOT NULL,
+	name                      VARCHAR(100),
+	message_count             INT          NOT NULL,
+	experience_message_count  INT          NOT NULL,
+	experience_length_log_sum DOUBLE       NOT NULL,
+	last_message_at           TIMESTAMP(6) NOT NULL,
+	PRIMARY KEY (post_id, user_id)
+)
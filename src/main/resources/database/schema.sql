@@ -95,7 +95,9 @@ CREATE TABLE IF NOT EXISTS message_cache
 (
 	message_id      BIGINT PRIMARY KEY,
 	author_id       BIGINT        NOT NULL,
-	message_content VARCHAR(4000) NOT NULL
+	message_content VARCHAR(4000) NOT NULL,
+	channel_id      BIGINT DEFAULT -1,
+	guild_id        BIGINT DEFAULT -1
 );
 
 CREATE TABLE IF NOT EXISTS message_cache_attachments (
@@ -120,3 +122,16 @@ CREATE TABLE qotw_champion (
         user_id         BIGINT NOT NULL,
         PRIMARY KEY(guild_id, user_id)
 );
+
+// Help post activity
+CREATE TABLE IF NOT EXISTS help_post_activity
+(
+	post_id                   BIGINT       NOT NULL,
+	user_id                   BIGINT       NOT NULL,
+	name                      VARCHAR(100),
+	message_count             INT          NOT NULL,
+	experience_message_count  INT          NOT NULL,
+	experience_length_log_sum DOUBLE       NOT NULL,
+	last_message_at           TIMESTAMP(6) NOT NULL,
+	PRIMARY KEY (post_id, user_id)
+);
@@ -0,0 +1,50 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests finding near-duplicate messages in a {@link ContentFingerprintWindow}.
+ */
+public class ContentFingerprintWindowTest {
+
+	@Test
+	public void testForEachSimilarAfter() {
+		ContentFingerprintWindow window = new ContentFingerprintWindow();
+		window.add(1, 10, 100, 1_000, 0b1111);
+		window.add(2, 11, 101, 2_000, 0b0111);
+		window.add(3, 12, 100, 3_000, 0b1111_0000_0000);
+		window.add(4, 13, 102, 4_000, 0b1110);
+		window.add(5, 14, 103, 5_000, 0b1111);
+
+		assertEquals(List.of(4L, 2L), findSimilar(window, 2_000, 5, 0b1111, 1));
+		assertEquals(List.of(4L, 2L, 1L), findSimilar(window, 0, 5, 0b1111, 1));
+
+		window.remove(4, 4_000);
+		window.update(2, 2_000, 0b1111_0000_0000);
+		assertEquals(List.of(1L), findSimilar(window, 0, 5, 0b1111, 1));
+		assertEquals(List.of(3L, 2L), findSimilar(window, 0, 5, 0b1111_0000_0000, 0));
+	}
+
+	@Test
+	public void testOldestEntriesAreOverwritten() {
+		ContentFingerprintWindow window = new ContentFingerprintWindow();
+		for (int i = 0; i < ContentFingerprintWindow.CAPACITY + 10; i++) {
+			window.add(i, 1, 1, i, 42);
+		}
+		List<Long> similar = findSimilar(window, 0, -1, 42, 0);
+		assertEquals(ContentFingerprintWindow.CAPACITY, similar.size());
+		assertEquals(ContentFingerprintWindow.CAPACITY + 9L, similar.getFirst());
+		assertEquals(10L, similar.getLast());
+	}
+
+	private static List<Long> findSimilar(ContentFingerprintWindow window, long timestamp, long excludedMessageId, long fingerprint, int maxDistance) {
+		List<Long> messageIds = new ArrayList<>();
+		window.forEachSimilarAfter(timestamp, excludedMessageId, fingerprint, maxDistance, (messageId, _, _) -> messageIds.add(messageId));
+		return messageIds;
+	}
+}
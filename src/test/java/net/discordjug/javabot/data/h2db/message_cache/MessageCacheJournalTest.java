@@ -0,0 +1,114 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.SequencedMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStore.PendingChanges;
+import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
+
+/**
+ * Tests replaying, crash recovery and compaction of the {@link MessageCacheJournal}.
+ */
+public class MessageCacheJournalTest {
+	private static final int SEGMENT_SIZE = 4096;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testReplayAfterReopen() throws IOException {
+		MessageCacheJournal journal = new MessageCacheJournal(directory, SEGMENT_SIZE, 4, Runnable::run);
+		journal.persist(new PendingChanges(List.of(message(1, "first"), message(2, "second"), message(3, "third")), List.of()));
+		journal.persist(new PendingChanges(List.of(message(2, "edited")), List.of(1L)));
+
+		List<CachedMessage> loaded = load(new MessageCacheJournal(directory, SEGMENT_SIZE, 4, Runnable::run));
+		assertEquals(List.of(message(3, "third"), message(2, "edited")), loaded);
+	}
+
+	@Test
+	public void testTruncatedRecordIsIgnored() throws IOException {
+		MessageCacheJournal journal = new MessageCacheJournal(directory, SEGMENT_SIZE, 4, Runnable::run);
+		journal.persist(new PendingChanges(List.of(message(1, "first")), List.of()));
+		int start = journal.getPosition();
+		journal.persist(new PendingChanges(List.of(message(2, "second")), List.of()));
+		int end = journal.getPosition();
+		Path segment = journal.getSegments().getLast();
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(start + (end - start) / 2);
+		}
+
+		MessageCacheJournal reopened = new MessageCacheJournal(directory, SEGMENT_SIZE, 4, Runnable::run);
+		assertEquals(List.of(message(1, "first")), load(reopened));
+		reopened.persist(new PendingChanges(List.of(message(3, "third")), List.of()));
+
+		assertEquals(List.of(message(3, "third"), message(1, "first")), load(new MessageCacheJournal(directory, SEGMENT_SIZE, 4, Runnable::run)));
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+		MessageCacheJournal journal = new MessageCacheJournal(directory, SEGMENT_SIZE, 2, Runnable::run);
+		SequencedMap<Long, CachedMessage> expected = new LinkedHashMap<>();
+		for (int i = 1; i <= 1000; i++) {
+			CachedMessage message = message(i % 20, "message " + i);
+			List<Long> removed = i % 7 == 0 ? List.of((long) (i + 1) % 20) : List.of();
+			journal.persist(new PendingChanges(List.of(message), removed));
+			removed.forEach(expected::remove);
+			expected.put(message.getMessageId(), message);
+			assertTrue(journal.getSegments().size() <= 3);
+		}
+
+		assertNotNull(journal.getSnapshot());
+		assertEquals(List.copyOf(expected.sequencedValues().reversed()), load(journal));
+		assertEquals(List.copyOf(expected.sequencedValues().reversed()), load(new MessageCacheJournal(directory, SEGMENT_SIZE, 2, Runnable::run)));
+	}
+
+	@Test
+	public void testAppendingDuringCompaction() throws IOException {
+		List<Runnable> compactions = new ArrayList<>();
+		MessageCacheJournal journal = new MessageCacheJournal(directory, SEGMENT_SIZE, 2, compactions::add);
+		int i = 0;
+		while (compactions.isEmpty()) {
+			journal.persist(new PendingChanges(List.of(message(i % 20, "message " + i)), List.of()));
+			i++;
+		}
+		List<Path> compactedSegments = journal.getSegments().subList(0, journal.getSegments().size() - 1);
+		for (int j = 0; j < 20; j++) {
+			journal.persist(new PendingChanges(List.of(message(j, "new message " + j)), j == 0 ? List.of(1L) : List.of()));
+		}
+		List<CachedMessage> expected = load(journal);
+		assertEquals(1, compactions.size(), "no compaction should be started while another one is running");
+		assertEquals(expected, load(new MessageCacheJournal(directory, SEGMENT_SIZE, 2, Runnable::run)),
+				"an interrupted compaction should not change the state");
+
+		compactions.getFirst().run();
+		assertEquals(expected, load(journal));
+		assertFalse(journal.getSegments().stream().anyMatch(compactedSegments::contains));
+		assertFalse(compactedSegments.stream().anyMatch(Files::exists), "compacted segments should be deleted");
+		assertEquals(expected, load(new MessageCacheJournal(directory, SEGMENT_SIZE, 2, Runnable::run)));
+	}
+
+	private static List<CachedMessage> load(MessageCacheJournal journal) {
+		List<CachedMessage> messages = new ArrayList<>();
+		journal.forEachNewestFirst(messages::add);
+		return messages;
+	}
+
+	private static CachedMessage message(long id, String content) {
+		return new CachedMessage(id, 5, 10, 20, content, List.of("https://cdn.discordapp.com/attachments/" + id));
+	}
+}
@@ -0,0 +1,170 @@
+package net.discordjug.javabot.data.h2db.message_cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.discordjug.javabot.data.h2db.message_cache.MessageCacheStore.PendingChanges;
+import net.discordjug.javabot.data.h2db.message_cache.model.CachedMessage;
+
+/**
+ * Tests the thread-safety of the {@link MessageCacheStore}.
+ */
+public class MessageCacheStoreTest {
+	private static final int MAX_CACHED_MESSAGES = 512;
+	private static final int AUTHORS = 64;
+	private static final int APPENDERS = 4;
+	private static final int MESSAGES_PER_APPENDER = 20_000;
+
+	/**
+	 * Concurrently appends, edits, deletes and synchronizes messages and checks that the cache
+	 * as well as the persisted changes stay consistent.
+	 */
+	@Test
+	void testConcurrentModification() throws InterruptedException, ExecutionException, TimeoutException {
+		MessageCacheStore store = new MessageCacheStore();
+		Map<Long, CachedMessage> database = new HashMap<>();
+		AtomicLong nextId = new AtomicLong(1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(APPENDERS + 3);
+		try {
+			List<Future<?>> appenders = new ArrayList<>();
+			for (int i = 0; i < APPENDERS; i++) {
+				appenders.add(executor.submit(() -> {
+					for (int j = 0; j < MESSAGES_PER_APPENDER; j++) {
+						store.add(createMessage(nextId.getAndIncrement()), MAX_CACHED_MESSAGES);
+					}
+				}));
+			}
+			Future<?> editor = executor.submit(() -> {
+				while (running.get()) {
+					long id = ThreadLocalRandom.current().nextLong(1, nextId.get() + 1);
+					store.update(id, message -> message.setMessageContent("edited " + id));
+				}
+			});
+			Future<?> deleter = executor.submit(() -> {
+				while (running.get()) {
+					store.remove(ThreadLocalRandom.current().nextLong(1, nextId.get() + 1));
+				}
+			});
+			Future<?> synchronizer = executor.submit(() -> {
+				while (running.get()) {
+					applyChanges(database, store.takePendingChanges());
+					store.getMessagesAfter(0);
+					store.countChannelsByAuthorAfter(ThreadLocalRandom.current().nextLong(AUTHORS), 0, -1);
+				}
+			});
+			for (Future<?> appender : appenders) {
+				appender.get(1, TimeUnit.MINUTES);
+			}
+			running.set(false);
+			editor.get(1, TimeUnit.MINUTES);
+			deleter.get(1, TimeUnit.MINUTES);
+			synchronizer.get(1, TimeUnit.MINUTES);
+		} finally {
+			executor.shutdownNow();
+		}
+		applyChanges(database, store.takePendingChanges());
+
+		List<CachedMessage> cached = store.getMessagesAfter(0);
+		assertTrue(store.size() <= MAX_CACHED_MESSAGES, "cache exceeds its maximum size: " + store.size());
+		assertEquals(store.size(), cached.size());
+		Set<Long> cachedIds = cached.stream().map(CachedMessage::getMessageId).collect(Collectors.toSet());
+		assertEquals(cachedIds, database.keySet(), "persisted messages differ from cached messages");
+		for (CachedMessage message : cached) {
+			assertEquals(message.getMessageContent(), database.get(message.getMessageId()).getMessageContent());
+		}
+		int messagesInAuthorWindows = 0;
+		for (long author = 0; author < AUTHORS; author++) {
+			messagesInAuthorWindows += store.countMessagesByAuthorAfter(author, 0, -1, false);
+		}
+		assertEquals(store.size(), messagesInAuthorWindows, "author windows are out of sync with the cache");
+		assertEquals(cached.stream().mapToLong(CachedMessage::estimateRetainedBytes).sum(), store.getRetainedBytes(), "retained bytes are out of sync with the cache");
+	}
+
+	/**
+	 * Changes that could not be persisted should be persisted with the next synchronization, unless they have been superseded.
+	 */
+	@Test
+	void testRestoredChangesArePersistedLater() {
+		MessageCacheStore store = new MessageCacheStore();
+		store.add(createMessage(1), MAX_CACHED_MESSAGES);
+		store.add(createMessage(2), MAX_CACHED_MESSAGES);
+		store.add(createMessage(3), MAX_CACHED_MESSAGES);
+		store.takePendingChanges();
+		store.update(1, message -> message.setMessageContent("edited"));
+		store.remove(2);
+		store.remove(3);
+		PendingChanges failed = store.takePendingChanges();
+
+		// message 3 is cached again and message 1 is deleted before the next synchronization
+		store.add(createMessage(3), MAX_CACHED_MESSAGES);
+		store.add(createMessage(4), MAX_CACHED_MESSAGES);
+		store.remove(1);
+		store.restorePendingChanges(failed);
+
+		PendingChanges retried = store.takePendingChanges();
+		assertEquals(List.of(3L, 4L), retried.changed().stream().map(CachedMessage::getMessageId).sorted().toList());
+		assertEquals(List.of(1L, 2L), retried.removed().stream().sorted().toList());
+	}
+
+	/**
+	 * Loading more stored messages than the cache may hold should not let the cache grow beyond its limit,
+	 * and messages that don't fit should be deleted with the next synchronization.
+	 */
+	@Test
+	void testLoadingMoreMessagesThanTheLimit() {
+		MessageCacheStore store = new MessageCacheStore();
+		store.setLoading(true);
+		for (long id = 10; id >= 1; id--) {
+			store.loadOldest(createMessage(id));
+		}
+		store.setLoading(false);
+		store.add(createMessage(11), 5);
+		assertEquals(List.of(7L, 8L, 9L, 10L, 11L), store.getMessagesAfter(0).stream().map(CachedMessage::getMessageId).toList(),
+				"the oldest loaded messages should be evicted once the limit is known");
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), store.takePendingChanges().removed().stream().sorted().toList());
+
+		// loading in the background while new messages are cached
+		MessageCacheStore loadingStore = new MessageCacheStore();
+		loadingStore.setLoading(true);
+		loadingStore.add(createMessage(20), 3);
+		for (long id = 10; id >= 1; id--) {
+			loadingStore.loadOldest(createMessage(id));
+		}
+		loadingStore.setLoading(false);
+		assertEquals(List.of(9L, 10L, 20L), loadingStore.getMessagesAfter(0).stream().map(CachedMessage::getMessageId).toList(),
+				"messages should not be loaded once the cache is full");
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), loadingStore.takePendingChanges().removed().stream().sorted().toList());
+	}
+
+	private static CachedMessage createMessage(long id) {
+		return new CachedMessage(id, 1, id % AUTHORS, id % 7, "message " + id, List.of());
+	}
+
+	private static void applyChanges(Map<Long, CachedMessage> database, PendingChanges changes) {
+		for (Long id : changes.removed()) {
+			database.remove(id);
+		}
+		for (CachedMessage message : changes.changed()) {
+			database.put(message.getMessageId(), message);
+		}
+	}
+}
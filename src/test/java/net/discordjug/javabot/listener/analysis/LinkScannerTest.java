@@ -0,0 +1,89 @@
+package net.discordjug.javabot.listener.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the {@link LinkScanner} finds the same URLs and invites as the regular expressions it replaces.
+ */
+public class LinkScannerTest {
+	private static final Pattern INVITE_URL = Pattern.compile("discord(?:(\\.(?:me|io|gg)|sites\\.com)/.{0,4}|(?:app)?\\.com.{1,4}(?:invite|oauth2).{0,5}/)\\w+");
+	private static final Pattern URL_PATTERN = Pattern.compile(
+			"(?:^|[\\W])((ht|f)tp(s?)://|www\\.)"
+					+ "(([\\w\\-]+\\.)+?([\\w\\-.~]+/?)*"
+					+ "[\\p{Alnum}.,%_=?&#\\-+()\\[\\]*$~@!:/{};']*)",
+			Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
+
+	/**
+	 * Fragments random texts are built from, chosen to hit the edge cases of both patterns.
+	 */
+	private static final String[] FRAGMENTS = {
+			"http://", "https://", "HTTPS://", "ftp://", "fTpS://", "www.", "WWW.", "httpſ://", "http:/", "htp://",
+			"discord", ".gg/", ".me/", ".io/", "sites.com/", "app.com", ".com", "invite", "oauth2", "/",
+			"a", "Z", "9", "_", "-", ".", ",", "~", "(", ")", "'", "\"", " ", "\n", "\r", "\u2028", "\t", "ä", "😀",
+	};
+
+	@Test
+	public void testExamples() {
+		assertEquals(List.of("https://docs.oracle.com/javase/25/", "www.example.com"), LinkScanner.findUrls("see https://docs.oracle.com/javase/25/ or www.example.com"));
+		assertEquals(List.of("HTTP://Example.COM?q=1&x=(2)"), LinkScanner.findUrls("HTTP://Example.COM?q=1&x=(2)"));
+		assertEquals(List.of(), LinkScanner.findUrls("xhttps://example.com https://localhost"));
+		assertEquals(List.of("discord.gg/java", "discordapp.com/invite/java"), LinkScanner.findInviteUrls("discord.gg/java discordapp.com/invite/java"));
+		assertEquals(List.of("discord.com/oauth2/authorize"), LinkScanner.findInviteUrls("discord.com/oauth2/authorize"));
+	}
+
+	@Test
+	public void testRandomTextsMatchPatterns() {
+		Random random = new Random(0);
+		for (int i = 0; i < 50_000; i++) {
+			StringBuilder text = new StringBuilder();
+			int fragments = random.nextInt(12);
+			for (int j = 0; j < fragments; j++) {
+				text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			}
+			String input = text.toString();
+			assertEquals(findUrlsUsingPattern(input), LinkScanner.findUrls(input), input);
+			assertEquals(findInvitesUsingPattern(input), LinkScanner.findInviteUrls(input), input);
+		}
+	}
+
+	@Test
+	public void testAdversarialInputs() {
+		for (String input : List.of(
+				"http://" + "a.".repeat(50_000),
+				"www." + "a/".repeat(50_000),
+				" www.-".repeat(20_000),
+				"discord.com" + "/invite".repeat(20_000),
+				"discord.gg/" + "discord".repeat(20_000))) {
+			assertEquals(findInvitesUsingPattern(input), LinkScanner.findInviteUrls(input));
+			assertEquals(1, LinkScanner.findUrls(input + " https://example.com").stream().filter("https://example.com"::equals).count());
+		}
+	}
+
+	private static List<String> findUrlsUsingPattern(String text) {
+		List<String> urls = new ArrayList<>();
+		Matcher matcher = URL_PATTERN.matcher(text);
+		while (matcher.find()) {
+			urls.add(text.substring(matcher.start(1), matcher.end()));
+		}
+		return urls;
+	}
+
+	private static List<String> findInvitesUsingPattern(String text) {
+		List<String> invites = new ArrayList<>();
+		Matcher matcher = INVITE_URL.matcher(text);
+		int start = 0;
+		while (matcher.find(start)) {
+			invites.add(matcher.group());
+			start = matcher.start() + 1;
+		}
+		return invites;
+	}
+}
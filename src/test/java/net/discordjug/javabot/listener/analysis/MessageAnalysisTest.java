@@ -0,0 +1,67 @@
+package net.discordjug.javabot.listener.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Tests the information extracted by {@link MessageAnalysis}.
+ */
+public class MessageAnalysisTest {
+
+	@Test
+	public void testUrlsAndHosts() {
+		MessageAnalysis analysis = analyze("see https://docs.oracle.com/javase and (https://github.com/Java-Discord/JavaBot) or www.example.com");
+
+		assertEquals(List.of("https://docs.oracle.com/javase", "https://github.com/Java-Discord/JavaBot)", "www.example.com"), analysis.getUrls());
+		assertEquals(Set.of("docs.oracle.com", "github.com"), analysis.getHosts(), "only URLs starting with a scheme have hosts");
+	}
+
+	@Test
+	public void testInviteUrls() {
+		assertEquals(List.of("discord.gg/java"), analyze("join discord.gg/java").getInviteUrls());
+		assertEquals(List.of("discord.gg/java"), analyze("join d i s c o r d . g g / java").getInviteUrls(), "spaces should be ignored");
+		assertTrue(analyze("hello").getInviteUrls().isEmpty());
+	}
+
+	@Test
+	public void testCodeMarkers() {
+		assertTrue(analyze("```java\nclass A {}\n```").containsCodeMarkers());
+		assertFalse(analyze("class A {\n}").containsCodeMarkers());
+	}
+
+	@Test
+	public void testAnalysesAreSharedUntilEdited() {
+		MessageAnalyzer analyzer = new MessageAnalyzer(null);
+		Message received = mock(Message.class);
+		when(received.getIdLong()).thenReturn(1L);
+		Message sameEvent = mock(Message.class);
+		when(sameEvent.getIdLong()).thenReturn(1L);
+		Message edited = mock(Message.class);
+		when(edited.getIdLong()).thenReturn(1L);
+		when(edited.getTimeEdited()).thenReturn(OffsetDateTime.now());
+
+		MessageAnalysis analysis = analyzer.analyze(received);
+		assertSame(analysis, analyzer.analyze(sameEvent), "listeners handling the same message should share its analysis");
+		assertNotSame(analysis, analyzer.analyze(edited), "edited messages should be analyzed again");
+		assertSame(edited, analyzer.analyze(edited).getMessage());
+	}
+
+	private static MessageAnalysis analyze(String content) {
+		Message message = mock(Message.class);
+		when(message.getContentRaw()).thenReturn(content);
+		return new MessageAnalysis(message, null);
+	}
+}
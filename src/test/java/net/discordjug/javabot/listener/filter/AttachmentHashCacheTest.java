@@ -0,0 +1,127 @@
+package net.discordjug.javabot.listener.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import net.discordjug.javabot.data.config.SystemsConfig;
+import net.dv8tion.jda.api.entities.Message.Attachment;
+
+/**
+ * Tests hashing attachments with the {@link AttachmentHashCache} using a local HTTP server instead of Discord's CDN.
+ */
+public class AttachmentHashCacheTest {
+	private static final int MAX_SIZE = 1024;
+
+	private HttpServer server;
+	private final AtomicInteger downloads = new AtomicInteger();
+	private volatile int status = 200;
+	private volatile byte[] content = "attachment".getBytes(StandardCharsets.UTF_8);
+	private volatile long stallMillis = 0;
+
+	@BeforeEach
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/attachment", exchange -> {
+			downloads.incrementAndGet();
+			byte[] body = content;
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body, 0, body.length / 2);
+				out.flush();
+				Thread.sleep(stallMillis);
+				out.write(body, body.length / 2, body.length - body.length / 2);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	public void testAttachmentIsDownloadedOnce() throws NoSuchAlgorithmException {
+		AttachmentHashCache cache = createCache();
+		Attachment attachment = attachment(1, content.length);
+
+		String expected = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content));
+		assertEquals(expected, cache.getSHA(attachment));
+		assertEquals(expected, cache.getSHA(attachment));
+		assertEquals(1, downloads.get());
+	}
+
+	@Test
+	public void testLargeAttachmentsAreNotHashed() {
+		AttachmentHashCache cache = createCache();
+
+		assertEquals("", cache.getSHA(attachment(1, MAX_SIZE + 1)));
+		assertEquals(0, downloads.get(), "attachments known to be too large should not be downloaded");
+
+		content = new byte[MAX_SIZE + 1];
+		assertEquals("", cache.getSHA(attachment(2, 1)), "downloads should be aborted when exceeding the maximum size");
+	}
+
+	@Test
+	public void testFailedDownloadsAreNotCached() {
+		AttachmentHashCache cache = createCache();
+		Attachment attachment = attachment(1, content.length);
+
+		status = 404;
+		assertEquals("", cache.getSHA(attachment));
+		status = 200;
+		assertEquals(44, cache.getSHA(attachment).length(), "download should be retried");
+		assertEquals(2, downloads.get());
+	}
+
+	@Test
+	public void testDownloadsFinishBeforeFilterDeadline() {
+		SystemsConfig config = new SystemsConfig();
+		config.setAttachmentHashMaxSize(MAX_SIZE);
+		config.setMessageFilterTimeoutMillis(500);
+		AttachmentHashCache cache = new AttachmentHashCache(HttpClient.newHttpClient(), config);
+		stallMillis = 10_000;
+
+		long start = System.nanoTime();
+		assertEquals("", cache.getSHA(attachment(1, content.length)), "stalled downloads should be aborted");
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < config.getMessageFilterTimeoutMillis(),
+				"downloads should be aborted before the deadline of message filters");
+	}
+
+	private AttachmentHashCache createCache() {
+		SystemsConfig config = new SystemsConfig();
+		config.setAttachmentHashMaxSize(MAX_SIZE);
+		return new AttachmentHashCache(HttpClient.newHttpClient(), config);
+	}
+
+	private Attachment attachment(long id, int size) {
+		Attachment attachment = mock(Attachment.class);
+		when(attachment.getIdLong()).thenReturn(id);
+		when(attachment.getSize()).thenReturn(size);
+		when(attachment.getProxyUrl()).thenReturn("http://127.0.0.1:" + server.getAddress().getPort() + "/attachment");
+		return attachment;
+	}
+}
@@ -0,0 +1,137 @@
+package net.discordjug.javabot.listener.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import net.discordjug.javabot.data.config.guild.MessageRule;
+import net.dv8tion.jda.api.entities.Message.Attachment;
+
+/**
+ * Tests checking messages against {@link CompiledMessageRules}.
+ */
+public class CompiledMessageRulesTest {
+	private static final Function<Attachment, String> NO_SHA = _ -> "";
+
+	@Test
+	public void testMatchingRulesAreReportedInOrder() {
+		MessageRule nitro = rule(Pattern.compile(".*free nitro.*"));
+		MessageRule steam = rule(Pattern.compile(".*steam.*gift.*"));
+		MessageRule any = rule(null);
+		CompiledMessageRules rules = CompiledMessageRules.compile(List.of(nitro, steam, any));
+
+		assertEquals(List.of(nitro, steam, any), rules.findMatchingRules("free nitro and a steam gift", List.of(), NO_SHA));
+		assertEquals(List.of(steam, any), rules.findMatchingRules("steam gift", List.of(), NO_SHA));
+		assertEquals(List.of(any), rules.findMatchingRules("hello", List.of(), NO_SHA));
+	}
+
+	@Test
+	public void testFlags() {
+		MessageRule rule = rule(Pattern.compile("free.nitro", Pattern.CASE_INSENSITIVE | Pattern.DOTALL));
+		CompiledMessageRules rules = CompiledMessageRules.compile(List.of(rule));
+
+		assertEquals(List.of(rule), rules.findMatchingRules("FREE\nNitro", List.of(), NO_SHA));
+		assertEquals(List.of(), rules.findMatchingRules("free nitro!", List.of(), NO_SHA), "the whole message must match");
+	}
+
+	@Test
+	public void testPatternsNotSupportedByRe2j() {
+		MessageRule backreference = rule(Pattern.compile("(\\w+) \\1"));
+		MessageRule lookahead = rule(Pattern.compile("(?=.*nitro).*gift.*"));
+		MessageRule plain = rule(Pattern.compile("gift"));
+		CompiledMessageRules rules = CompiledMessageRules.compile(List.of(backreference, lookahead, plain));
+
+		assertEquals(List.of(backreference), rules.findMatchingRules("spam spam", List.of(), NO_SHA));
+		assertEquals(List.of(lookahead), rules.findMatchingRules("nitro gift", List.of(), NO_SHA));
+		assertEquals(List.of(plain), rules.findMatchingRules("gift", List.of(), NO_SHA));
+	}
+
+	@Test
+	public void testPatternsInterpretedDifferentlyByRe2j() {
+		assertSameMatches(Pattern.compile("[a-z&&[^x]]+"), "abc", "axc");
+		assertSameMatches(Pattern.compile("[[a-c]x]+"), "ax", "[a", "d");
+		assertSameMatches(Pattern.compile("(?U)\\w+"), "h\u00e9llo", "abc");
+		assertSameMatches(Pattern.compile("a\\vb"), "a\u000Bb", "a\nb", "avb");
+		assertSameMatches(Pattern.compile("a.b"), "axb", "a\nb", "a\rb", "a\u0085b", "a\u2028b");
+		assertSameMatches(Pattern.compile("a\\sb"), "a b", "a\u000Bb");
+		assertSameMatches(Pattern.compile("sk", Pattern.CASE_INSENSITIVE), "SK", "\u017F\u212A");
+		assertSameMatches(Pattern.compile("(?i)sk"), "SK", "\u017F\u212A");
+		assertSameMatches(Pattern.compile("a$\n"), "a\n", "a");
+		assertSameMatches(Pattern.compile("a$\n^b", Pattern.MULTILINE), "a\nb", "a\r\nb");
+	}
+
+	@Test
+	public void testAttachments() {
+		MessageRule executable = rule(null);
+		executable.setAttachmentNameRegex(Pattern.compile(".*\\.exe"));
+		executable.setMinAttachments(1);
+		MessageRule hashed = rule(null);
+		hashed.setAttachmentSHAs(Set.of("bad"));
+		MessageRule hashedToo = rule(null);
+		hashedToo.setAttachmentSHAs(Set.of("bad"));
+		CompiledMessageRules rules = CompiledMessageRules.compile(List.of(executable, hashed, hashedToo));
+
+		Map<Attachment, Integer> shaComputations = new HashMap<>();
+		Function<Attachment, String> sha = attachment -> {
+			shaComputations.merge(attachment, 1, Integer::sum);
+			return attachment.getFileName().startsWith("bad") ? "bad" : "good";
+		};
+		assertEquals(List.of(executable, hashed, hashedToo), rules.findMatchingRules("", List.of(attachment("bad.exe")), sha));
+		assertEquals(List.of(), rules.findMatchingRules("", List.of(attachment("good.exe"), attachment("good.txt")), sha));
+		assertTrue(shaComputations.values().stream().allMatch(count -> count == 1), "the hash of each attachment should only be computed once");
+	}
+
+	@Test
+	public void testChangesAreDetected() {
+		List<MessageRule> list = new ArrayList<>(List.of(rule(Pattern.compile("a"))));
+		CompiledMessageRules rules = CompiledMessageRules.compile(list);
+		assertTrue(rules.isCompiledFrom(list));
+
+		list.getFirst().setMessageRegex(Pattern.compile("b"));
+		assertFalse(rules.isCompiledFrom(list), "changed regexes should be detected");
+
+		rules = CompiledMessageRules.compile(list);
+		list.getFirst().getAttachmentSHAs().add("sha");
+		assertFalse(rules.isCompiledFrom(list), "changed hashes should be detected");
+
+		rules = CompiledMessageRules.compile(list);
+		list.add(rule(null));
+		assertFalse(rules.isCompiledFrom(list), "added rules should be detected");
+
+		rules = CompiledMessageRules.compile(list);
+		assertFalse(rules.isCompiledFrom(new ArrayList<>(list)), "replaced lists should be detected");
+	}
+
+	private static void assertSameMatches(Pattern pattern, String... messages) {
+		MessageRule rule = rule(pattern);
+		CompiledMessageRules rules = CompiledMessageRules.compile(List.of(rule));
+		for (String message : messages) {
+			assertEquals(pattern.matcher(message).matches(), !rules.findMatchingRules(message, List.of(), NO_SHA).isEmpty(),
+					"rule " + pattern + " should match the same messages as the regex, differs for " + message);
+		}
+	}
+
+	private static MessageRule rule(Pattern messageRegex) {
+		MessageRule rule = new MessageRule();
+		rule.setMessageRegex(messageRegex);
+		return rule;
+	}
+
+	private static Attachment attachment(String fileName) {
+		Attachment attachment = mock(Attachment.class);
+		when(attachment.getFileName()).thenReturn(fileName);
+		return attachment;
+	}
+}
@@ -0,0 +1,218 @@
+package net.discordjug.javabot.listener.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.discordjug.javabot.data.config.SystemsConfig;
+import net.discordjug.javabot.listener.analysis.MessageAnalysis;
+import net.discordjug.javabot.listener.analysis.MessageAnalyzer;
+import net.discordjug.javabot.systems.moderation.AutoMod;
+import net.discordjug.javabot.systems.notification.NotificationService;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+/**
+ * Tests running {@link MessageFilter}s on messages with the {@link MessageFilterHandler}.
+ */
+public class MessageFilterHandlerTest {
+	private static final long TIMEOUT_MILLIS = 200;
+
+	private final NotificationService notificationService = mock(NotificationService.class, RETURNS_DEEP_STUBS);
+	private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+	private MessageFilterHandler handler;
+
+	@AfterEach
+	public void shutdown() {
+		if (handler != null) {
+			handler.shutdown();
+		}
+	}
+
+	@Test
+	public void testFiltersRunInOrder() {
+		handler = createHandler(
+				filter("last", Integer.MAX_VALUE, false, () -> MessageModificationStatus.NOT_MODIFIED),
+				filter("first", -100, true, () -> MessageModificationStatus.NOT_MODIFIED),
+				filter("second", 0, false, () -> MessageModificationStatus.NOT_MODIFIED));
+
+		assertFalse(handler.applyFilters(createContent("message")), "unmodified messages should not be replaced");
+		assertEquals(List.of("first", "second", "last"), executed);
+	}
+
+	@Test
+	public void testModifiedAndStopProcessing() {
+		handler = createHandler(
+				filter("modifying", 0, false, () -> MessageModificationStatus.MODIFIED),
+				filter("unmodified", 1, false, () -> MessageModificationStatus.NOT_MODIFIED));
+		assertTrue(handler.applyFilters(createContent("message")), "messages modified by any filter should be replaced");
+
+		executed.clear();
+		handler = createHandler(
+				filter("modifying", 0, false, () -> MessageModificationStatus.MODIFIED),
+				filter("stopping", 1, false, () -> MessageModificationStatus.STOP_PROCESSING),
+				filter("skipped", 2, true, () -> MessageModificationStatus.MODIFIED));
+		assertFalse(handler.applyFilters(createContent("message")), "stopped messages should not be replaced");
+		assertEquals(List.of("modifying", "stopping"), executed);
+	}
+
+	@Test
+	public void testFailingFilters() {
+		handler = createHandler(
+				filter("modifying", 0, false, () -> MessageModificationStatus.MODIFIED),
+				filter("slow", 1, false, () -> {
+					sleep(10_000);
+					return MessageModificationStatus.NOT_MODIFIED;
+				}),
+				filter("skipped", 2, false, () -> MessageModificationStatus.NOT_MODIFIED),
+				filter("enforcing", 3, true, () -> MessageModificationStatus.NOT_MODIFIED));
+
+		long start = System.nanoTime();
+		assertFalse(handler.applyFilters(createContent("message")), "messages should not be replaced after a filter failed");
+		assertTrue(System.nanoTime() - start < 5_000_000_000L, "slow filters should be interrupted at their deadline");
+		assertEquals(List.of("modifying", "slow", "enforcing"), executed, "only enforcing filters should run after a failure");
+		verify(notificationService, never()).withGuild(any());
+
+		handler = createHandler(filter("enforcing", 0, true, () -> {
+			throw new IllegalStateException("enforcing filter failed");
+		}));
+		assertFalse(handler.applyFilters(createContent("message")));
+		verify(notificationService).withGuild(any());
+	}
+
+	@Test
+	public void testFiltersIgnoringInterruptsDontChangeContent() {
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		handler = createHandler(new MessageFilter() {
+			@Override
+			public MessageModificationStatus processMessage(MessageContent content) {
+				long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(4 * TIMEOUT_MILLIS);
+				while (System.nanoTime() < end) {
+					// parking returns early when interrupted instead of throwing
+					LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+					content.messageText().append('x');
+					content.attachments().clear();
+				}
+				return MessageModificationStatus.MODIFIED;
+			}
+
+			@Override
+			public boolean isEnforcing() {
+				return true;
+			}
+		}, new MessageFilter() {
+			@Override
+			public MessageModificationStatus processMessage(MessageContent content) {
+				seen.add(content.messageText().toString());
+				sleep(TIMEOUT_MILLIS / 2);
+				seen.add(content.messageText().toString());
+				return MessageModificationStatus.NOT_MODIFIED;
+			}
+
+			@Override
+			public int getOrder() {
+				return 1;
+			}
+
+			@Override
+			public boolean isEnforcing() {
+				return true;
+			}
+		});
+
+		MessageContent content = createContent("message");
+		assertFalse(handler.applyFilters(content));
+		sleep(4 * TIMEOUT_MILLIS);
+		assertEquals(List.of("message", "message"), seen, "later filters should not see changes of filters that missed the deadline");
+		assertEquals("message", content.messageText().toString(), "filters that missed the deadline should not change the content");
+	}
+
+	@Test
+	public void testMessagesOfChannelKeepTheirOrder() {
+		Map<String, List<String>> processed = new HashMap<>();
+		handler = createHandler(new MessageFilter() {
+			@Override
+			public MessageModificationStatus processMessage(MessageContent content) {
+				sleep(ThreadLocalRandom.current().nextInt(5));
+				String[] parts = content.messageText().toString().split(":");
+				synchronized (processed) {
+					processed.computeIfAbsent(parts[0], _ -> new ArrayList<>()).add(parts[1]);
+				}
+				return MessageModificationStatus.NOT_MODIFIED;
+			}
+		});
+
+		List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			expected.add(String.valueOf(i));
+			for (int channel = 0; channel < 3; channel++) {
+				tasks.add(handler.submit(channel, createContent(channel + ":" + i)));
+			}
+		}
+		tasks.forEach(CompletableFuture::join);
+
+		assertEquals(Map.of("0", expected, "1", expected, "2", expected), processed,
+				"messages of the same channel should be processed in the order they have been received");
+	}
+
+	private MessageFilterHandler createHandler(MessageFilter... filters) {
+		if (handler != null) {
+			handler.shutdown();
+		}
+		SystemsConfig config = new SystemsConfig();
+		config.setMessageFilterTimeoutMillis(TIMEOUT_MILLIS);
+		return new MessageFilterHandler(List.of(filters), mock(AutoMod.class), mock(MessageAnalyzer.class), notificationService, config);
+	}
+
+	private MessageFilter filter(String name, int order, boolean enforcing, Supplier<MessageModificationStatus> action) {
+		return new MessageFilter() {
+			@Override
+			public MessageModificationStatus processMessage(MessageContent content) {
+				executed.add(name);
+				return action.get();
+			}
+
+			@Override
+			public int getOrder() {
+				return order;
+			}
+
+			@Override
+			public boolean isEnforcing() {
+				return enforcing;
+			}
+		};
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static MessageContent createContent(String text) {
+		return new MessageContent(mock(MessageReceivedEvent.class, RETURNS_DEEP_STUBS), new StringBuilder(text),
+				new ArrayList<>(), new ArrayList<>(), mock(MessageAnalysis.class));
+	}
+}
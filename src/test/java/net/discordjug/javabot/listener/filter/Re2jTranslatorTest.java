@@ -0,0 +1,50 @@
+package net.discordjug.javabot.listener.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests translating {@link Pattern}s to re2j syntax with the {@link Re2jTranslator}.
+ */
+public class Re2jTranslatorTest {
+
+	@Test
+	public void testTranslation() {
+		assertEquals("free [^\\n\\r\\x{85}\\x{2028}\\x{2029}]*", translate("free .*", 0));
+		assertEquals("free (?s:.)*", translate("free .*", Pattern.DOTALL));
+		assertEquals("[\\t-\\r ]+[^\\t-\\r ]", translate("\\s+\\S", 0));
+		assertEquals("[\\d\\t-\\r \\-]", translate("[\\d\\s-]", 0));
+		assertEquals("^(?:a|b\\.){2,3}?\\w+?$", translate("^(?:a|b\\.){2,3}?\\w+?$", 0));
+		assertEquals("\\x{9}\u00e9", translate("\t\u00e9", 0));
+	}
+
+	@Test
+	public void testCaseInsensitivity() {
+		assertEquals("[nN][iI]\\.", translate("ni\\.", Pattern.CASE_INSENSITIVE));
+		assertEquals("[a-zA-Z\u00e9]", translate("[a-z\u00e9]", Pattern.CASE_INSENSITIVE));
+		assertEquals("[^X-cA-Cx-z]", translate("[^X-c]", Pattern.CASE_INSENSITIVE));
+	}
+
+	@Test
+	public void testSyntaxInterpretedDifferentlyIsNotTranslated() {
+		assertNull(translate("[a-z&&[^x]]", 0), "intersections should not be translated");
+		assertNull(translate("[[a-z]0-9]", 0), "unions should not be translated");
+		assertNull(translate("(?U)\\w+", 0), "inline flags should not be translated");
+		assertNull(translate("(?i)k", 0), "inline flags should not be translated");
+		assertNull(translate("a\\vb", 0), "vertical whitespace should not be translated");
+		assertNull(translate("\\w+", Pattern.UNICODE_CHARACTER_CLASS), "unsupported flags should not be translated");
+		assertNull(translate("^a$", Pattern.MULTILINE), "anchors should not be translated in multiline mode");
+		assertNull(translate("a$\\n", 0), "anchors before the end should not be translated");
+		assertNull(translate("a*+", 0), "possessive quantifiers should not be translated");
+		assertNull(translate("(\\w+) \\1", 0), "back references should not be translated");
+		assertNull(translate("\\Q.*\\E", 0), "quotes should not be translated");
+	}
+
+	private static String translate(String regex, int flags) {
+		return Re2jTranslator.translate(Pattern.compile(regex, flags));
+	}
+}
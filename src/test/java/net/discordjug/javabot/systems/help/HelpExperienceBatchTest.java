@@ -0,0 +1,78 @@
+package net.discordjug.javabot.systems.help;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import com.zaxxer.hikari.HikariDataSource;
+import net.discordjug.javabot.RuntimeHintsConfiguration;
+import net.discordjug.javabot.data.h2db.DbHelper;
+import net.discordjug.javabot.systems.help.dao.HelpAccountRepository;
+import net.discordjug.javabot.systems.help.model.HelpAccount;
+
+/**
+ * Tests adding experience to multiple help accounts at once.
+ */
+@ExtendWith(SpringExtension.class)
+@Import(RuntimeHintsConfiguration.class)
+public class HelpExperienceBatchTest {
+
+	private HikariDataSource dataSource;
+	private HelpAccountRepository repo;
+
+	@BeforeEach
+	void setUp() throws IOException, SQLException {
+		dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url("jdbc:h2:mem:test")
+				.username("test")
+				.password("")
+				.build();
+
+		DbHelper.initializeSchema(dataSource);
+
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		repo = new HelpAccountRepository(template);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		dataSource.close();
+	}
+
+	/**
+	 * Existing accounts should be updated and missing accounts created.
+	 */
+	@Test
+	void testAddExperience() {
+		repo.insert(new HelpAccount(1, 10));
+		repo.addExperience(Map.of(1L, 5.5, 2L, 3.0));
+		assertEquals(15.5, repo.getByUserId(1).get().getExperience());
+		assertEquals(3.0, repo.getByUserId(2).get().getExperience());
+	}
+
+	/**
+	 * Only the accounts of the requested users should be returned.
+	 */
+	@Test
+	void testGetByUserIds() {
+		repo.insert(new HelpAccount(1, 10));
+		repo.insert(new HelpAccount(2, 20));
+		repo.insert(new HelpAccount(3, 30));
+		List<HelpAccount> accounts = repo.getByUserIds(List.of(1L, 3L, 4L));
+		assertEquals(List.of(1L, 3L), accounts.stream().map(HelpAccount::getUserId).sorted().toList());
+		assertTrue(repo.getByUserIds(List.of()).isEmpty());
+	}
+}
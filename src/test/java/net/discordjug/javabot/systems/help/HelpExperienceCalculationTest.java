@@ -0,0 +1,81 @@
+package net.discordjug.javabot.systems.help;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.discordjug.javabot.data.config.guild.HelpConfig;
+import net.discordjug.javabot.systems.help.model.HelperActivity;
+
+/**
+ * Tests that calculating help experience from the running totals of {@link HelperActivity}
+ * yields the same results as calculating it from all messages of a post.
+ */
+public class HelpExperienceCalculationTest {
+	private static final int POSTS = 1000;
+	private static final long POST_ID = 1;
+	private static final long OWNER_ID = 100;
+
+	@Test
+	public void testTotalsMatchMessages() {
+		Random random = new Random(42);
+		for (int i = 0; i < POSTS; i++) {
+			HelpConfig config = new HelpConfig();
+			config.setMinimumMessageLength(random.nextInt(50));
+			config.setBaseExperience(random.nextInt(10));
+			config.setPerCharacterExperience(random.nextDouble() * 3);
+			// the cap would hide most differences if it was always reached
+			config.setMaxExperiencePerChannel(random.nextBoolean() ? 50 : Double.MAX_VALUE);
+
+			List<Message> messages = new ArrayList<>();
+			Map<Long, HelperActivity> totals = new HashMap<>();
+			int messageCount = random.nextInt(300);
+			int authorCount = 1 + random.nextInt(8);
+			for (int j = 0; j < messageCount; j++) {
+				long authorId = OWNER_ID + random.nextInt(authorCount);
+				int length = random.nextInt(2000);
+				Message message = new Message(authorId, length, 1 + random.nextInt(Math.max(length, 1)));
+				messages.add(message);
+				long timestamp = j;
+				totals.compute(authorId, (_, activity) -> (activity == null ? HelperActivity.empty(POST_ID, authorId) : activity)
+						.withMessage("user" + authorId, timestamp, message.length(), message.trimmedLength(), config.getMinimumMessageLength()));
+			}
+
+			Map<Long, Double> expected = calculateExperienceFromMessages(messages, config);
+			Map<Long, Double> actual = HelpManager.calculateExperience(totals.values(), OWNER_ID, config);
+			assertEquals(expected.keySet(), actual.keySet(), "experience should be awarded to the same users");
+			for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+				assertEquals(entry.getValue(), actual.get(entry.getKey()), Math.abs(entry.getValue()) * 1e-12,
+						"experience should only differ by rounding errors");
+			}
+		}
+	}
+
+	/**
+	 * Calculates the experience by filtering the messages of the post for every helper, like it was done before running totals were kept.
+	 */
+	private static Map<Long, Double> calculateExperienceFromMessages(List<Message> messages, HelpConfig config) {
+		Map<Long, Double> experience = new HashMap<>();
+		if (messages.isEmpty()) return Map.of();
+		for (long userId : messages.stream().map(Message::authorId).collect(Collectors.toSet())) {
+			if (userId == OWNER_ID) continue;
+			double xp = 0;
+			for (Message message : messages.stream()
+					.filter(f -> f.authorId() != OWNER_ID && f.length() > config.getMinimumMessageLength()).toList()) {
+				xp += config.getBaseExperience() + config.getPerCharacterExperience() * (Math.log(message.trimmedLength()) / Math.log(2));
+			}
+			experience.put(userId, Math.min(xp, config.getMaxExperiencePerChannel()));
+		}
+		return experience;
+	}
+
+	private record Message(long authorId, int length, int trimmedLength) {
+	}
+}
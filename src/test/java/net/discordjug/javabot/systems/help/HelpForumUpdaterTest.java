@@ -0,0 +1,66 @@
+package net.discordjug.javabot.systems.help;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import net.discordjug.javabot.data.config.BotConfig;
+import net.discordjug.javabot.data.h2db.DbHelper;
+import net.discordjug.javabot.systems.help.dao.HelpPostActivityRepository;
+import net.discordjug.javabot.systems.user_preferences.UserPreferenceService;
+import net.dv8tion.jda.api.JDA;
+
+/**
+ * Tests forgetting closed posts in the {@link HelpForumUpdater}.
+ */
+public class HelpForumUpdaterTest {
+	private static final int MINIMUM_MESSAGE_LENGTH = 10;
+
+	private HikariDataSource dataSource;
+	private HelpPostActivityRepository repository;
+
+	@BeforeEach
+	void setUp() throws IOException, SQLException {
+		dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url("jdbc:h2:mem:test")
+				.username("test")
+				.password("")
+				.build();
+		DbHelper.initializeSchema(dataSource);
+		repository = new HelpPostActivityRepository(new JdbcTemplate(dataSource));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		dataSource.close();
+	}
+
+	@Test
+	public void testClosedPostsAreForgotten() {
+		HelpPostActivity activity = new HelpPostActivity(repository);
+		HelpForumUpdater updater = new HelpForumUpdater(mock(JDA.class), mock(BotConfig.class), mock(UserPreferenceService.class),
+				mock(HelpExperienceService.class), activity, mock(ScheduledExecutorService.class));
+		activity.record(1, 200, "helper", 1_000, 20, 20, MINIMUM_MESSAGE_LENGTH);
+		activity.record(2, 200, "helper", 2_000, 20, 20, MINIMUM_MESSAGE_LENGTH);
+		activity.flush();
+
+		updater.onPostClosed(1);
+
+		assertTrue(activity.getActivity(1).isEmpty(), "the activity of closed posts should be forgotten");
+		assertTrue(new HelpPostActivity(repository).getActivity(1).isEmpty(), "the activity of closed posts should be deleted");
+		assertEquals(1, new HelpPostActivity(repository).getActivity(2).size(), "open posts should be kept");
+	}
+}
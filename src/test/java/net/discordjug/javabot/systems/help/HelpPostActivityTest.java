@@ -0,0 +1,126 @@
+package net.discordjug.javabot.systems.help;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import net.discordjug.javabot.data.config.guild.HelpConfig;
+import net.discordjug.javabot.data.h2db.DbHelper;
+import net.discordjug.javabot.systems.help.dao.HelpPostActivityRepository;
+import net.discordjug.javabot.systems.help.model.HelperActivity;
+
+/**
+ * Tests remembering the activity in help posts in {@link HelpPostActivity}.
+ */
+public class HelpPostActivityTest {
+	private static final int MINIMUM_MESSAGE_LENGTH = 10;
+
+	private HikariDataSource dataSource;
+	private HelpPostActivityRepository repository;
+
+	@BeforeEach
+	void setUp() throws IOException, SQLException {
+		dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url("jdbc:h2:mem:test")
+				.username("test")
+				.password("")
+				.build();
+		DbHelper.initializeSchema(dataSource);
+		repository = new HelpPostActivityRepository(new JdbcTemplate(dataSource));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		dataSource.close();
+	}
+
+	@Test
+	public void testTotalsAndHelpers() {
+		HelpPostActivity activity = new HelpPostActivity(repository);
+		activity.record(1, 100, "owner", 1_000, 20, 16, MINIMUM_MESSAGE_LENGTH);
+		activity.record(1, 200, "first helper", 2_000, 32, 32, MINIMUM_MESSAGE_LENGTH);
+		activity.record(2, 200, "first helper", 2_500, 5, 5, MINIMUM_MESSAGE_LENGTH);
+		activity.record(1, 300, null, 3_000, 40, 40, MINIMUM_MESSAGE_LENGTH);
+		activity.record(1, 400, "second helper", 4_000, 50, 50, MINIMUM_MESSAGE_LENGTH);
+		activity.record(1, 200, "renamed helper", 5_000, 5, 5, MINIMUM_MESSAGE_LENGTH);
+
+		assertEquals(new HelperActivity(1, 200, "renamed helper", 2, 1, 5, 5_000), find(activity, 1, 200),
+				"messages not exceeding the minimum length should only be counted as messages");
+		assertEquals(new HelperActivity(1, 100, "owner", 1, 1, 4, 1_000), find(activity, 1, 100));
+		assertEquals(List.of(new HelperActivity(2, 200, "first helper", 1, 0, 0, 2_500)), List.copyOf(activity.getActivity(2)));
+		assertEquals(List.of(200L, 400L), activity.getHelpers(1, 100).stream().map(HelperActivity::userId).toList(),
+				"helpers should be ordered by their newest message, excluding the owner and non-members");
+
+		activity.remove(1);
+		assertTrue(activity.getActivity(1).isEmpty());
+		assertTrue(activity.getHelpers(1, 100).isEmpty());
+	}
+
+	@Test
+	public void testExperienceIsKeptAcrossRestarts() {
+		HelpConfig config = new HelpConfig();
+		HelpPostActivity uninterrupted = new HelpPostActivity(repository);
+		HelpPostActivity restarted = new HelpPostActivity(repository);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 20; i++) {
+			if (i == 10) {
+				restarted.flush();
+				restarted = new HelpPostActivity(repository);
+			}
+			uninterrupted.record(1, 100 + i % 3, "user" + i % 3, now + i, 10 + i, 10 + i, config.getMinimumMessageLength());
+			restarted.record(2, 100 + i % 3, "user" + i % 3, now + i, 10 + i, 10 + i, config.getMinimumMessageLength());
+		}
+
+		Map<Long, Double> expected = HelpManager.calculateExperience(uninterrupted.getActivity(1), 100, config);
+		assertEquals(expected, HelpManager.calculateExperience(restarted.getActivity(2), 100, config));
+		assertEquals(2, expected.size());
+	}
+
+	@Test
+	public void testFailedLoadsAreRetried() {
+		HelpPostActivity previous = new HelpPostActivity(repository);
+		previous.record(1, 200, "helper", 1_000, 20, 20, MINIMUM_MESSAGE_LENGTH);
+		previous.flush();
+
+		AtomicBoolean unavailable = new AtomicBoolean(true);
+		HelpPostActivity activity = new HelpPostActivity(new HelpPostActivityRepository(new JdbcTemplate(dataSource)) {
+			@Override
+			public List<HelperActivity> getActivityInPost(long postId) {
+				if (unavailable.getAndSet(false)) {
+					throw new DataAccessResourceFailureException("database unavailable");
+				}
+				return super.getActivityInPost(postId);
+			}
+		});
+		assertThrows(DataAccessException.class, () -> activity.getActivity(1));
+		activity.record(1, 200, "helper", 2_000, 20, 20, MINIMUM_MESSAGE_LENGTH);
+		activity.flush();
+
+		assertEquals(2, find(new HelpPostActivity(repository), 1, 200).messageCount(),
+				"the post should be loaded again instead of overwriting the stored totals");
+	}
+
+	private static HelperActivity find(HelpPostActivity activity, long postId, long userId) {
+		return activity.getActivity(postId).stream()
+				.filter(helper -> helper.userId() == userId)
+				.findAny()
+				.orElseThrow();
+	}
+}
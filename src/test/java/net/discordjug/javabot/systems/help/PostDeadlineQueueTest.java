@@ -0,0 +1,56 @@
+package net.discordjug.javabot.systems.help;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests scheduling the deadlines of help posts in a {@link PostDeadlineQueue}.
+ */
+public class PostDeadlineQueueTest {
+
+	@Test
+	public void testExpiredPostsAreOrderedByDeadline() {
+		PostDeadlineQueue queue = new PostDeadlineQueue();
+		queue.schedule(1, 300);
+		queue.schedule(2, 100);
+		queue.schedule(3, 200);
+		queue.schedule(4, 1_000);
+
+		assertEquals(100, queue.nextDeadline());
+		assertEquals(List.of(), queue.pollExpired(99));
+		assertEquals(List.of(2L, 3L, 1L), queue.pollExpired(300));
+		assertFalse(queue.contains(1));
+		assertTrue(queue.contains(4));
+		assertEquals(1_000, queue.nextDeadline());
+	}
+
+	@Test
+	public void testRescheduledAndRemovedPosts() {
+		PostDeadlineQueue queue = new PostDeadlineQueue();
+		queue.schedule(1, 100);
+		queue.schedule(2, 200);
+		queue.schedule(1, 500);
+		queue.schedule(3, 50);
+		queue.remove(3);
+
+		assertEquals(200, queue.nextDeadline(), "outdated and removed deadlines should be skipped");
+		assertEquals(List.of(2L), queue.pollExpired(499));
+		assertEquals(List.of(1L), queue.pollExpired(500));
+		assertEquals(Long.MAX_VALUE, queue.nextDeadline());
+	}
+
+	@Test
+	public void testOutdatedDeadlinesAreDropped() {
+		PostDeadlineQueue queue = new PostDeadlineQueue();
+		for (int i = 0; i < 10_000; i++) {
+			queue.schedule(i % 10, i);
+		}
+		assertEquals(9_990, queue.nextDeadline());
+		assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), queue.pollExpired(Long.MAX_VALUE));
+	}
+}
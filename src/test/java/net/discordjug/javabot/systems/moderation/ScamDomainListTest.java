@@ -0,0 +1,106 @@
+package net.discordjug.javabot.systems.moderation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import net.discordjug.javabot.data.config.SystemsConfig;
+
+/**
+ * Tests downloading and caching the {@link ScamDomainList} using a local HTTP server instead of the real list.
+ */
+public class ScamDomainListTest {
+	@TempDir
+	Path directory;
+
+	private HttpServer server;
+	private volatile int status = 200;
+	private volatile String list = "";
+
+	@BeforeEach
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/links.txt", exchange -> {
+			byte[] body = list.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	public void testRefreshDownloadsList() throws IOException {
+		list = "scam.example\nfree-nitro.gift\n";
+		ScamDomainList domains = createList();
+		assertEquals(0, domains.size());
+
+		domains.refresh();
+
+		assertEquals(2, domains.size());
+		assertTrue(domains.matches("free-nitro.gift"));
+		assertTrue(domains.matches("www.scam.example"));
+		assertEquals(list, Files.readString(directory.resolve("scam-links.txt")), "downloaded list should be stored on disk");
+	}
+
+	@Test
+	public void testColdStartFromDisk() throws IOException {
+		Files.writeString(directory.resolve("scam-links.txt"), "scam.example\n");
+		status = 500;
+
+		ScamDomainList domains = createList();
+		assertTrue(domains.matches("scam.example"), "stored list should be loaded before downloading");
+
+		domains.refresh();
+		assertTrue(domains.matches("scam.example"), "stored list should be kept if downloading fails");
+	}
+
+	@Test
+	public void testFailedRefreshKeepsDomains() {
+		list = "scam.example\n";
+		ScamDomainList domains = createList();
+		domains.refresh();
+
+		status = 404;
+		domains.refresh();
+		assertTrue(domains.matches("scam.example"));
+
+		status = 200;
+		list = "";
+		domains.refresh();
+		assertTrue(domains.matches("scam.example"), "empty lists should be ignored");
+
+		list = "other.example\n";
+		domains.refresh();
+		assertFalse(domains.matches("scam.example"));
+		assertTrue(domains.matches("other.example"));
+	}
+
+	private ScamDomainList createList() {
+		SystemsConfig config = new SystemsConfig();
+		config.setScamLinkListUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/links.txt");
+		config.setScamLinkListCacheFile(directory.resolve("scam-links.txt").toString());
+		return new ScamDomainList(HttpClient.newHttpClient(), config);
+	}
+}
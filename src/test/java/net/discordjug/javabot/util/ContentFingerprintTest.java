@@ -0,0 +1,47 @@
+package net.discordjug.javabot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that {@link ContentFingerprint}s of near-identical messages are similar while those of unrelated messages are not.
+ */
+public class ContentFingerprintTest {
+	private static final int MAX_DISTANCE = 10;
+	private static final String SPAM = "Free Discord Nitro for everyone! Claim your gift now at https://dlscord-gift.com/claim before it expires";
+
+	@Test
+	public void testNormalization() {
+		assertEquals(ContentFingerprint.of(SPAM), ContentFingerprint.of(SPAM.toUpperCase().replace(" ", "  \u200b")));
+		assertEquals(ContentFingerprint.NONE, ContentFingerprint.of("a.b c"));
+		assertEquals(ContentFingerprint.NONE, ContentFingerprint.of(""));
+		assertFalse(ContentFingerprint.isSimilar(ContentFingerprint.NONE, ContentFingerprint.NONE, MAX_DISTANCE));
+	}
+
+	@Test
+	public void testVariationsAreSimilar() {
+		long fingerprint = ContentFingerprint.of(SPAM);
+		for (String variation : new String[] {
+				"free discord nitro for everyone!! claim ur gift now at https://dlscord-gift.com/claim before it expires",
+				SPAM + " 8231",
+				"F r e e Discord Nitro for everyone! Claim your gift now at https://discord-glft.ru/claim before it expires",
+		}) {
+			assertTrue(ContentFingerprint.isSimilar(fingerprint, ContentFingerprint.of(variation), MAX_DISTANCE), variation);
+		}
+	}
+
+	@Test
+	public void testUnrelatedMessagesAreNotSimilar() {
+		long fingerprint = ContentFingerprint.of(SPAM);
+		for (String unrelated : new String[] {
+				"How do I convert a List<String> to an array in Java? I tried toArray but get Object[]",
+				"Can anyone explain why my Spring Boot application fails to start with a bean creation exception?",
+				"thanks, that fixed it! the problem was the missing dependency in my pom",
+		}) {
+			assertFalse(ContentFingerprint.isSimilar(fingerprint, ContentFingerprint.of(unrelated), MAX_DISTANCE), unrelated);
+		}
+	}
+}
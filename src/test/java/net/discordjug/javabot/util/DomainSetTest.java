@@ -0,0 +1,51 @@
+package net.discordjug.javabot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the {@link DomainSet} class.
+ */
+public class DomainSetTest {
+	private final DomainSet domains = DomainSet.of(List.of("scam.example.com", "free-nitro.gift", " discrod.gg\r", "", "   "));
+
+	@Test
+	public void testExactMatch() {
+		assertTrue(domains.matches("scam.example.com"));
+		assertTrue(domains.matches("free-nitro.gift"));
+		assertTrue(domains.matches("discrod.gg"), "entries should be stripped");
+	}
+
+	@Test
+	public void testSubdomainMatch() {
+		assertTrue(domains.matches("www.scam.example.com"));
+		assertTrue(domains.matches("a.b.free-nitro.gift"));
+	}
+
+	@Test
+	public void testNormalization() {
+		assertTrue(domains.matches("SCAM.Example.COM"));
+		assertTrue(domains.matches("free-nitro.gift."));
+	}
+
+	@Test
+	public void testNoMatch() {
+		assertFalse(domains.matches("example.com"), "parent domains of listed domains must not match");
+		assertFalse(domains.matches("notscam.example.com"));
+		assertFalse(domains.matches("free-nitro.gift.example.com"));
+		assertFalse(domains.matches("gift"));
+		assertFalse(domains.matches(""));
+	}
+
+	@Test
+	public void testSize() {
+		assertEquals(3, domains.size(), "blank entries should be ignored");
+		assertFalse(domains.add("Scam.Example.com"), "duplicates should not be added");
+		assertEquals(3, domains.size());
+	}
+}
@@ -0,0 +1,68 @@
+package net.discordjug.javabot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a {@link KeywordScanner} finds the same keywords as searching for each keyword separately.
+ */
+public class KeywordScannerTest {
+
+	@Test
+	public void testExamples() {
+		KeywordScanner scanner = KeywordScanner.of("he", "she", "his", "hers");
+		assertEquals(List.of(
+				new KeywordScanner.Match(1, 1, 4),
+				new KeywordScanner.Match(0, 2, 4),
+				new KeywordScanner.Match(3, 2, 6)
+		), scanner.findAll("uSHErs"));
+		assertEquals(BitSet.valueOf(new long[] {0b0101}), KeywordScanner.of("thank", "close", "solv", "post").findKeywords("Thanks, SOLVED!"));
+		assertEquals(List.of(), scanner.findAll(""));
+		assertThrows(IllegalArgumentException.class, () -> KeywordScanner.of("a", ""));
+	}
+
+	@Test
+	public void testRandomTextsMatchIndexOf() {
+		Random random = new Random(0);
+		String alphabet = "abcAB äÄ";
+		for (int i = 0; i < 2_000; i++) {
+			List<String> keywords = new ArrayList<>();
+			for (int j = random.nextInt(1, 6); j > 0; j--) {
+				keywords.add(randomString(random, alphabet, random.nextInt(1, 4)));
+			}
+			KeywordScanner scanner = new KeywordScanner(keywords);
+			String text = randomString(random, alphabet, random.nextInt(30));
+			assertEquals(findUsingIndexOf(keywords, text), scanner.findAll(text), keywords + " in " + text);
+		}
+	}
+
+	private static List<KeywordScanner.Match> findUsingIndexOf(List<String> keywords, String text) {
+		List<KeywordScanner.Match> found = new ArrayList<>();
+		String lowerCaseText = text.toLowerCase();
+		for (int keyword = 0; keyword < keywords.size(); keyword++) {
+			String lowerCaseKeyword = keywords.get(keyword).toLowerCase();
+			for (int start = lowerCaseText.indexOf(lowerCaseKeyword); start != -1; start = lowerCaseText.indexOf(lowerCaseKeyword, start + 1)) {
+				found.add(new KeywordScanner.Match(keyword, start, start + lowerCaseKeyword.length()));
+			}
+		}
+		// longer keywords are reported first if multiple keywords end at the same position
+		found.sort(Comparator.comparingInt(KeywordScanner.Match::end).thenComparingInt(KeywordScanner.Match::start).thenComparingInt(KeywordScanner.Match::keyword));
+		return found;
+	}
+
+	private static String randomString(Random random, String alphabet, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+}
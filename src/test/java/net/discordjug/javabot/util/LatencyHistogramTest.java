@@ -0,0 +1,41 @@
+package net.discordjug.javabot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests recording latencies in a {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void testEmptyHistogram() {
+		LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+		assertEquals(0, snapshot.count());
+		assertEquals(0, snapshot.averageMillis());
+		assertEquals(0, snapshot.p99Millis());
+	}
+
+	@Test
+	public void testBucketsAndPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 98; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+		}
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(40));
+		histogram.record(TimeUnit.SECONDS.toNanos(30));
+
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(100, snapshot.count());
+		assertEquals(98, snapshot.buckets().get("<=1ms"));
+		assertEquals(1, snapshot.buckets().get("<=50ms"));
+		assertEquals(1, snapshot.buckets().get(">10000ms"));
+		assertEquals(1, snapshot.p50Millis());
+		assertEquals(50, snapshot.p99Millis());
+		assertEquals(30_000, snapshot.maxMillis());
+		assertEquals((98 * 0.5 + 40 + 30_000) / 100, snapshot.averageMillis(), 0.001);
+	}
+}
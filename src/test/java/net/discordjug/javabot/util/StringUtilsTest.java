@@ -2,7 +2,10 @@ package net.discordjug.javabot.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -30,4 +33,24 @@ public class StringUtilsTest {
 		assertEquals("[███░]", StringUtils.buildTextProgressBar(0.95, 6));
 		assertEquals("[████]", StringUtils.buildTextProgressBar(1, 6));
 	}
+
+	/**
+	 * Tests that {@link StringUtils#removeControlCharactersAndSpaces(String)} removes the same characters as the regular expression it replaces.
+	 */
+	@Test
+	public void testRemoveControlCharactersAndSpaces() {
+		String unchanged = "discord.gg/java";
+		assertSame(unchanged, StringUtils.removeControlCharactersAndSpaces(unchanged));
+		assertEquals("discord.gg/java", StringUtils.removeControlCharactersAndSpaces("disc\u200bord . gg/\u0000java\n"));
+		String[] fragments = {"a", " ", "\t", "\u00a0", "\u200b", "\u202e", "\ue000", "\ud83d\ude00", "\ud83d", "\ude00", "\u0378", "\udb80\udc00", "ä"};
+		Random random = new Random(0);
+		for (int i = 0; i < 10_000; i++) {
+			StringBuilder text = new StringBuilder();
+			for (int j = random.nextInt(8); j > 0; j--) {
+				text.append(fragments[random.nextInt(fragments.length)]);
+			}
+			String input = text.toString();
+			assertEquals(input.replaceAll("\\p{C}", "").replace(" ", ""), StringUtils.removeControlCharactersAndSpaces(input));
+		}
+	}
 }